@@ -0,0 +1,179 @@
+package com.fuzz.datacontroller.loom;
+
+import com.fuzz.datacontroller.DataController;
+import com.fuzz.datacontroller.DataControllerRequest;
+import com.fuzz.datacontroller.DataControllerResponse;
+import com.fuzz.datacontroller.DataResponseError;
+import com.fuzz.datacontroller.source.DataSource;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Description: A {@link DataSource} written as plain blocking code. {@link #fetch(SourceParams)} and
+ * {@link #save(DataControllerResponse)} may block on IO freely, each call runs on its own virtual thread so
+ * tens of thousands of them can wait at once. Every call is scoped to the request that made it: cancelling
+ * the {@link DataControllerRequest} interrupts the threads of its calls, and results of interrupted calls
+ * are dropped.
+ */
+public abstract class BlockingDataSource<TResponse> extends DataSource<TResponse> {
+
+    private final Executor executor;
+
+    private final Set<Fetch> fetches = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong storeFailureCount = new AtomicLong();
+
+    /**
+     * @param executor Runs the blocking calls, i.e. from {@link VirtualThreads#newExecutor(String)}.
+     */
+    protected BlockingDataSource(RefreshStrategy<TResponse> refreshStrategy, Executor executor) {
+        super(refreshStrategy);
+        this.executor = executor;
+    }
+
+    protected BlockingDataSource(RefreshStrategy<TResponse> refreshStrategy) {
+        this(refreshStrategy, VirtualThreads.sharedExecutor());
+    }
+
+    protected BlockingDataSource() {
+        this.executor = VirtualThreads.sharedExecutor();
+    }
+
+    /**
+     * Retrieves the data, blocking until it is available. Runs on a virtual thread.
+     *
+     * @return The data, or null if there is none.
+     * @throws InterruptedException When the call was cancelled while blocked.
+     * @throws Exception            Reported to the error callback as a {@link DataResponseError}.
+     */
+    protected abstract TResponse fetch(SourceParams sourceParams) throws Exception;
+
+    /**
+     * Stores the response, blocking until it is written. Runs on a virtual thread. Does nothing by default.
+     *
+     * @throws Exception Counted in {@link #getStoreFailureCount()}.
+     */
+    protected void save(DataControllerResponse<TResponse> dataControllerResponse) throws Exception {
+    }
+
+    @Override
+    protected final void doGet(SourceParams sourceParams, DataController.Success<TResponse> success,
+                               DataController.Error error) {
+        Fetch fetch = new Fetch(sourceParams, success, error);
+        fetches.add(fetch);
+        executor.execute(fetch);
+    }
+
+    @Override
+    protected final void doStore(DataControllerResponse<TResponse> dataControllerResponse) {
+        executor.execute(() -> {
+            try {
+                save(dataControllerResponse);
+            } catch (Exception e) {
+                storeFailureCount.incrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Description: One blocking call of {@link #fetch(SourceParams)}. Cancelling interrupts its thread only
+     * while the call runs.
+     */
+    private final class Fetch implements Runnable {
+
+        private final SourceParams sourceParams;
+        private final DataController.Success<TResponse> success;
+        private final DataController.Error error;
+
+        // guarded by this.
+        private Thread thread;
+        private boolean isCancelled;
+
+        Fetch(SourceParams sourceParams, DataController.Success<TResponse> success, DataController.Error error) {
+            this.sourceParams = sourceParams;
+            this.success = success;
+            this.error = error;
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                if (isCancelled) {
+                    return;
+                }
+                thread = Thread.currentThread();
+            }
+            TResponse response = null;
+            Exception failure = null;
+            try {
+                response = fetch(sourceParams);
+            } catch (Exception e) {
+                failure = e;
+            } finally {
+                fetches.remove(this);
+            }
+            synchronized (this) {
+                thread = null;
+                // clears an interrupt that arrived after the fetch returned, the thread may be reused.
+                Thread.interrupted();
+                if (isCancelled) {
+                    return;
+                }
+            }
+            if (failure != null) {
+                error.onFailure(new DataResponseError(failure));
+            } else {
+                success.onSuccess(new DataControllerResponse<>(response, getSourceType(), null, sourceParams));
+            }
+        }
+
+        synchronized void cancel() {
+            isCancelled = true;
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+    }
+
+    /**
+     * Interrupts every running call.
+     */
+    @Override
+    public void cancel() {
+        for (Fetch fetch : fetches) {
+            fetch.cancel();
+        }
+        fetches.clear();
+    }
+
+    /**
+     * Interrupts the running calls made with the params.
+     */
+    @Override
+    public void cancel(SourceParams sourceParams) {
+        for (Fetch fetch : fetches) {
+            if (Objects.equals(sourceParams, fetch.sourceParams)) {
+                fetch.cancel();
+                fetches.remove(fetch);
+            }
+        }
+    }
+
+    /**
+     * @return The amount of calls currently fetching.
+     */
+    public int getFetchCount() {
+        return fetches.size();
+    }
+
+    /**
+     * @return The amount of {@link #save(DataControllerResponse)} calls that threw.
+     */
+    public long getStoreFailureCount() {
+        return storeFailureCount.get();
+    }
+}
@@ -0,0 +1,35 @@
+package com.fuzz.datacontroller.loom;
+
+import com.fuzz.datacontroller.DataController;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Description: Creates executors that run every task on its own virtual thread. Pass one to a
+ * {@link DataController} to run its asynchronous requests on virtual threads, so blocking sources no longer
+ * cap concurrency at the size of a platform thread pool.
+ */
+public final class VirtualThreads {
+
+    private static final ExecutorService SHARED = newExecutor("datacontroller-");
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return An executor shared by every {@link BlockingDataSource} that does not get its own. It is never
+     * shut down, virtual threads do not keep the JVM alive.
+     */
+    public static ExecutorService sharedExecutor() {
+        return SHARED;
+    }
+
+    /**
+     * @param namePrefix Prefixed to a counter to name each thread, i.e. for thread dumps.
+     * @return A new executor starting a virtual thread per task.
+     */
+    public static ExecutorService newExecutor(String namePrefix) {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(namePrefix, 0).factory());
+    }
+}
@@ -0,0 +1,149 @@
+package com.fuzz.datacontroller.loom;
+
+import com.fuzz.datacontroller.DataController;
+import com.fuzz.datacontroller.DataControllerRequest;
+import com.fuzz.datacontroller.DataControllerResponse;
+import com.fuzz.datacontroller.DataResponseError;
+import com.fuzz.datacontroller.source.DataSource;
+import com.fuzz.datacontroller.source.DataSource.SourceParams;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Description: Validates blocking calls, their cancellation and their concurrency on the
+ * {@link BlockingDataSource}.
+ */
+public class BlockingDataSourceTest {
+
+    @Test
+    public void test_deliversFetchedData() throws Exception {
+        SleepingDataSource dataSource = new SleepingDataSource(10);
+        assertEquals("response 3", await(dataSource, params(3)));
+    }
+
+    @Test
+    public void test_reportsFailures() throws Exception {
+        BlockingDataSource<String> dataSource = new BlockingDataSource<String>() {
+            @Override
+            protected String fetch(SourceParams sourceParams) throws Exception {
+                throw new IOException("disk gone");
+            }
+
+            @Override
+            public SourceType getSourceType() {
+                return SourceType.DISK;
+            }
+        };
+        assertEquals("error: disk gone", await(dataSource, params(1)));
+    }
+
+    @Test
+    public void test_cancelInterruptsOnlyThoseParams() throws Exception {
+        SleepingDataSource dataSource = new SleepingDataSource(60000);
+        DataController<String> dataController = new DataController<>();
+        dataController.registerDataSource(dataSource);
+
+        DataControllerRequest<String> cancelled = dataController.requestData(params(1));
+        DataControllerRequest<String> kept = dataController.requestData(params(2));
+        assertTrue(dataSource.startedLatch.await(5, TimeUnit.SECONDS));
+
+        cancelled.cancel();
+        assertTrue(dataSource.interruptedLatch.await(5, TimeUnit.SECONDS));
+        assertEquals(1, dataSource.interruptCount.get());
+        assertEquals(1, dataSource.getFetchCount());
+        assertFalse(kept.isDone());
+
+        dataController.cancel();
+        assertEquals(0, dataSource.getFetchCount());
+    }
+
+    @Test
+    public void test_sustainsManyConcurrentFetches() throws Exception {
+        int count = 10000;
+        SleepingDataSource dataSource = new SleepingDataSource(500);
+        DataController<String> dataController = new DataController<>();
+        dataController.registerDataSource(dataSource);
+
+        long startTime = System.nanoTime();
+        List<DataControllerRequest<String>> requests = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            requests.add(dataController.requestData(params(i)));
+        }
+        for (int i = 0; i < count; i++) {
+            assertEquals("response " + i, requests.get(i).get(30, TimeUnit.SECONDS).getResponse());
+        }
+        // all of them blocked at the same time, one after the other would take over an hour.
+        assertTrue(System.nanoTime() - startTime < TimeUnit.SECONDS.toNanos(30));
+    }
+
+    private static SourceParams params(int index) {
+        SourceParams sourceParams = new SourceParams();
+        sourceParams.index = index;
+        return sourceParams;
+    }
+
+    private static String await(DataSource<String> dataSource, SourceParams sourceParams) throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<String> result = new AtomicReference<>();
+        dataSource.get(sourceParams, new DataController.Success<String>() {
+            @Override
+            public void onSuccess(DataControllerResponse<String> response) {
+                result.set(response.getResponse());
+                latch.countDown();
+            }
+        }, new DataController.Error() {
+            @Override
+            public void onFailure(DataResponseError dataResponseError) {
+                result.set("error: " + dataResponseError.getMessage());
+                latch.countDown();
+            }
+        });
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        return result.get();
+    }
+
+    /**
+     * Description: Blocks each fetch with a sleep, the way a blocking network client would.
+     */
+    private static class SleepingDataSource extends BlockingDataSource<String> {
+
+        private final long sleepTime;
+        private final CountDownLatch startedLatch = new CountDownLatch(2);
+        private final CountDownLatch interruptedLatch = new CountDownLatch(1);
+        private final AtomicInteger interruptCount = new AtomicInteger();
+
+        SleepingDataSource(long sleepTime) {
+            this.sleepTime = sleepTime;
+        }
+
+        @Override
+        protected String fetch(SourceParams sourceParams) throws Exception {
+            startedLatch.countDown();
+            try {
+                Thread.sleep(sleepTime);
+            } catch (InterruptedException e) {
+                interruptCount.incrementAndGet();
+                interruptedLatch.countDown();
+                throw e;
+            }
+            return "response " + sourceParams.index;
+        }
+
+        @Override
+        public SourceType getSourceType() {
+            return SourceType.NETWORK;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.fuzz.datacontroller.reactive;
+
+import com.fuzz.datacontroller.DataController;
+import com.fuzz.datacontroller.DataControllerRequest;
+import com.fuzz.datacontroller.DataControllerResponse;
+import com.fuzz.datacontroller.DataResponseError;
+import com.fuzz.datacontroller.source.DataSource;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Description: Publishes every response of a {@link DataController} to Reactive Streams subscribers. Each
+ * subscription registers for callbacks on the controller and buffers responses in a bounded buffer until the
+ * subscriber requests them, applying the {@link OverflowStrategy} once it is full. A failure from any source
+ * ends the subscription with a {@link DataResponseException}. When params are given, each subscription
+ * instead makes its own request with them, publishes only that request's result and then completes.
+ * Cancelling it cancels that request, which cancels the source calls no other request is waiting on.
+ */
+public class DataControllerPublisher<TResponse> implements Publisher<DataControllerResponse<TResponse>> {
+
+    private final DataController<TResponse> dataController;
+    private final OverflowStrategy overflowStrategy;
+    private final int bufferSize;
+    private final DataSource.SourceParams sourceParams;
+
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    /**
+     * @param overflowStrategy What to do with responses arriving while the buffer is full.
+     * @param bufferSize       The amount of responses buffered per subscription. {@link OverflowStrategy#LATEST}
+     *                         always buffers one.
+     * @param sourceParams     The params each subscription requests data with. Null to listen to requests
+     *                         made elsewhere instead.
+     */
+    public DataControllerPublisher(DataController<TResponse> dataController, OverflowStrategy overflowStrategy,
+                                   int bufferSize, DataSource.SourceParams sourceParams) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("Buffer size must be at least 1: " + bufferSize);
+        }
+        this.dataController = dataController;
+        this.overflowStrategy = overflowStrategy;
+        this.bufferSize = overflowStrategy == OverflowStrategy.LATEST ? 1 : bufferSize;
+        this.sourceParams = sourceParams;
+    }
+
+    /**
+     * Listens to requests made elsewhere on the controller.
+     */
+    public DataControllerPublisher(DataController<TResponse> dataController, OverflowStrategy overflowStrategy,
+                                   int bufferSize) {
+        this(dataController, overflowStrategy, bufferSize, null);
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super DataControllerResponse<TResponse>> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("Subscriber must not be null.");
+        }
+        ResponseSubscription subscription = new ResponseSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        subscription.start();
+    }
+
+    /**
+     * @return The amount of responses dropped by {@link OverflowStrategy#DROP_OLDEST} and
+     * {@link OverflowStrategy#LATEST} across all subscriptions.
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * Description: Buffers responses for one subscriber. Signals to the subscriber are serialized by the
+     * drain loop, whichever thread enters it first delivers everything that is due. With params it receives
+     * the callback of its own request only, without them those of every request on the controller.
+     */
+    private final class ResponseSubscription implements Subscription,
+            DataController.DataControllerCallback<TResponse> {
+
+        private final Subscriber<? super DataControllerResponse<TResponse>> subscriber;
+
+        // guarded by itself.
+        private final ArrayDeque<DataControllerResponse<TResponse>> buffer = new ArrayDeque<>();
+
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private volatile boolean isCancelled;
+        // set once the subscription's own request delivered, after its response is buffered.
+        private volatile boolean isComplete;
+        private volatile Throwable error;
+        private volatile DataControllerRequest<TResponse> request;
+
+        ResponseSubscription(Subscriber<? super DataControllerResponse<TResponse>> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        void start() {
+            if (isCancelled || error != null) {
+                return;
+            }
+            if (sourceParams == null) {
+                dataController.registerForCallbacks(this);
+                return;
+            }
+            DataControllerRequest<TResponse> request = dataController.requestData(sourceParams);
+            this.request = request;
+            // cancelled while the request was made.
+            if (isCancelled) {
+                request.cancel();
+            } else {
+                request.addCallback(this);
+            }
+        }
+
+        @Override
+        public void onSuccess(DataControllerResponse<TResponse> response) {
+            if (isCancelled || error != null) {
+                return;
+            }
+            if (response == null) {
+                // declined, the request completes without a response.
+                if (sourceParams != null) {
+                    isComplete = true;
+                    drain();
+                }
+                return;
+            }
+            boolean isOverflow = false;
+            synchronized (buffer) {
+                if (buffer.size() >= bufferSize) {
+                    if (overflowStrategy == OverflowStrategy.BUFFER) {
+                        isOverflow = true;
+                    } else {
+                        buffer.poll();
+                        droppedCount.incrementAndGet();
+                    }
+                }
+                if (!isOverflow) {
+                    buffer.add(response);
+                }
+            }
+            if (isOverflow) {
+                fail(new IllegalStateException("Subscriber did not keep up, buffer of " + bufferSize
+                        + " responses overflowed."));
+            } else {
+                if (sourceParams != null) {
+                    isComplete = true;
+                }
+                drain();
+            }
+        }
+
+        @Override
+        public void onFailure(DataResponseError dataResponseError) {
+            if (!isCancelled && error == null) {
+                fail(new DataResponseException(dataResponseError));
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                fail(new IllegalArgumentException("Requested amount must be positive: " + n));
+                return;
+            }
+            long current;
+            long next;
+            do {
+                current = requested.get();
+                if (current == Long.MAX_VALUE) {
+                    break;
+                }
+                next = current + n < 0 ? Long.MAX_VALUE : current + n;
+            } while (!requested.compareAndSet(current, next));
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            if (!isCancelled) {
+                isCancelled = true;
+                release();
+            }
+        }
+
+        private void fail(Throwable throwable) {
+            error = throwable;
+            release();
+            drain();
+        }
+
+        /**
+         * Stops listening to the controller and cancels the request this subscription made.
+         */
+        private void release() {
+            if (sourceParams == null) {
+                dataController.deregisterForCallbacks(this);
+            }
+            DataControllerRequest<TResponse> request = this.request;
+            if (request != null) {
+                request.cancel();
+            }
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                if (isCancelled) {
+                    clearBuffer();
+                    return;
+                }
+                Throwable error = this.error;
+                if (error != null) {
+                    // errors are delivered right away, without waiting for demand.
+                    isCancelled = true;
+                    clearBuffer();
+                    subscriber.onError(error);
+                    return;
+                }
+                long requested = this.requested.get();
+                long emitted = 0;
+                while (emitted != requested && !isCancelled && this.error == null) {
+                    DataControllerResponse<TResponse> response;
+                    synchronized (buffer) {
+                        response = buffer.poll();
+                    }
+                    if (response == null) {
+                        break;
+                    }
+                    subscriber.onNext(response);
+                    emitted++;
+                }
+                if (emitted != 0 && requested != Long.MAX_VALUE) {
+                    this.requested.addAndGet(-emitted);
+                }
+                if (isComplete && !isCancelled && isBufferEmpty()) {
+                    isCancelled = true;
+                    subscriber.onComplete();
+                    return;
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private boolean isBufferEmpty() {
+            synchronized (buffer) {
+                return buffer.isEmpty();
+            }
+        }
+
+        private void clearBuffer() {
+            synchronized (buffer) {
+                buffer.clear();
+            }
+        }
+    }
+}
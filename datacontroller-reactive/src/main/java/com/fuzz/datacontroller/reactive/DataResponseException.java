@@ -0,0 +1,26 @@
+package com.fuzz.datacontroller.reactive;
+
+import com.fuzz.datacontroller.DataResponseError;
+
+/**
+ * Description: Carries a {@link DataResponseError} to {@link org.reactivestreams.Subscriber#onError(Throwable)}.
+ */
+public class DataResponseException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    // the error is not serializable, the message and cause carry its details across.
+    private final transient DataResponseError dataResponseError;
+
+    public DataResponseException(DataResponseError dataResponseError) {
+        super(dataResponseError.getMessage(), dataResponseError.getThrowable());
+        this.dataResponseError = dataResponseError;
+    }
+
+    /**
+     * @return The error, or null if this exception was deserialized.
+     */
+    public DataResponseError getDataResponseError() {
+        return dataResponseError;
+    }
+}
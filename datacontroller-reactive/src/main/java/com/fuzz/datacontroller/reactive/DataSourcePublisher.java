@@ -0,0 +1,97 @@
+package com.fuzz.datacontroller.reactive;
+
+import com.fuzz.datacontroller.DataController;
+import com.fuzz.datacontroller.DataControllerResponse;
+import com.fuzz.datacontroller.DataResponseError;
+import com.fuzz.datacontroller.source.DataSource;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Description: Publishes the response of a single {@link DataSource} call. The call is made once the
+ * subscriber requests, so nothing is fetched without demand, and each subscription makes its own call. The
+ * subscription completes right after the response, or right away when the source's
+ * {@link DataSource.RefreshStrategy} declines. Cancelling it cancels the call through
+ * {@link DataSource#cancel(DataSource.SourceParams)}.
+ */
+public class DataSourcePublisher<TResponse> implements Publisher<DataControllerResponse<TResponse>> {
+
+    private final DataSource<TResponse> dataSource;
+    private final DataSource.SourceParams sourceParams;
+
+    public DataSourcePublisher(DataSource<TResponse> dataSource, DataSource.SourceParams sourceParams) {
+        this.dataSource = dataSource;
+        this.sourceParams = sourceParams;
+    }
+
+    public DataSourcePublisher(DataSource<TResponse> dataSource) {
+        this(dataSource, new DataSource.SourceParams());
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super DataControllerResponse<TResponse>> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("Subscriber must not be null.");
+        }
+        subscriber.onSubscribe(new CallSubscription(subscriber));
+    }
+
+    /**
+     * Description: One call of the source. Only the first of response, failure or cancel takes effect.
+     */
+    private final class CallSubscription implements Subscription {
+
+        private final Subscriber<? super DataControllerResponse<TResponse>> subscriber;
+        private final AtomicBoolean isRequested = new AtomicBoolean();
+        private final AtomicBoolean isDone = new AtomicBoolean();
+
+        CallSubscription(Subscriber<? super DataControllerResponse<TResponse>> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                if (isDone.compareAndSet(false, true)) {
+                    subscriber.onError(new IllegalArgumentException("Requested amount must be positive: " + n));
+                }
+                return;
+            }
+            if (!isRequested.compareAndSet(false, true) || isDone.get()) {
+                return;
+            }
+            boolean isCalled = dataSource.get(sourceParams, new DataController.Success<TResponse>() {
+                @Override
+                public void onSuccess(DataControllerResponse<TResponse> response) {
+                    if (isDone.compareAndSet(false, true)) {
+                        if (response != null) {
+                            subscriber.onNext(response);
+                        }
+                        subscriber.onComplete();
+                    }
+                }
+            }, new DataController.Error() {
+                @Override
+                public void onFailure(DataResponseError dataResponseError) {
+                    if (isDone.compareAndSet(false, true)) {
+                        subscriber.onError(new DataResponseException(dataResponseError));
+                    }
+                }
+            });
+            if (!isCalled && isDone.compareAndSet(false, true)) {
+                subscriber.onComplete();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (isDone.compareAndSet(false, true) && isRequested.get()) {
+                dataSource.cancel(sourceParams);
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.fuzz.datacontroller.reactive;
+
+/**
+ * Description: What a subscription does with a response that arrives while its buffer is full, i.e. when
+ * the subscriber requests slower than sources respond.
+ */
+public enum OverflowStrategy {
+
+    /**
+     * Keeps every response until the buffer is full, then fails the subscription.
+     */
+    BUFFER,
+
+    /**
+     * Drops the oldest buffered response to make room for the new one.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Keeps only the most recent response, dropping any that was not yet delivered.
+     */
+    LATEST
+}
@@ -0,0 +1,222 @@
+package com.fuzz.datacontroller.reactive;
+
+import com.fuzz.datacontroller.DataController;
+import com.fuzz.datacontroller.DataControllerResponse;
+import com.fuzz.datacontroller.DataResponseError;
+import com.fuzz.datacontroller.source.DataSource;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Description: Validates demand, overflow strategies and cancellation of the publishers.
+ */
+public class DataControllerPublisherTest {
+
+    private final List<DataController.Success<String>> pendingSuccess = new ArrayList<>();
+    private final List<DataController.Error> pendingError = new ArrayList<>();
+    private final List<Integer> cancelledIndexes = new ArrayList<>();
+
+    private DataController<String> dataController;
+
+    @Before
+    public void before_test_Init() {
+        dataController = new DataController<>();
+        dataController.registerDataSource(pendingDataSource);
+    }
+
+    @Test
+    public void test_deliversOnlyRequestedResponses() {
+        DataControllerPublisher<String> publisher = new DataControllerPublisher<>(dataController,
+                OverflowStrategy.BUFFER, 16);
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<>();
+        publisher.subscribe(subscriber);
+
+        dataController.requestData(params(1));
+        dataController.requestData(params(2));
+        respond(0, "first");
+        respond(1, "second");
+        assertTrue(subscriber.getValues().isEmpty());
+
+        subscriber.request(1);
+        assertEquals(Arrays.asList("first"), subscriber.getValues());
+        subscriber.request(5);
+        assertEquals(Arrays.asList("first", "second"), subscriber.getValues());
+
+        // outstanding demand is served as responses arrive.
+        dataController.requestData(params(3));
+        respond(2, "third");
+        assertEquals(Arrays.asList("first", "second", "third"), subscriber.getValues());
+    }
+
+    @Test
+    public void test_bufferOverflowFails() {
+        DataControllerPublisher<String> publisher = new DataControllerPublisher<>(dataController,
+                OverflowStrategy.BUFFER, 2);
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<>();
+        publisher.subscribe(subscriber);
+
+        for (int i = 0; i < 3; i++) {
+            dataController.requestData(params(i));
+            respond(i, "value " + i);
+        }
+        assertTrue(subscriber.getError() instanceof IllegalStateException);
+        assertFalse(dataController.hasCallbacks());
+    }
+
+    @Test
+    public void test_dropOldestKeepsNewest() {
+        DataControllerPublisher<String> publisher = new DataControllerPublisher<>(dataController,
+                OverflowStrategy.DROP_OLDEST, 2);
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<>();
+        publisher.subscribe(subscriber);
+
+        for (int i = 0; i < 4; i++) {
+            dataController.requestData(params(i));
+            respond(i, "value " + i);
+        }
+        subscriber.request(Long.MAX_VALUE);
+        assertEquals(Arrays.asList("value 2", "value 3"), subscriber.getValues());
+        assertEquals(2, publisher.getDroppedCount());
+        assertNull(subscriber.getError());
+    }
+
+    @Test
+    public void test_latestKeepsOnlyLast() {
+        DataControllerPublisher<String> publisher = new DataControllerPublisher<>(dataController,
+                OverflowStrategy.LATEST, 16);
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<>();
+        publisher.subscribe(subscriber);
+
+        for (int i = 0; i < 3; i++) {
+            dataController.requestData(params(i));
+            respond(i, "value " + i);
+        }
+        subscriber.request(3);
+        assertEquals(Arrays.asList("value 2"), subscriber.getValues());
+    }
+
+    @Test
+    public void test_failureEndsSubscription() {
+        DataControllerPublisher<String> publisher = new DataControllerPublisher<>(dataController,
+                OverflowStrategy.BUFFER, 16);
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<>();
+        publisher.subscribe(subscriber);
+
+        dataController.requestData(params(1));
+        pendingError.get(0).onFailure(new DataResponseError("offline"));
+        assertTrue(subscriber.getError() instanceof DataResponseException);
+        assertEquals("offline", subscriber.getError().getMessage());
+    }
+
+    @Test
+    public void test_cancelCancelsItsRequest() {
+        DataControllerPublisher<String> publisher = new DataControllerPublisher<>(dataController,
+                OverflowStrategy.LATEST, 1, params(7));
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<>();
+        publisher.subscribe(subscriber);
+        assertEquals(1, pendingSuccess.size());
+
+        subscriber.cancel();
+        assertEquals(Arrays.asList(7), cancelledIndexes);
+        assertFalse(dataController.hasCallbacks());
+
+        respond(0, "late");
+        subscriber.request(1);
+        assertTrue(subscriber.getValues().isEmpty());
+    }
+
+    @Test
+    public void test_paramsSubscriptionCompletesAfterItsResponse() {
+        DataControllerPublisher<String> publisher = new DataControllerPublisher<>(dataController,
+                OverflowStrategy.BUFFER, 16, params(7));
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<>();
+        publisher.subscribe(subscriber);
+        assertFalse(dataController.hasCallbacks());
+
+        // requests made elsewhere are not published.
+        dataController.requestData(params(8));
+        respond(1, "other");
+        respond(0, "own");
+        assertFalse(subscriber.isComplete());
+
+        subscriber.request(5);
+        assertEquals(Arrays.asList("own"), subscriber.getValues());
+        assertTrue(subscriber.isComplete());
+        assertNull(subscriber.getError());
+    }
+
+    @Test
+    public void test_sourcePublisherCallsOnDemand() {
+        DataSourcePublisher<String> publisher = new DataSourcePublisher<>(pendingDataSource, params(4));
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<>();
+        publisher.subscribe(subscriber);
+        assertTrue(pendingSuccess.isEmpty());
+
+        subscriber.request(1);
+        assertEquals(1, pendingSuccess.size());
+        respond(0, "fetched");
+        assertEquals(Arrays.asList("fetched"), subscriber.getValues());
+        assertTrue(subscriber.isComplete());
+    }
+
+    @Test
+    public void test_sourcePublisherCancelCancelsCall() {
+        DataSourcePublisher<String> publisher = new DataSourcePublisher<>(pendingDataSource, params(5));
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<>();
+        publisher.subscribe(subscriber);
+        subscriber.request(1);
+        subscriber.cancel();
+
+        assertEquals(Arrays.asList(5), cancelledIndexes);
+        respond(0, "late");
+        assertTrue(subscriber.getValues().isEmpty());
+        assertFalse(subscriber.isComplete());
+    }
+
+    private void respond(int call, String response) {
+        pendingSuccess.get(call).onSuccess(new DataControllerResponse<>(response, DataSource.SourceType.NETWORK));
+    }
+
+    private static DataSource.SourceParams params(int index) {
+        DataSource.SourceParams sourceParams = new DataSource.SourceParams();
+        sourceParams.index = index;
+        return sourceParams;
+    }
+
+    private final DataSource<String> pendingDataSource = new DataSource<String>() {
+        @Override
+        public void cancel() {
+        }
+
+        @Override
+        public void cancel(SourceParams sourceParams) {
+            cancelledIndexes.add(sourceParams.index);
+        }
+
+        @Override
+        protected void doGet(SourceParams sourceParams, DataController.Success<String> success,
+                             DataController.Error error) {
+            pendingSuccess.add(success);
+            pendingError.add(error);
+        }
+
+        @Override
+        protected void doStore(DataControllerResponse<String> dataControllerResponse) {
+        }
+
+        @Override
+        public SourceType getSourceType() {
+            return SourceType.NETWORK;
+        }
+    };
+}
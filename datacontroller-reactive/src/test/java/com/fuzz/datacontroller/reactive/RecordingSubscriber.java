@@ -0,0 +1,61 @@
+package com.fuzz.datacontroller.reactive;
+
+import com.fuzz.datacontroller.DataControllerResponse;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Description: Records every signal it receives and requests only when told to.
+ */
+public class RecordingSubscriber<TResponse> implements Subscriber<DataControllerResponse<TResponse>> {
+
+    private final List<TResponse> values = new ArrayList<>();
+    private Subscription subscription;
+    private Throwable error;
+    private boolean isComplete;
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+        this.subscription = subscription;
+    }
+
+    @Override
+    public void onNext(DataControllerResponse<TResponse> response) {
+        values.add(response.getResponse());
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        error = throwable;
+    }
+
+    @Override
+    public void onComplete() {
+        isComplete = true;
+    }
+
+    public RecordingSubscriber<TResponse> request(long n) {
+        subscription.request(n);
+        return this;
+    }
+
+    public void cancel() {
+        subscription.cancel();
+    }
+
+    public List<TResponse> getValues() {
+        return values;
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+
+    public boolean isComplete() {
+        return isComplete;
+    }
+}
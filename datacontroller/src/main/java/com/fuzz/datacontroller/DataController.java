@@ -1,13 +1,18 @@
 package com.fuzz.datacontroller;
 
+import com.fuzz.datacontroller.metrics.Instrumentation;
 import com.fuzz.datacontroller.source.DataSource;
 import com.fuzz.datacontroller.source.DataSource.SourceType;
 import com.fuzz.datacontroller.source.DataSourceStorage;
-import com.fuzz.datacontroller.source.TreeMapSingleTypeDataSourceContainer;
+import com.fuzz.datacontroller.source.SnapshotSingleTypeDataSourceContainer;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Description: Provides basic implementation of a data controller.
@@ -40,18 +45,42 @@ public class DataController<TResponse> {
 
     private final DataSourceStorage<TResponse> dataSourceStorage;
 
-    private final DataControllerCallbackGroup<TResponse> callbackGroup
-            = new DataControllerCallbackGroup<>();
+    private final DataControllerCallbackGroup<TResponse> callbackGroup;
 
     private final DataSourceChainer<TResponse> dataSourceChainer;
 
-    public DataController(DataSourceStorage<TResponse> dataSourceStorage, DataSourceChainer<TResponse> dataSourceChainer) {
+    private final RequestCoalescer<TResponse> requestCoalescer = new RequestCoalescer<>();
+
+    private final Executor executor;
+
+    private volatile Instrumentation instrumentation = Instrumentation.NONE;
+
+    private volatile StoragePolicy<TResponse> storagePolicy;
+
+    /**
+     * @param executor Runs the asynchronous requests, i.e. {@link #requestDataAsync(DataSource.SourceParams)}.
+     *                 Source evaluation, including {@link DataSourceChainer} decisions, happens on it.
+     * @param callbackGroup Delivers responses to registered callbacks, i.e. one with its own callback executor.
+     */
+    public DataController(DataSourceStorage<TResponse> dataSourceStorage, DataSourceChainer<TResponse> dataSourceChainer,
+                          Executor executor, DataControllerCallbackGroup<TResponse> callbackGroup) {
         this.dataSourceStorage = dataSourceStorage;
         this.dataSourceChainer = dataSourceChainer;
+        this.executor = executor;
+        this.callbackGroup = callbackGroup;
+    }
+
+    public DataController(DataSourceStorage<TResponse> dataSourceStorage, DataSourceChainer<TResponse> dataSourceChainer,
+                          Executor executor) {
+        this(dataSourceStorage, dataSourceChainer, executor, new DataControllerCallbackGroup<TResponse>());
+    }
+
+    public DataController(DataSourceStorage<TResponse> dataSourceStorage, DataSourceChainer<TResponse> dataSourceChainer) {
+        this(dataSourceStorage, dataSourceChainer, null);
     }
 
     public DataController() {
-        this(new TreeMapSingleTypeDataSourceContainer<TResponse>(),
+        this(new SnapshotSingleTypeDataSourceContainer<TResponse>(),
                 new DataSourceChainer<TResponse>() {
                     @Override
                     public boolean shouldQueryNext(DataSource<TResponse> lastSource, DataSource<TResponse> sourceToChain) {
@@ -61,9 +90,41 @@ public class DataController<TResponse> {
     }
 
     public void registerDataSource(DataSource<TResponse> dataSource) {
+        Instrumentation instrumentation = this.instrumentation;
+        if (instrumentation != Instrumentation.NONE) {
+            dataSource.setInstrumentation(instrumentation);
+        }
         dataSourceStorage.registerDataSource(dataSource);
     }
 
+    /**
+     * Reports measurements of this controller, its callbacks and every registered {@link DataSource} to the
+     * specified {@link Instrumentation}. Sources registered later are instrumented as well.
+     */
+    public void setInstrumentation(Instrumentation instrumentation) {
+        this.instrumentation = instrumentation;
+        callbackGroup.setInstrumentation(instrumentation);
+        for (DataSource<TResponse> dataSource : dataSourceStorage.sources()) {
+            dataSource.setInstrumentation(instrumentation);
+        }
+    }
+
+    public Instrumentation getInstrumentation() {
+        return instrumentation;
+    }
+
+    /**
+     * @param storagePolicy Decides which sources successful responses are stored into, i.e. a
+     *                      {@link TieredStoragePolicy}. Null stores into every source of a different type.
+     */
+    public void setStoragePolicy(StoragePolicy<TResponse> storagePolicy) {
+        this.storagePolicy = storagePolicy;
+    }
+
+    public StoragePolicy<TResponse> getStoragePolicy() {
+        return storagePolicy;
+    }
+
     public void deregisterDataSource(DataSource<TResponse> dataSource) {
         dataSourceStorage.deregisterDataSource(dataSource);
     }
@@ -83,23 +144,129 @@ public class DataController<TResponse> {
     /**
      * Requests data with default parameters.
      */
-    public void requestData() {
-        requestData(new DataSource.SourceParams());
+    public DataControllerRequest<TResponse> requestData() {
+        return requestData(new DataSource.SourceParams());
     }
 
     /**
      * Requests data from each of the {@link DataSource} here, passing in a sourceParams object.
-     * It will iterate through all sources and call each one.
+     * It will iterate through all sources and call each one. Concurrent requests with equal params
+     * join the in-flight call on each source, see {@link RequestCoalescer}.
+     *
+     * @param sourceParams The params to use for a query.
+     * @return A handle that completes with the first non-null response. Cancel it to stop this request
+     * alone, unlike {@link #cancel()}.
+     */
+    public DataControllerRequest<TResponse> requestData(DataSource.SourceParams sourceParams) {
+        DataControllerRequest<TResponse> request = new DataControllerRequest<>();
+        dispatchData(sourceParams, request, null);
+        return request;
+    }
+
+    /**
+     * Requests data with default parameters on the {@link Executor} of this controller.
+     */
+    public DataControllerRequest<TResponse> requestDataAsync() {
+        return requestDataAsync(new DataSource.SourceParams());
+    }
+
+    /**
+     * Same as {@link #requestData(DataSource.SourceParams)}, except that all sources are evaluated on the
+     * {@link Executor} passed in the constructor, so the calling thread never blocks. Registered callbacks
+     * still receive every response.
      *
      * @param sourceParams The params to use for a query.
+     * @return A handle that completes with the first non-null response.
+     */
+    public DataControllerRequest<TResponse> requestDataAsync(final DataSource.SourceParams sourceParams) {
+        final DataControllerRequest<TResponse> request = new DataControllerRequest<>();
+        dispatchDataAsync(sourceParams, request, null);
+        return request;
+    }
+
+    /**
+     * Same as {@link #dispatchData(DataSource.SourceParams, DataControllerRequest, RequestCoalescer.SourceCall)},
+     * except that it runs on the {@link Executor} passed in the constructor.
+     */
+    protected void dispatchDataAsync(final DataSource.SourceParams sourceParams,
+                                     final DataControllerRequest<TResponse> request,
+                                     final RequestCoalescer.SourceCall<TResponse> sourceCall) {
+        execute(request, new Runnable() {
+            @Override
+            public void run() {
+                dispatchData(sourceParams, request, sourceCall);
+            }
+        });
+    }
+
+    /**
+     * Walks the sources as in {@link #requestData(DataSource.SourceParams)} for a request created by a subclass.
+     *
+     * @param sourceCall Starts the calls this request does not join, i.e. to stream them. Null calls
+     *                   {@link DataSource#get(DataSource.SourceParams, Success, Error)}.
      */
-    public void requestData(DataSource.SourceParams sourceParams) {
-        List<DataSource<TResponse>> sourceCollection = getSources();
-        for (int i = 0; i < sourceCollection.size(); i++) {
-            DataSource<TResponse> source = sourceCollection.get(i);
-            if (i == 0 || dataSourceChainer.shouldQueryNext(sourceCollection.get(i - 1), source)) {
-                source.get(sourceParams, internalSuccessCallback, internalErrorCallback);
+    protected void dispatchData(DataSource.SourceParams sourceParams, DataControllerRequest<TResponse> request,
+                                RequestCoalescer.SourceCall<TResponse> sourceCall) {
+        Instrumentation instrumentation = this.instrumentation;
+        long startTime = instrumentation != Instrumentation.NONE ? System.nanoTime() : 0;
+        try {
+            DataSource<TResponse> previousSource = null;
+            List<DataSource<TResponse>> sources = sourceList();
+            for (int i = 0; i < sources.size(); i++) {
+                DataSource<TResponse> source = sources.get(i);
+                if (previousSource == null || shouldQueryNext(previousSource, source, sourceParams)) {
+                    dispatch(source, sourceParams, request, sourceCall);
+                }
+                previousSource = source;
             }
+        } finally {
+            request.finishSource();
+        }
+        if (instrumentation != Instrumentation.NONE) {
+            instrumentation.onRequest(System.nanoTime() - startTime);
+        }
+    }
+
+    private boolean shouldQueryNext(DataSource<TResponse> previousSource, DataSource<TResponse> source,
+                                    DataSource.SourceParams sourceParams) {
+        DataSourceChainer<TResponse> dataSourceChainer = this.dataSourceChainer;
+        if (dataSourceChainer instanceof SourceParamsDataSourceChainer && sourceParams != null) {
+            return ((SourceParamsDataSourceChainer<TResponse>) dataSourceChainer)
+                    .shouldQueryNext(previousSource, source, sourceParams);
+        }
+        return dataSourceChainer.shouldQueryNext(previousSource, source);
+    }
+
+    private void dispatch(DataSource<TResponse> source, DataSource.SourceParams sourceParams,
+                          DataControllerRequest<TResponse> request, RequestCoalescer.SourceCall<TResponse> sourceCall) {
+        if (request.isCancelled()) {
+            return;
+        }
+        request.expectSource();
+        RequestCoalescer.Result result = RequestCoalescer.Result.DECLINED;
+        try {
+            result = requestCoalescer.get(source, sourceParams, internalSuccessCallback,
+                    internalErrorCallback, request.sourceCallback, sourceCall);
+        } finally {
+            // a declined or failed call never calls back, so it is not pending anymore.
+            if (result == RequestCoalescer.Result.DECLINED) {
+                request.sourceCallback.onDeclined();
+            }
+        }
+        if (result != RequestCoalescer.Result.DECLINED) {
+            request.dispatched(requestCoalescer, source, sourceParams);
+        }
+    }
+
+    private void execute(DataControllerRequest<TResponse> request, Runnable runnable) {
+        if (executor == null) {
+            throw new IllegalStateException("No Executor was passed to this DataController. " +
+                    "Asynchronous requests are not supported.");
+        }
+        try {
+            executor.execute(runnable);
+        } catch (RejectedExecutionException e) {
+            request.fail(new DataResponseError(e));
         }
     }
 
@@ -108,21 +275,56 @@ public class DataController<TResponse> {
      *
      * @param dataSourceParams The type of source to request via {@link SourceType}
      * @param sourceParams     The params used in the request.
+     * @return A handle that completes with the response of the source.
      */
-    public void requestSpecific(DataSourceStorage.DataSourceParams dataSourceParams,
-                                DataSource.SourceParams sourceParams) {
+    public DataControllerRequest<TResponse> requestSpecific(DataSourceStorage.DataSourceParams dataSourceParams,
+                                                            DataSource.SourceParams sourceParams) {
         DataSource<TResponse> dataSource = dataSourceStorage.getDataSource(dataSourceParams);
-        dataSource.get(sourceParams, internalSuccessCallback, internalErrorCallback);
+        DataControllerRequest<TResponse> request = new DataControllerRequest<>();
+        try {
+            dispatch(dataSource, sourceParams, request, null);
+        } finally {
+            request.finishSource();
+        }
+        return request;
     }
 
     /**
-     * Cancels all attached {@link DataSource}.
+     * Same as {@link #requestSpecific(DataSourceStorage.DataSourceParams, DataSource.SourceParams)}, except that
+     * the source is looked up and called on the {@link Executor} passed in the constructor.
+     *
+     * @return A handle that completes with the response of the source.
+     */
+    public DataControllerRequest<TResponse> requestSpecificAsync(final DataSourceStorage.DataSourceParams dataSourceParams,
+                                                                 final DataSource.SourceParams sourceParams) {
+        final DataControllerRequest<TResponse> request = new DataControllerRequest<>();
+        execute(request, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    dispatch(dataSourceStorage.getDataSource(dataSourceParams), sourceParams, request, null);
+                } catch (RuntimeException e) {
+                    request.fail(new DataResponseError(e));
+                } finally {
+                    request.finishSource();
+                }
+            }
+        });
+        return request;
+    }
+
+    /**
+     * Cancels all attached {@link DataSource}, along with every request in flight. Pending
+     * {@link DataControllerRequest} handles fail with a {@link CancellationException}, since not every source
+     * calls back once cancelled. Prefer {@link DataControllerRequest#cancel()} to cancel a single request.
      */
     public void cancel() {
+        requestCoalescer.abortAll(new DataResponseError(new CancellationException("DataController was cancelled.")));
         Collection<DataSource<TResponse>> sourceCollection = dataSourceStorage.sources();
         for (DataSource<TResponse> source : sourceCollection) {
             source.cancel();
         }
+        requestCoalescer.clear();
     }
 
     /**
@@ -140,13 +342,59 @@ public class DataController<TResponse> {
         return dataSourceStorage.getDataSource(sourceParams);
     }
 
+    /**
+     * @return The coalescer that merges concurrent equal requests. Use it to read the request counters.
+     */
+    public RequestCoalescer<TResponse> getRequestCoalescer() {
+        return requestCoalescer;
+    }
+
+
+    /**
+     * @return True if the response was already stored into the source as it arrived, i.e. chunk by chunk, so
+     * it is not stored again. Called for every source before the {@link StoragePolicy} is asked.
+     */
+    protected boolean isStored(DataControllerResponse<TResponse> response, DataSource<TResponse> dataSource) {
+        return false;
+    }
+
+    /**
+     * @return The sources as an indexed list, so the request path does not allocate an iterator. The
+     * {@link SnapshotSingleTypeDataSourceContainer} returns one already, other containers are copied.
+     */
+    protected List<DataSource<TResponse>> sourceList() {
+        Collection<DataSource<TResponse>> sources = dataSourceStorage.sources();
+        if (sources instanceof List && sources instanceof RandomAccess) {
+            return (List<DataSource<TResponse>>) sources;
+        }
+        return new ArrayList<>(sources);
+    }
 
     private final Success<TResponse> internalSuccessCallback = new Success<TResponse>() {
         @Override
         public void onSuccess(DataControllerResponse<TResponse> response) {
-            Collection<DataSource<TResponse>> dataSources = dataSourceStorage.sources();
-            for (DataSource<TResponse> dataSource : dataSources) {
-                dataSource.store(response);
+            // stale data would otherwise look fresh once copied into another source.
+            if (!response.isStale()) {
+                List<DataSource<TResponse>> dataSources = sourceList();
+                StoragePolicy<TResponse> storagePolicy = DataController.this.storagePolicy;
+                if (storagePolicy == null) {
+                    for (int i = 0; i < dataSources.size(); i++) {
+                        DataSource<TResponse> dataSource = dataSources.get(i);
+                        if (!isStored(response, dataSource)) {
+                            dataSource.store(response);
+                        }
+                    }
+                } else {
+                    storagePolicy.onResponse(response);
+                    for (int i = 0; i < dataSources.size(); i++) {
+                        DataSource<TResponse> dataSource = dataSources.get(i);
+                        if (!dataSource.getSourceType().equals(response.getSourceType())
+                                && !isStored(response, dataSource)
+                                && storagePolicy.shouldStore(response, dataSource)) {
+                            dataSource.store(response);
+                        }
+                    }
+                }
             }
 
             callbackGroup.onSuccess(response);
@@ -1,56 +1,103 @@
 package com.fuzz.datacontroller;
 
 import com.fuzz.datacontroller.DataController.DataControllerCallback;
+import com.fuzz.datacontroller.metrics.Instrumentation;
 
-import java.util.LinkedHashSet;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
 
 /**
- * Description: Provides easy grouping of callbacks.
+ * Description: Provides easy grouping of callbacks. Registration is copy-on-write, so delivery iterates a
+ * snapshot without holding a lock: callbacks may register or deregister from within a callback, and a slow
+ * callback never blocks registration. Optionally, each callback is delivered on an {@link Executor}.
  */
 public class DataControllerCallbackGroup<TResponse> implements DataControllerCallback<TResponse> {
 
-    private final Set<DataControllerCallback<TResponse>> callbacks = new LinkedHashSet<>();
+    private final Set<DataControllerCallback<TResponse>> callbacks = new CopyOnWriteArraySet<>();
+
+    private final Executor callbackExecutor;
+
+    private volatile Instrumentation instrumentation = Instrumentation.NONE;
+
+    /**
+     * @param callbackExecutor Delivers each callback separately, so the calling thread is not held up by
+     *                         slow callbacks. If null, callbacks are delivered on the calling thread.
+     */
+    public DataControllerCallbackGroup(Executor callbackExecutor) {
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    public DataControllerCallbackGroup() {
+        this(null);
+    }
+
+    /**
+     * @param instrumentation Receives the delivery time of each response and error.
+     */
+    public void setInstrumentation(Instrumentation instrumentation) {
+        this.instrumentation = instrumentation;
+    }
 
     public void registerForCallbacks(DataControllerCallback<TResponse> dataControllerCallback) {
-        synchronized (callbacks) {
-            callbacks.add(dataControllerCallback);
-        }
+        callbacks.add(dataControllerCallback);
     }
 
     public void deregisterForCallbacks(DataControllerCallback<TResponse> dataControllerCallback) {
-        synchronized (callbacks) {
-            callbacks.remove(dataControllerCallback);
-        }
+        callbacks.remove(dataControllerCallback);
     }
 
     public void clearCallbacks() {
-        synchronized (callbacks) {
-            callbacks.clear();
-        }
+        callbacks.clear();
     }
 
     public boolean hasCallbacks() {
-        synchronized (callbacks) {
-            return !callbacks.isEmpty();
-        }
+        return !callbacks.isEmpty();
     }
 
     @Override
-    public void onFailure(DataResponseError dataResponseError) {
-        synchronized (callbacks) {
-            for (DataControllerCallback<TResponse> callback : callbacks) {
+    public void onFailure(final DataResponseError dataResponseError) {
+        Instrumentation instrumentation = this.instrumentation;
+        long startTime = instrumentation != Instrumentation.NONE ? System.nanoTime() : 0;
+        int callbackCount = 0;
+        for (final DataControllerCallback<TResponse> callback : callbacks) {
+            callbackCount++;
+            if (callbackExecutor == null) {
                 callback.onFailure(dataResponseError);
+            } else {
+                callbackExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.onFailure(dataResponseError);
+                    }
+                });
             }
         }
+        if (instrumentation != Instrumentation.NONE) {
+            instrumentation.onCallbacksDelivered(callbackCount, System.nanoTime() - startTime);
+        }
     }
 
     @Override
-    public void onSuccess(DataControllerResponse<TResponse> response) {
-        synchronized (callbacks) {
-            for (DataControllerCallback<TResponse> callback : callbacks) {
+    public void onSuccess(final DataControllerResponse<TResponse> response) {
+        Instrumentation instrumentation = this.instrumentation;
+        long startTime = instrumentation != Instrumentation.NONE ? System.nanoTime() : 0;
+        int callbackCount = 0;
+        for (final DataControllerCallback<TResponse> callback : callbacks) {
+            callbackCount++;
+            if (callbackExecutor == null) {
                 callback.onSuccess(response);
+            } else {
+                callbackExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.onSuccess(response);
+                    }
+                });
             }
         }
+        if (instrumentation != Instrumentation.NONE) {
+            instrumentation.onCallbacksDelivered(callbackCount, System.nanoTime() - startTime);
+        }
     }
 }
@@ -0,0 +1,248 @@
+package com.fuzz.datacontroller;
+
+import com.fuzz.datacontroller.source.DataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Description: A handle to a single request made through a {@link DataController}. It completes with the
+ * first non-null {@link DataControllerResponse} any {@link DataSource} returns. If no source returns data,
+ * it completes with the last (empty) response received or fails with the last {@link DataResponseError}.
+ * Cancelling it stops callback delivery for this request only, and cancels the source calls no other request
+ * is waiting on.
+ */
+public class DataControllerRequest<TResponse> implements Future<DataControllerResponse<TResponse>> {
+
+    private final CountDownLatch doneLatch = new CountDownLatch(1);
+
+    // the dispatch itself counts as one pending operation until all sources are called.
+    private final AtomicInteger pendingCount = new AtomicInteger(1);
+
+    private final List<DataController.DataControllerCallback<TResponse>> callbacks = new ArrayList<>();
+
+    // guarded by callbacks. the source calls this request started or joined.
+    private final List<DataSource<TResponse>> dispatchedSources = new ArrayList<>();
+    private final List<DataSource.SourceParams> dispatchedParams = new ArrayList<>();
+    private RequestCoalescer<TResponse> requestCoalescer;
+
+    private volatile DataControllerResponse<TResponse> lastResponse;
+    private volatile DataResponseError lastError;
+
+    private DataControllerResponse<TResponse> response;
+    private DataResponseError error;
+    private boolean isDone;
+    private boolean isCancelled;
+
+    /**
+     * The per-request callback passed along to each source call.
+     */
+    final RequestCoalescer.RequestCallback<TResponse> sourceCallback = new RequestCoalescer.RequestCallback<TResponse>() {
+        @Override
+        public void onSuccess(DataControllerResponse<TResponse> response) {
+            if (response != null && response.hasResponse()) {
+                complete(response, null);
+            } else {
+                lastResponse = response;
+            }
+            finishSource();
+        }
+
+        @Override
+        public void onFailure(DataResponseError dataResponseError) {
+            lastError = dataResponseError;
+            finishSource();
+        }
+
+        @Override
+        public void onDeclined() {
+            finishSource();
+        }
+    };
+
+    /**
+     * Registers a callback to be called once when this request completes. If it has already completed,
+     * the callback is invoked immediately on the calling thread.
+     */
+    public void addCallback(DataController.DataControllerCallback<TResponse> callback) {
+        boolean notifyNow;
+        synchronized (callbacks) {
+            notifyNow = isDone;
+            if (!notifyNow) {
+                callbacks.add(callback);
+            }
+        }
+        if (notifyNow) {
+            notifyCallback(callback);
+        }
+    }
+
+    /**
+     * Marks that another source call is expected to call back for this request.
+     */
+    void expectSource() {
+        pendingCount.incrementAndGet();
+    }
+
+    /**
+     * Remembers a source call made for this request so cancelling can leave it. If this request was cancelled
+     * while the call was made, it leaves right away.
+     */
+    void dispatched(RequestCoalescer<TResponse> requestCoalescer, DataSource<TResponse> dataSource,
+                    DataSource.SourceParams sourceParams) {
+        synchronized (callbacks) {
+            if (!isCancelled) {
+                this.requestCoalescer = requestCoalescer;
+                dispatchedSources.add(dataSource);
+                dispatchedParams.add(sourceParams);
+                return;
+            }
+        }
+        requestCoalescer.leave(dataSource, sourceParams, sourceCallback);
+    }
+
+    /**
+     * Marks that a source call finished or will never call back.
+     */
+    void finishSource() {
+        if (pendingCount.decrementAndGet() == 0) {
+            DataControllerResponse<TResponse> lastResponse = this.lastResponse;
+            if (lastResponse != null || lastError == null) {
+                complete(lastResponse, null);
+            } else {
+                complete(null, lastError);
+            }
+        }
+    }
+
+    /**
+     * Fails this request right away, i.e. when it could not be dispatched.
+     */
+    void fail(DataResponseError dataResponseError) {
+        complete(null, dataResponseError);
+    }
+
+    private void complete(DataControllerResponse<TResponse> response, DataResponseError error) {
+        List<DataController.DataControllerCallback<TResponse>> callbacks;
+        synchronized (this.callbacks) {
+            if (isDone) {
+                return;
+            }
+            this.response = response;
+            this.error = error;
+            isDone = true;
+            callbacks = new ArrayList<>(this.callbacks);
+            this.callbacks.clear();
+        }
+        doneLatch.countDown();
+        for (int i = 0; i < callbacks.size(); i++) {
+            notifyCallback(callbacks.get(i));
+        }
+    }
+
+    private void notifyCallback(DataController.DataControllerCallback<TResponse> callback) {
+        if (isCancelled()) {
+            return;
+        }
+        DataResponseError error = getError();
+        if (error != null) {
+            callback.onFailure(error);
+        } else {
+            callback.onSuccess(response);
+        }
+    }
+
+    /**
+     * @return The error this request failed with, or null if it succeeded or is still running.
+     */
+    public DataResponseError getError() {
+        synchronized (callbacks) {
+            return error;
+        }
+    }
+
+    /**
+     * Cancels this request. Its callbacks are not called, and source calls it started are cancelled unless
+     * another request joined them. Other requests are not affected.
+     *
+     * @param mayInterruptIfRunning Ignored, source calls are cancelled through
+     *                              {@link DataSource#cancel(DataSource.SourceParams)}.
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        List<DataSource<TResponse>> sources;
+        List<DataSource.SourceParams> params;
+        RequestCoalescer<TResponse> requestCoalescer;
+        synchronized (callbacks) {
+            if (isDone) {
+                return false;
+            }
+            isCancelled = true;
+            sources = new ArrayList<>(dispatchedSources);
+            params = new ArrayList<>(dispatchedParams);
+            requestCoalescer = this.requestCoalescer;
+            dispatchedSources.clear();
+            dispatchedParams.clear();
+        }
+        complete(null, null);
+        for (int i = 0; i < sources.size(); i++) {
+            requestCoalescer.leave(sources.get(i), params.get(i), sourceCallback);
+        }
+        return true;
+    }
+
+    /**
+     * Same as {@link #cancel(boolean)}.
+     */
+    public boolean cancel() {
+        return cancel(false);
+    }
+
+    @Override
+    public boolean isCancelled() {
+        synchronized (callbacks) {
+            return isCancelled;
+        }
+    }
+
+    @Override
+    public boolean isDone() {
+        synchronized (callbacks) {
+            return isDone;
+        }
+    }
+
+    @Override
+    public DataControllerResponse<TResponse> get() throws InterruptedException, ExecutionException {
+        doneLatch.await();
+        return getResult();
+    }
+
+    @Override
+    public DataControllerResponse<TResponse> get(long timeout, TimeUnit unit)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        if (!doneLatch.await(timeout, unit)) {
+            throw new TimeoutException("Request did not complete within " + timeout + " " + unit);
+        }
+        return getResult();
+    }
+
+    private DataControllerResponse<TResponse> getResult() throws ExecutionException {
+        synchronized (callbacks) {
+            if (isCancelled) {
+                throw new CancellationException("Request was cancelled.");
+            }
+            if (error != null) {
+                throw new ExecutionException(error.getMessage(), error.getThrowable());
+            }
+            return response;
+        }
+    }
+}
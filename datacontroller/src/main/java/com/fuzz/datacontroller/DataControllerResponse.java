@@ -10,11 +10,25 @@ public class DataControllerResponse<TResponse> {
     private final TResponse response;
     private final DataSource.SourceType sourceType;
     private final String originalUrl;
+    private final DataSource.SourceParams sourceParams;
+    private final boolean isStale;
 
-    public DataControllerResponse(TResponse response, DataSource.SourceType type, String originalUrl) {
+    public DataControllerResponse(TResponse response, DataSource.SourceType type, String originalUrl,
+                                  DataSource.SourceParams sourceParams, boolean isStale) {
         this.response = response;
         this.sourceType = type;
         this.originalUrl = originalUrl;
+        this.sourceParams = sourceParams;
+        this.isStale = isStale;
+    }
+
+    public DataControllerResponse(TResponse response, DataSource.SourceType type, String originalUrl,
+                                  DataSource.SourceParams sourceParams) {
+        this(response, type, originalUrl, sourceParams, false);
+    }
+
+    public DataControllerResponse(TResponse response, DataSource.SourceType type, String originalUrl) {
+        this(response, type, originalUrl, null);
     }
 
     public DataControllerResponse(TResponse response, DataSource.SourceType type) {
@@ -25,6 +39,14 @@ public class DataControllerResponse<TResponse> {
         return response;
     }
 
+    /**
+     * @return True if {@link #getResponse()} is not null. Responses that produce their value on first read
+     * answer this without producing it, so prefer it over reading the value only to check for data.
+     */
+    public boolean hasResponse() {
+        return getResponse() != null;
+    }
+
     public DataSource.SourceType getSourceType() {
         return sourceType;
     }
@@ -32,4 +54,20 @@ public class DataControllerResponse<TResponse> {
     public String getOriginalUrl() {
         return originalUrl;
     }
+
+    /**
+     * @return The params that were used to request this response. Keyed sources use these to decide
+     * where to store it. May be null if unknown.
+     */
+    public DataSource.SourceParams getSourceParams() {
+        return sourceParams;
+    }
+
+    /**
+     * @return True if this response was served from storage past its max age while a refresh is underway.
+     * Stale responses are delivered to callbacks but never stored into other sources.
+     */
+    public boolean isStale() {
+        return isStale;
+    }
 }
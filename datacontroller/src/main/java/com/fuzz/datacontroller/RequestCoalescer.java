@@ -0,0 +1,365 @@
+package com.fuzz.datacontroller;
+
+import com.fuzz.datacontroller.source.DataSource;
+import com.fuzz.datacontroller.source.DataSource.SourceParams;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Description: Coalesces concurrent requests made with equal {@link SourceParams} on the same
+ * {@link DataSource} into a single in-flight call. Results are fanned out by the caller
+ * (i.e. through the {@link DataControllerCallbackGroup}), so every merged request still receives the one result.
+ */
+public class RequestCoalescer<TResponse> {
+
+    /**
+     * Identifies an in-flight call by source identity and params equality.
+     */
+    private static final class RequestKey {
+
+        private final DataSource<?> dataSource;
+        private final SourceParams sourceParams;
+
+        RequestKey(DataSource<?> dataSource, SourceParams sourceParams) {
+            this.dataSource = dataSource;
+            this.sourceParams = sourceParams;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof RequestKey)) {
+                return false;
+            }
+            RequestKey that = (RequestKey) o;
+            return dataSource == that.dataSource
+                    && (sourceParams != null ? sourceParams.equals(that.sourceParams) : that.sourceParams == null);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(dataSource) + (sourceParams != null ? sourceParams.hashCode() : 0);
+        }
+    }
+
+    /**
+     * Description: A per-request callback that is notified with the result of the call the request
+     * started or joined.
+     */
+    public interface RequestCallback<TResponse> extends DataController.DataControllerCallback<TResponse> {
+
+        /**
+         * Called instead of success or failure when the call this request joined was declined by the
+         * source's {@link DataSource.RefreshStrategy}.
+         */
+        void onDeclined();
+    }
+
+    /**
+     * Description: Starts a call on a source. By default requests call
+     * {@link DataSource#get(SourceParams, DataController.Success, DataController.Error)}, a request can start its
+     * calls differently, i.e. by streaming them. Requests that join the call share its result either way.
+     */
+    public interface SourceCall<TResponse> {
+
+        /**
+         * @return True if the source was called, false if its {@link DataSource.RefreshStrategy} declined and
+         * neither callback will be invoked.
+         */
+        boolean call(DataSource<TResponse> dataSource, SourceParams sourceParams,
+                     DataController.Success<TResponse> success, DataController.Error error);
+    }
+
+    /**
+     * A call in flight along with the per-request callbacks of every request that joined it. The call is
+     * cancelled once every request that joined it left. The first result completes it, so new requests start
+     * a fresh call, while later results of the same call, i.e. a stored value followed by a refresh, still
+     * reach the shared success and error.
+     */
+    private final class Flight implements DataController.DataControllerCallback<TResponse> {
+
+        private final RequestKey key;
+        private final DataController.Success<TResponse> success;
+        private final DataController.Error error;
+        private final List<RequestCallback<TResponse>> requestCallbacks = new ArrayList<>();
+        // requests without a callback cannot leave, so they keep the call alive.
+        private int joinCount;
+        private boolean completed;
+        // left by every request or aborted, later results are dropped.
+        private boolean cancelled;
+
+        Flight(RequestKey key, DataController.Success<TResponse> success, DataController.Error error) {
+            this.key = key;
+            this.success = success;
+            this.error = error;
+        }
+
+        /**
+         * @return false if the flight already completed and cannot be joined anymore.
+         */
+        synchronized boolean join(RequestCallback<TResponse> requestCallback) {
+            if (completed) {
+                return false;
+            }
+            joinCount++;
+            if (requestCallback != null) {
+                requestCallbacks.add(requestCallback);
+            }
+            return true;
+        }
+
+        /**
+         * @return True if the request was the last one waiting, leaving the call to be cancelled.
+         */
+        synchronized boolean leave(RequestCallback<TResponse> requestCallback) {
+            if (completed || !requestCallbacks.remove(requestCallback)) {
+                return false;
+            }
+            if (--joinCount > 0) {
+                return false;
+            }
+            inFlight.remove(key, this);
+            completed = true;
+            cancelled = true;
+            return true;
+        }
+
+        /**
+         * @return The callbacks to notify, or null if the flight already completed or was cancelled.
+         */
+        private synchronized List<RequestCallback<TResponse>> complete() {
+            if (completed) {
+                return null;
+            }
+            inFlight.remove(key, this);
+            completed = true;
+            return new ArrayList<>(requestCallbacks);
+        }
+
+        private synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public void onSuccess(DataControllerResponse<TResponse> response) {
+            List<RequestCallback<TResponse>> callbacks = complete();
+            if (callbacks == null) {
+                if (!isCancelled()) {
+                    success.onSuccess(response);
+                }
+                return;
+            }
+            success.onSuccess(response);
+            for (int i = 0; i < callbacks.size(); i++) {
+                callbacks.get(i).onSuccess(response);
+            }
+        }
+
+        @Override
+        public void onFailure(DataResponseError dataResponseError) {
+            List<RequestCallback<TResponse>> callbacks = complete();
+            if (callbacks == null) {
+                if (!isCancelled()) {
+                    error.onFailure(dataResponseError);
+                }
+                return;
+            }
+            error.onFailure(dataResponseError);
+            for (int i = 0; i < callbacks.size(); i++) {
+                callbacks.get(i).onFailure(dataResponseError);
+            }
+        }
+
+        /**
+         * Fails every joined request without notifying the shared error, the call itself did not fail.
+         */
+        void abort(DataResponseError dataResponseError) {
+            List<RequestCallback<TResponse>> callbacks;
+            synchronized (this) {
+                callbacks = complete();
+                cancelled = true;
+            }
+            if (callbacks == null) {
+                return;
+            }
+            for (int i = 0; i < callbacks.size(); i++) {
+                callbacks.get(i).onFailure(dataResponseError);
+            }
+        }
+
+        void decline(RequestCallback<TResponse> requestCallback) {
+            List<RequestCallback<TResponse>> callbacks = complete();
+            if (callbacks == null) {
+                return;
+            }
+            for (int i = 0; i < callbacks.size(); i++) {
+                RequestCallback<TResponse> callback = callbacks.get(i);
+                if (callback != requestCallback) {
+                    callback.onDeclined();
+                }
+            }
+        }
+    }
+
+    /**
+     * Description: The outcome of a call to
+     * {@link #get(DataSource, SourceParams, DataController.Success, DataController.Error, RequestCallback)}.
+     */
+    public enum Result {
+
+        /**
+         * A new call was started on the source.
+         */
+        STARTED,
+
+        /**
+         * The request joined an equal call in flight.
+         */
+        JOINED,
+
+        /**
+         * The source's {@link DataSource.RefreshStrategy} declined, no callbacks will be invoked.
+         */
+        DECLINED
+    }
+
+    private final ConcurrentMap<RequestKey, Flight> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final AtomicLong cancelledCount = new AtomicLong();
+
+    /**
+     * Calls {@link DataSource#get(SourceParams, DataController.Success, DataController.Error)} unless an
+     * equal request on the same source is still in flight, in which case this request joins it.
+     *
+     * @return True if a new call was started on the source, false if the request was merged into an
+     * in-flight call or the source's {@link DataSource.RefreshStrategy} declined.
+     */
+    public boolean get(DataSource<TResponse> dataSource, SourceParams sourceParams,
+                       DataController.Success<TResponse> success, DataController.Error error) {
+        return get(dataSource, sourceParams, success, error, null) == Result.STARTED;
+    }
+
+    /**
+     * Same as {@link #get(DataSource, SourceParams, DataController.Success, DataController.Error)}, but
+     * also notifies a per-request callback. The shared success and error are only invoked once per call while
+     * every joined request's callback is invoked after them.
+     *
+     * @param requestCallback Notified with the result of the call this request started or joined. Nullable.
+     */
+    public Result get(DataSource<TResponse> dataSource, SourceParams sourceParams,
+                      DataController.Success<TResponse> success, DataController.Error error,
+                      RequestCallback<TResponse> requestCallback) {
+        return get(dataSource, sourceParams, success, error, requestCallback, null);
+    }
+
+    /**
+     * Same as {@link #get(DataSource, SourceParams, DataController.Success, DataController.Error, RequestCallback)},
+     * but starts a new call through the specified {@link SourceCall}. Nullable, in which case the source's get
+     * is called.
+     */
+    public Result get(DataSource<TResponse> dataSource, SourceParams sourceParams,
+                      DataController.Success<TResponse> success, DataController.Error error,
+                      RequestCallback<TResponse> requestCallback, SourceCall<TResponse> sourceCall) {
+        requestCount.incrementAndGet();
+
+        RequestKey key = new RequestKey(dataSource, sourceParams);
+        Flight flight = new Flight(key, success, error);
+        flight.join(requestCallback);
+        while (true) {
+            Flight existing = inFlight.putIfAbsent(key, flight);
+            if (existing == null) {
+                break;
+            } else if (existing.join(requestCallback)) {
+                coalescedCount.incrementAndGet();
+                return Result.JOINED;
+            }
+            // completed while we tried to join, it is on its way out.
+            inFlight.remove(key, existing);
+        }
+
+        boolean called = false;
+        try {
+            called = sourceCall != null ? sourceCall.call(dataSource, sourceParams, flight, flight)
+                    : dataSource.get(sourceParams, flight, flight);
+        } finally {
+            if (!called) {
+                flight.decline(requestCallback);
+            }
+        }
+        return called ? Result.STARTED : Result.DECLINED;
+    }
+
+    /**
+     * Removes a request from the call it started or joined on the source, so its callback is not notified.
+     * When no other request is waiting on the call anymore, the call is cancelled through
+     * {@link DataSource#cancel(SourceParams)} and its result is dropped.
+     *
+     * @param requestCallback The callback the request was made with.
+     * @return True if the call on the source was cancelled.
+     */
+    public boolean leave(DataSource<TResponse> dataSource, SourceParams sourceParams,
+                         RequestCallback<TResponse> requestCallback) {
+        Flight flight = inFlight.get(new RequestKey(dataSource, sourceParams));
+        if (flight == null || !flight.leave(requestCallback)) {
+            return false;
+        }
+        cancelledCount.incrementAndGet();
+        dataSource.cancel(sourceParams);
+        return true;
+    }
+
+    /**
+     * Forgets about every in-flight call, i.e. when sources have been cancelled and will not call back.
+     * Requests waiting on them are not notified, prefer {@link #abortAll(DataResponseError)}.
+     */
+    public void clear() {
+        inFlight.clear();
+    }
+
+    /**
+     * Completes every in-flight call by failing the requests that joined it with the error, then forgets about
+     * it. Results the sources still deliver for these calls are dropped.
+     */
+    public void abortAll(DataResponseError dataResponseError) {
+        List<Flight> flights = new ArrayList<>(inFlight.values());
+        for (int i = 0; i < flights.size(); i++) {
+            flights.get(i).abort(dataResponseError);
+        }
+    }
+
+    /**
+     * @return The total amount of requests that passed through here.
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * @return The amount of requests that were merged into an already in-flight call.
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    /**
+     * @return The amount of calls cancelled because every request waiting on them left.
+     */
+    public long getCancelledCount() {
+        return cancelledCount.get();
+    }
+
+    /**
+     * @return The amount of calls currently in flight.
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,22 @@
+package com.fuzz.datacontroller;
+
+import com.fuzz.datacontroller.source.DataSource;
+
+/**
+ * Description: A {@link DataSourceChainer} that decides per request. The {@link DataController} passes the
+ * params of the request being dispatched, so chaining can depend on the data stored for that key rather than
+ * the default params.
+ */
+public interface SourceParamsDataSourceChainer<TResponse> extends DataSourceChainer<TResponse> {
+
+    /**
+     * @param lastSource    The previous data source called.
+     * @param sourceToChain The next source that we query to determine if we should run this one along the chain.
+     * @param sourceParams  The params of the request being dispatched.
+     * @return True if the sourceToChain should call
+     * {@link DataSource#get(DataSource.SourceParams, DataController.Success, DataController.Error)}
+     * otherwise we break the chain.
+     */
+    boolean shouldQueryNext(DataSource<TResponse> lastSource, DataSource<TResponse> sourceToChain,
+                            DataSource.SourceParams sourceParams);
+}
@@ -0,0 +1,25 @@
+package com.fuzz.datacontroller;
+
+import com.fuzz.datacontroller.source.DataSource;
+import com.fuzz.datacontroller.source.StaleWhileRevalidateDataSource;
+
+/**
+ * Description: Queries the next source when the previous one has no fresh data for the requested params. A
+ * {@link StaleWhileRevalidateDataSource} with stale data has already served it, so the next source
+ * is queried to revalidate. Other sources behave like in {@link FirstStorageDataSourceChainer}.
+ */
+public class StaleWhileRevalidateDataSourceChainer<TResponse> implements SourceParamsDataSourceChainer<TResponse> {
+    @Override
+    public boolean shouldQueryNext(DataSource<TResponse> lastSource, DataSource<TResponse> sourceToChain) {
+        return shouldQueryNext(lastSource, sourceToChain, new DataSource.SourceParams());
+    }
+
+    @Override
+    public boolean shouldQueryNext(DataSource<TResponse> lastSource, DataSource<TResponse> sourceToChain,
+                                   DataSource.SourceParams sourceParams) {
+        if (lastSource instanceof StaleWhileRevalidateDataSource) {
+            return !((StaleWhileRevalidateDataSource<TResponse>) lastSource).hasFreshData(sourceParams);
+        }
+        return !lastSource.hasStoredData();
+    }
+}
@@ -0,0 +1,23 @@
+package com.fuzz.datacontroller;
+
+import com.fuzz.datacontroller.source.DataSource;
+
+/**
+ * Description: Decides which {@link DataSource} a successful response is stored into. Without one, the
+ * {@link DataController} stores every response into every source of a different {@link DataSource.SourceType}.
+ */
+public interface StoragePolicy<TResponse> {
+
+    /**
+     * Called once for every response that is about to be stored, before
+     * {@link #shouldStore(DataControllerResponse, DataSource)} is asked for each source.
+     */
+    void onResponse(DataControllerResponse<TResponse> response);
+
+    /**
+     * @param response   The response returned by a source.
+     * @param dataSource A registered source of a different {@link DataSource.SourceType} than the response.
+     * @return True to call {@link DataSource#store(DataControllerResponse)} on the source.
+     */
+    boolean shouldStore(DataControllerResponse<TResponse> response, DataSource<TResponse> dataSource);
+}
@@ -0,0 +1,245 @@
+package com.fuzz.datacontroller;
+
+import com.fuzz.datacontroller.source.ChunkListener;
+import com.fuzz.datacontroller.source.ChunkedStore;
+import com.fuzz.datacontroller.source.DataSource;
+import com.fuzz.datacontroller.source.DataSourceStorage;
+import com.fuzz.datacontroller.source.SnapshotSingleTypeDataSourceContainer;
+import com.fuzz.datacontroller.source.StreamingDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Description: A {@link DataController} for list responses that can also stream them. A streamed request is
+ * dispatched like any other: the {@link DataSourceChainer} picks the sources, equal requests are coalesced, and
+ * the response reaches the registered callbacks and is stored as the {@link StoragePolicy} decides. The
+ * {@link StreamingDataSource}s it calls deliver their chunks to a {@link ChunkListener} as they arrive. Without
+ * a {@link StoragePolicy}, chunks are also stored one by one into {@link ChunkedStore}s, and as the collected
+ * list at the end into the rest.
+ */
+public class StreamingDataController<TItem> extends DataController<List<TItem>> {
+
+    public StreamingDataController(DataSourceStorage<List<TItem>> dataSourceStorage,
+                                   DataSourceChainer<List<TItem>> dataSourceChainer, Executor executor) {
+        super(dataSourceStorage, dataSourceChainer, executor);
+    }
+
+    public StreamingDataController(DataSourceStorage<List<TItem>> dataSourceStorage,
+                                   DataSourceChainer<List<TItem>> dataSourceChainer) {
+        super(dataSourceStorage, dataSourceChainer);
+    }
+
+    public StreamingDataController() {
+        this(new SnapshotSingleTypeDataSourceContainer<List<TItem>>(),
+                new DataSourceChainer<List<TItem>>() {
+                    @Override
+                    public boolean shouldQueryNext(DataSource<List<TItem>> lastSource,
+                                                   DataSource<List<TItem>> sourceToChain) {
+                        return true;
+                    }
+                });
+    }
+
+    /**
+     * Requests data like {@link #requestData(DataSource.SourceParams)} and streams it into the listener. The
+     * first response serves the listener: a stream this request started as its chunks arrive, or else the
+     * response of any other source, or of an equal request already in flight, as a single chunk. The listener
+     * is not called if no source returns data, and receives nothing more once the request is cancelled.
+     *
+     * @return A handle that completes with the first non-null response.
+     */
+    public DataControllerRequest<List<TItem>> requestStream(DataSource.SourceParams sourceParams,
+                                                           ChunkListener<TItem> chunkListener) {
+        DataControllerRequest<List<TItem>> request = new DataControllerRequest<>();
+        dispatchData(sourceParams, request, new StreamCall(sourceParams, request, chunkListener));
+        return request;
+    }
+
+    /**
+     * Same as {@link #requestStream(DataSource.SourceParams, ChunkListener)}, except that all sources are
+     * evaluated on the {@link Executor} passed in the constructor.
+     *
+     * @return A handle that completes with the first non-null response.
+     */
+    public DataControllerRequest<List<TItem>> requestStreamAsync(DataSource.SourceParams sourceParams,
+                                                                ChunkListener<TItem> chunkListener) {
+        DataControllerRequest<List<TItem>> request = new DataControllerRequest<>();
+        dispatchDataAsync(sourceParams, request, new StreamCall(sourceParams, request, chunkListener));
+        return request;
+    }
+
+    @Override
+    protected boolean isStored(DataControllerResponse<List<TItem>> response, DataSource<List<TItem>> dataSource) {
+        return response instanceof StreamedResponse
+                && ((StreamedResponse<TItem>) response).chunkedSources.contains(dataSource);
+    }
+
+    /**
+     * Description: A streamed response, along with the {@link ChunkedStore}s that already stored it.
+     */
+    private static final class StreamedResponse<TItem> extends DataControllerResponse<List<TItem>> {
+
+        private final List<DataSource<List<TItem>>> chunkedSources;
+
+        StreamedResponse(List<TItem> items, DataSource.SourceType sourceType, DataSource.SourceParams sourceParams,
+                         List<DataSource<List<TItem>>> chunkedSources) {
+            super(items, sourceType, null, sourceParams);
+            this.chunkedSources = chunkedSources;
+        }
+    }
+
+    /**
+     * Streams the calls a streamed request starts on {@link StreamingDataSource}s, and hands the listener to
+     * whichever responds first: one of those streams or the result the request completes with.
+     */
+    private final class StreamCall implements RequestCoalescer.SourceCall<List<TItem>>,
+            DataControllerCallback<List<TItem>> {
+
+        private final DataSource.SourceParams sourceParams;
+        private final DataControllerRequest<List<TItem>> request;
+        private final ChunkListener<TItem> chunkListener;
+
+        // guarded by this.
+        private boolean isClaimed;
+
+        StreamCall(DataSource.SourceParams sourceParams, DataControllerRequest<List<TItem>> request,
+                   ChunkListener<TItem> chunkListener) {
+            this.sourceParams = sourceParams;
+            this.request = request;
+            this.chunkListener = chunkListener;
+            request.addCallback(this);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean call(DataSource<List<TItem>> dataSource, DataSource.SourceParams sourceParams,
+                            Success<List<TItem>> success, Error error) {
+            if (dataSource instanceof StreamingDataSource) {
+                return ((StreamingDataSource<TItem>) dataSource).stream(sourceParams,
+                        new StoringChunkListener(this, dataSource, sourceParams, success, error));
+            }
+            return dataSource.get(sourceParams, success, error);
+        }
+
+        /**
+         * @return True if the caller is the first to respond and may call the listener.
+         */
+        synchronized boolean claim() {
+            if (isClaimed) {
+                return false;
+            }
+            isClaimed = true;
+            return true;
+        }
+
+        boolean isCancelled() {
+            return request.isCancelled();
+        }
+
+        @Override
+        public void onSuccess(DataControllerResponse<List<TItem>> response) {
+            // not streamed by this request, i.e. stored data or an equal request's result.
+            if (response != null && response.hasResponse() && claim()) {
+                chunkListener.onBegin(response.getSourceType(), sourceParams);
+                chunkListener.onChunk(response.getResponse());
+                chunkListener.onEnd();
+            }
+        }
+
+        @Override
+        public void onFailure(DataResponseError dataResponseError) {
+            if (claim()) {
+                chunkListener.onFailure(dataResponseError);
+            }
+        }
+    }
+
+    /**
+     * Forwards chunks to the consumer if the stream claimed it, stores them into {@link ChunkedStore}s, and
+     * completes the call with the collected list.
+     */
+    private final class StoringChunkListener implements ChunkListener<TItem> {
+
+        private final StreamCall streamCall;
+        private final DataSource<List<TItem>> streamingSource;
+        private final DataSource.SourceParams sourceParams;
+        private final Success<List<TItem>> success;
+        private final Error error;
+
+        private final List<ChunkListener<TItem>> chunkedStores = new ArrayList<>();
+        private final List<DataSource<List<TItem>>> chunkedSources = new ArrayList<>();
+        private final List<TItem> items = new ArrayList<>();
+        private DataSource.SourceType sourceType;
+        private boolean isForwarding;
+
+        StoringChunkListener(StreamCall streamCall, DataSource<List<TItem>> streamingSource,
+                             DataSource.SourceParams sourceParams, Success<List<TItem>> success, Error error) {
+            this.streamCall = streamCall;
+            this.streamingSource = streamingSource;
+            this.sourceParams = sourceParams;
+            this.success = success;
+            this.error = error;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void onBegin(DataSource.SourceType sourceType, DataSource.SourceParams params) {
+            this.sourceType = sourceType;
+            isForwarding = streamCall.claim();
+            if (isForwarding && !streamCall.isCancelled()) {
+                streamCall.chunkListener.onBegin(sourceType, params);
+            }
+            // a storage policy needs the whole response to decide.
+            if (getStoragePolicy() != null) {
+                return;
+            }
+            List<DataSource<List<TItem>>> sources = sourceList();
+            for (int i = 0; i < sources.size(); i++) {
+                DataSource<List<TItem>> source = sources.get(i);
+                if (source != streamingSource && source instanceof ChunkedStore
+                        && !source.getSourceType().equals(sourceType)) {
+                    ChunkListener<TItem> store = ((ChunkedStore<TItem>) source).beginStore(sourceParams);
+                    store.onBegin(sourceType, params);
+                    chunkedStores.add(store);
+                    chunkedSources.add(source);
+                }
+            }
+        }
+
+        @Override
+        public void onChunk(List<TItem> chunk) {
+            if (isForwarding && !streamCall.isCancelled()) {
+                streamCall.chunkListener.onChunk(chunk);
+            }
+            for (int i = 0; i < chunkedStores.size(); i++) {
+                chunkedStores.get(i).onChunk(chunk);
+            }
+            items.addAll(chunk);
+        }
+
+        @Override
+        public void onEnd() {
+            for (int i = 0; i < chunkedStores.size(); i++) {
+                chunkedStores.get(i).onEnd();
+            }
+            // stores into the remaining sources and notifies the callbacks.
+            success.onSuccess(new StreamedResponse<>(items, sourceType, sourceParams, chunkedSources));
+            if (isForwarding && !streamCall.isCancelled()) {
+                streamCall.chunkListener.onEnd();
+            }
+        }
+
+        @Override
+        public void onFailure(DataResponseError dataResponseError) {
+            for (int i = 0; i < chunkedStores.size(); i++) {
+                chunkedStores.get(i).onFailure(dataResponseError);
+            }
+            if (isForwarding && !streamCall.isCancelled()) {
+                streamCall.chunkListener.onFailure(dataResponseError);
+            }
+            error.onFailure(dataResponseError);
+        }
+    }
+}
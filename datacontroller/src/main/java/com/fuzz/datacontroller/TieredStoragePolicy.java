@@ -0,0 +1,229 @@
+package com.fuzz.datacontroller;
+
+import com.fuzz.datacontroller.source.DataSource;
+import com.fuzz.datacontroller.source.DataSource.SourceParams;
+import com.fuzz.datacontroller.source.DataSource.SourceType;
+import com.fuzz.datacontroller.source.KeyedMemoryDataSource;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Description: Treats sources as tiers ordered by {@link SourceType}, from {@link SourceType#MEMORY} the fastest
+ * to {@link SourceType#NETWORK} the slowest. Responses are only promoted into faster tiers than the one they came
+ * from, never written back into slower ones. Each tier admits responses by its own {@link Admission}: by default
+ * {@link SourceType#MEMORY} takes keys seen at least the promotion threshold times recently, so only the hot set
+ * is copied into it, and the other tiers take everything. A tier that already holds a copy always gets the new
+ * one, so it never serves an outdated version. Entries evicted from a {@link KeyedMemoryDataSource} are kept in a
+ * slower tier with {@link #demoteTo(DataSource)}.
+ */
+public class TieredStoragePolicy<TResponse> implements StoragePolicy<TResponse> {
+
+    /**
+     * Description: Decides whether a tier takes a response.
+     */
+    public interface Admission<TResponse> {
+
+        /**
+         * @param response  The response to store, or an evicted one to demote.
+         * @param frequency How often the key of the response was seen recently.
+         */
+        boolean admit(DataControllerResponse<TResponse> response, int frequency);
+    }
+
+    /**
+     * @return Admits every response.
+     */
+    public static <TResponse> Admission<TResponse> admitAll() {
+        return new Admission<TResponse>() {
+            @Override
+            public boolean admit(DataControllerResponse<TResponse> response, int frequency) {
+                return true;
+            }
+        };
+    }
+
+    /**
+     * @return Admits responses whose key was seen at least the specified amount of times.
+     */
+    public static <TResponse> Admission<TResponse> admitFrequency(final int minFrequency) {
+        return new Admission<TResponse>() {
+            @Override
+            public boolean admit(DataControllerResponse<TResponse> response, int frequency) {
+                return frequency >= minFrequency;
+            }
+        };
+    }
+
+    private static final int DEFAULT_PROMOTION_THRESHOLD = 2;
+    private static final int DEFAULT_MAX_TRACKED_KEYS = 10000;
+
+    private final KeyedMemoryDataSource.KeyExtractor<?> keyExtractor;
+    private final FrequencyCounter frequencies;
+    private final Admission<TResponse> defaultAdmission = admitAll();
+    private final Map<SourceType, Admission<TResponse>> admissions = new ConcurrentHashMap<>();
+
+    private final AtomicLong promotionCount = new AtomicLong();
+    private final AtomicLong demotionCount = new AtomicLong();
+
+    /**
+     * @param keyExtractor       Determines the key frequencies are counted by. Should match the keys of the
+     *                           storage sources.
+     * @param promotionThreshold How often a key is seen before it is admitted into {@link SourceType#MEMORY}.
+     *                           Use 1 when there is no slower storage tier to serve it from in between.
+     * @param maxTrackedKeys     The most keys counted at once. Counts are halved whenever more are tracked, or
+     *                           once ten times as many responses were counted, so old popularity fades.
+     */
+    public TieredStoragePolicy(KeyedMemoryDataSource.KeyExtractor<?> keyExtractor, int promotionThreshold,
+                               int maxTrackedKeys) {
+        if (promotionThreshold < 1) {
+            throw new IllegalArgumentException("Promotion threshold must be at least 1: " + promotionThreshold);
+        }
+        if (maxTrackedKeys < 1) {
+            throw new IllegalArgumentException("Max tracked keys must be at least 1: " + maxTrackedKeys);
+        }
+        this.keyExtractor = keyExtractor;
+        this.frequencies = new FrequencyCounter(maxTrackedKeys);
+        admissions.put(SourceType.MEMORY, TieredStoragePolicy.<TResponse>admitFrequency(promotionThreshold));
+    }
+
+    public TieredStoragePolicy(KeyedMemoryDataSource.KeyExtractor<?> keyExtractor, int promotionThreshold) {
+        this(keyExtractor, promotionThreshold, DEFAULT_MAX_TRACKED_KEYS);
+    }
+
+    /**
+     * Promotes into {@link SourceType#MEMORY} on the second time a key is seen.
+     */
+    public TieredStoragePolicy(KeyedMemoryDataSource.KeyExtractor<?> keyExtractor) {
+        this(keyExtractor, DEFAULT_PROMOTION_THRESHOLD);
+    }
+
+    /**
+     * Replaces the admission rule of a tier, both for promotion into it and demotion into it.
+     */
+    public void setAdmission(SourceType tier, Admission<TResponse> admission) {
+        admissions.put(tier, admission);
+    }
+
+    public Admission<TResponse> getAdmission(SourceType tier) {
+        Admission<TResponse> admission = admissions.get(tier);
+        return admission != null ? admission : defaultAdmission;
+    }
+
+    /**
+     * Counts the key of responses with data, misses of a tier are not an access.
+     */
+    @Override
+    public void onResponse(DataControllerResponse<TResponse> response) {
+        if (response.hasResponse()) {
+            frequencies.increment(getKey(response.getSourceParams()));
+        }
+    }
+
+    @Override
+    public boolean shouldStore(DataControllerResponse<TResponse> response, DataSource<TResponse> dataSource) {
+        SourceType tier = dataSource.getSourceType();
+        if (tier.ordinal() >= response.getSourceType().ordinal()) {
+            return false;
+        }
+        SourceParams sourceParams = response.getSourceParams() != null ? response.getSourceParams()
+                : new SourceParams();
+        // without data the response only clears copies a tier holds.
+        if (dataSource.getStoredDataMetadata(sourceParams).exists() || (response.hasResponse()
+                && getAdmission(tier).admit(response, frequencies.get(getKey(sourceParams))))) {
+            promotionCount.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param lowerTier The slower source evicted entries are stored into when its {@link Admission} takes them.
+     * @return A listener to set with {@link KeyedMemoryDataSource#setEvictionListener}.
+     */
+    public KeyedMemoryDataSource.EvictionListener<TResponse> demoteTo(final DataSource<TResponse> lowerTier) {
+        return new KeyedMemoryDataSource.EvictionListener<TResponse>() {
+            @Override
+            public void onEvicted(DataControllerResponse<TResponse> evicted) {
+                if (getAdmission(lowerTier.getSourceType())
+                        .admit(evicted, frequencies.get(getKey(evicted.getSourceParams())))) {
+                    demotionCount.incrementAndGet();
+                    lowerTier.store(evicted);
+                }
+            }
+        };
+    }
+
+    /**
+     * @return How often the key of the params was seen recently.
+     */
+    public int getFrequency(SourceParams sourceParams) {
+        return frequencies.get(getKey(sourceParams));
+    }
+
+    /**
+     * @return The amount of stores into a faster tier allowed, including refreshes of copies it already held.
+     */
+    public long getPromotionCount() {
+        return promotionCount.get();
+    }
+
+    public long getDemotionCount() {
+        return demotionCount.get();
+    }
+
+    private Object getKey(SourceParams sourceParams) {
+        return keyExtractor.getKey(sourceParams != null ? sourceParams : new SourceParams());
+    }
+
+    /**
+     * Description: Counts keys in a bounded map whose counts are halved to age them.
+     */
+    private static final class FrequencyCounter {
+
+        private final Map<Object, int[]> counts = new HashMap<>();
+        private final int maxTrackedKeys;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencyCounter(int maxTrackedKeys) {
+            this.maxTrackedKeys = maxTrackedKeys;
+            this.sampleSize = (int) Math.min(Integer.MAX_VALUE, maxTrackedKeys * 10L);
+        }
+
+        synchronized void increment(Object key) {
+            int[] count = counts.get(key);
+            if (count == null) {
+                counts.put(key, new int[]{1});
+            } else {
+                count[0]++;
+            }
+            if (++additions >= sampleSize) {
+                age();
+            }
+            while (counts.size() > maxTrackedKeys) {
+                age();
+            }
+        }
+
+        synchronized int get(Object key) {
+            int[] count = counts.get(key);
+            return count != null ? count[0] : 0;
+        }
+
+        private void age() {
+            Iterator<int[]> iterator = counts.values().iterator();
+            while (iterator.hasNext()) {
+                int[] count = iterator.next();
+                count[0] >>>= 1;
+                if (count[0] == 0) {
+                    iterator.remove();
+                }
+            }
+            additions = 0;
+        }
+    }
+}
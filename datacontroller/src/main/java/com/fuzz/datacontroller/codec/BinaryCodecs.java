@@ -0,0 +1,388 @@
+package com.fuzz.datacontroller.codec;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Description: Compact binary {@link Codec}s for common types, along with the primitives to compose codecs for
+ * custom responses. Integers are written as variable length values, small ones taking a single byte, and
+ * strings and collections are prefixed with their length. Everything is read from and written to the caller's
+ * {@link ByteBuffer} without intermediate byte arrays.
+ */
+public final class BinaryCodecs {
+
+    private static final Codec<String> STRING = new Codec<String>() {
+        @Override
+        public int sizeOf(String value) {
+            int length = utf8Size(value);
+            return varIntSize(length) + length;
+        }
+
+        @Override
+        public void encode(String value, ByteBuffer buffer) {
+            writeVarInt(buffer, utf8Size(value));
+            writeUtf8(buffer, value);
+        }
+
+        @Override
+        public String decode(ByteBuffer buffer) {
+            return readUtf8(buffer, readVarInt(buffer));
+        }
+    };
+
+    private static final Codec<Integer> INT = new Codec<Integer>() {
+        @Override
+        public int sizeOf(Integer value) {
+            return varIntSize(zigZag(value));
+        }
+
+        @Override
+        public void encode(Integer value, ByteBuffer buffer) {
+            writeVarInt(buffer, zigZag(value));
+        }
+
+        @Override
+        public Integer decode(ByteBuffer buffer) {
+            int value = readVarInt(buffer);
+            return (value >>> 1) ^ -(value & 1);
+        }
+    };
+
+    private static final Codec<Long> LONG = new Codec<Long>() {
+        @Override
+        public int sizeOf(Long value) {
+            return varLongSize(zigZag(value));
+        }
+
+        @Override
+        public void encode(Long value, ByteBuffer buffer) {
+            writeVarLong(buffer, zigZag(value));
+        }
+
+        @Override
+        public Long decode(ByteBuffer buffer) {
+            long value = readVarLong(buffer);
+            return (value >>> 1) ^ -(value & 1);
+        }
+    };
+
+    private static final Codec<Double> DOUBLE = new Codec<Double>() {
+        @Override
+        public int sizeOf(Double value) {
+            return 8;
+        }
+
+        @Override
+        public void encode(Double value, ByteBuffer buffer) {
+            buffer.putDouble(value);
+        }
+
+        @Override
+        public Double decode(ByteBuffer buffer) {
+            return buffer.getDouble();
+        }
+    };
+
+    private static final Codec<Boolean> BOOLEAN = new Codec<Boolean>() {
+        @Override
+        public int sizeOf(Boolean value) {
+            return 1;
+        }
+
+        @Override
+        public void encode(Boolean value, ByteBuffer buffer) {
+            buffer.put(value ? (byte) 1 : (byte) 0);
+        }
+
+        @Override
+        public Boolean decode(ByteBuffer buffer) {
+            return buffer.get() != 0;
+        }
+    };
+
+    private static final Codec<byte[]> BYTES = new Codec<byte[]>() {
+        @Override
+        public int sizeOf(byte[] value) {
+            return varIntSize(value.length) + value.length;
+        }
+
+        @Override
+        public void encode(byte[] value, ByteBuffer buffer) {
+            writeVarInt(buffer, value.length);
+            buffer.put(value);
+        }
+
+        @Override
+        public byte[] decode(ByteBuffer buffer) {
+            byte[] value = new byte[readVarInt(buffer)];
+            buffer.get(value);
+            return value;
+        }
+    };
+
+    private BinaryCodecs() {
+    }
+
+    /**
+     * @return Writes strings as UTF-8 prefixed with their byte length.
+     */
+    public static Codec<String> stringCodec() {
+        return STRING;
+    }
+
+    /**
+     * @return Writes ints as zigzag variable length values, taking 1 to 5 bytes.
+     */
+    public static Codec<Integer> intCodec() {
+        return INT;
+    }
+
+    /**
+     * @return Writes longs as zigzag variable length values, taking 1 to 10 bytes.
+     */
+    public static Codec<Long> longCodec() {
+        return LONG;
+    }
+
+    public static Codec<Double> doubleCodec() {
+        return DOUBLE;
+    }
+
+    public static Codec<Boolean> booleanCodec() {
+        return BOOLEAN;
+    }
+
+    /**
+     * @return Writes byte arrays prefixed with their length.
+     */
+    public static Codec<byte[]> bytesCodec() {
+        return BYTES;
+    }
+
+    /**
+     * @return Writes lists prefixed with their size, each element written with the element codec.
+     */
+    public static <T> Codec<List<T>> listCodec(final Codec<T> elementCodec) {
+        return new Codec<List<T>>() {
+            @Override
+            public int sizeOf(List<T> value) {
+                int size = varIntSize(value.size());
+                for (int i = 0; i < value.size(); i++) {
+                    size += elementCodec.sizeOf(value.get(i));
+                }
+                return size;
+            }
+
+            @Override
+            public void encode(List<T> value, ByteBuffer buffer) {
+                writeVarInt(buffer, value.size());
+                for (int i = 0; i < value.size(); i++) {
+                    elementCodec.encode(value.get(i), buffer);
+                }
+            }
+
+            @Override
+            public List<T> decode(ByteBuffer buffer) {
+                int size = readVarInt(buffer);
+                List<T> value = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    value.add(elementCodec.decode(buffer));
+                }
+                return value;
+            }
+        };
+    }
+
+    /**
+     * @return Allows null values by prefixing each value with a presence byte.
+     */
+    public static <T> Codec<T> nullableCodec(final Codec<T> codec) {
+        return new Codec<T>() {
+            @Override
+            public int sizeOf(T value) {
+                return value != null ? 1 + codec.sizeOf(value) : 1;
+            }
+
+            @Override
+            public void encode(T value, ByteBuffer buffer) {
+                if (value != null) {
+                    buffer.put((byte) 1);
+                    codec.encode(value, buffer);
+                } else {
+                    buffer.put((byte) 0);
+                }
+            }
+
+            @Override
+            public T decode(ByteBuffer buffer) {
+                return buffer.get() != 0 ? codec.decode(buffer) : null;
+            }
+        };
+    }
+
+    /**
+     * @return The amount of bytes {@link #writeVarInt(ByteBuffer, int)} writes for the value.
+     */
+    public static int varIntSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * Writes the value as unsigned, 7 bits per byte. Negative values always take 5 bytes.
+     */
+    public static void writeVarInt(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    public static int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed variable length int.");
+    }
+
+    /**
+     * @return The amount of bytes {@link #writeVarLong(ByteBuffer, long)} writes for the value.
+     */
+    public static int varLongSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    public static void writeVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    public static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed variable length long.");
+    }
+
+    /**
+     * @return The amount of bytes the characters take as UTF-8. Unpaired surrogates count as '?'.
+     */
+    public static int utf8Size(CharSequence value) {
+        int size = 0;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                size++;
+            } else if (c < 0x800) {
+                size += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                size += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                size++;
+            } else {
+                size += 3;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Writes the characters as UTF-8 without a length prefix, taking {@link #utf8Size(CharSequence)} bytes.
+     */
+    public static void writeUtf8(ByteBuffer buffer, CharSequence value) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | (c >> 6)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer.put((byte) (0xF0 | (codePoint >> 18)));
+                buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xE0 | (c >> 12)));
+                buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    /**
+     * Reads the given amount of UTF-8 bytes written by {@link #writeUtf8(ByteBuffer, CharSequence)}.
+     */
+    public static String readUtf8(ByteBuffer buffer, int byteLength) {
+        // never more chars than bytes.
+        char[] chars = new char[byteLength];
+        int count = 0;
+        int end = buffer.position() + byteLength;
+        while (buffer.position() < end) {
+            int b = buffer.get();
+            if (b >= 0) {
+                chars[count++] = (char) b;
+            } else if ((b & 0xE0) == 0xC0) {
+                chars[count++] = (char) (((b & 0x1F) << 6) | continuation(buffer));
+            } else if ((b & 0xF0) == 0xE0) {
+                chars[count++] = (char) (((b & 0x0F) << 12) | (continuation(buffer) << 6) | continuation(buffer));
+            } else if ((b & 0xF8) == 0xF0) {
+                int codePoint = ((b & 0x07) << 18) | (continuation(buffer) << 12)
+                        | (continuation(buffer) << 6) | continuation(buffer);
+                chars[count++] = Character.highSurrogate(codePoint);
+                chars[count++] = Character.lowSurrogate(codePoint);
+            } else {
+                throw new IllegalArgumentException("Malformed UTF-8 lead byte: " + (b & 0xFF));
+            }
+        }
+        return new String(chars, 0, count);
+    }
+
+    private static int continuation(ByteBuffer buffer) {
+        int b = buffer.get();
+        if ((b & 0xC0) != 0x80) {
+            throw new IllegalArgumentException("Malformed UTF-8 continuation byte: " + (b & 0xFF));
+        }
+        return b & 0x3F;
+    }
+
+    private static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+}
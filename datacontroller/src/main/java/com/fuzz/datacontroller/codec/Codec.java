@@ -0,0 +1,25 @@
+package com.fuzz.datacontroller.codec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Description: Converts a value to and from bytes, so sources can keep it outside of the heap or on disk.
+ * Implementations read and write the caller's {@link ByteBuffer} directly, starting at its position.
+ */
+public interface Codec<T> {
+
+    /**
+     * @return The exact amount of bytes {@link #encode(Object, ByteBuffer)} writes for the value.
+     */
+    int sizeOf(T value);
+
+    /**
+     * Writes the value at the buffer's position and advances it by {@link #sizeOf(Object)} bytes.
+     */
+    void encode(T value, ByteBuffer buffer);
+
+    /**
+     * Reads a value written by {@link #encode(Object, ByteBuffer)} at the buffer's position and advances past it.
+     */
+    T decode(ByteBuffer buffer);
+}
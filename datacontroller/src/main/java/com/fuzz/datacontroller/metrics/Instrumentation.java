@@ -0,0 +1,74 @@
+package com.fuzz.datacontroller.metrics;
+
+import com.fuzz.datacontroller.DataController;
+import com.fuzz.datacontroller.DataControllerCallbackGroup;
+import com.fuzz.datacontroller.source.DataSource;
+
+/**
+ * Description: Receives measurements from a {@link DataController}, its {@link DataSource} and its
+ * {@link DataControllerCallbackGroup}. Implementations are called on the hot path and must be thread-safe
+ * and cheap. When {@link #NONE} is set, nothing is measured at all.
+ */
+public interface Instrumentation {
+
+    /**
+     * Does nothing. Callers skip taking measurements when this is set.
+     */
+    Instrumentation NONE = new Instrumentation() {
+        @Override
+        public void onRequest(long latencyNanos) {
+        }
+
+        @Override
+        public void onGet(DataSource<?> dataSource, long latencyNanos, boolean isSuccess) {
+        }
+
+        @Override
+        public void onRefreshDeclined(DataSource<?> dataSource) {
+        }
+
+        @Override
+        public void onStoredDataLookup(DataSource<?> dataSource, boolean isHit) {
+        }
+
+        @Override
+        public void onStore(DataSource<?> dataSource, long latencyNanos) {
+        }
+
+        @Override
+        public void onCallbacksDelivered(int callbackCount, long latencyNanos) {
+        }
+    };
+
+    /**
+     * @param latencyNanos The time it took to dispatch a request to every source in the chain.
+     */
+    void onRequest(long latencyNanos);
+
+    /**
+     * @param latencyNanos The time between calling the source and its success or error callback.
+     * @param isSuccess    False if the source called back with an error.
+     */
+    void onGet(DataSource<?> dataSource, long latencyNanos, boolean isSuccess);
+
+    /**
+     * Called when the {@link DataSource.RefreshStrategy} of a source declined a get.
+     */
+    void onRefreshDeclined(DataSource<?> dataSource);
+
+    /**
+     * @param isHit True if stored data was found.
+     */
+    void onStoredDataLookup(DataSource<?> dataSource, boolean isHit);
+
+    /**
+     * @param latencyNanos The time the source took to store a response.
+     */
+    void onStore(DataSource<?> dataSource, long latencyNanos);
+
+    /**
+     * @param callbackCount The amount of callbacks a response or error was delivered to.
+     * @param latencyNanos  The time delivery took, or handing off to the executor if delivery is asynchronous.
+     */
+    void onCallbacksDelivered(int callbackCount, long latencyNanos);
+}
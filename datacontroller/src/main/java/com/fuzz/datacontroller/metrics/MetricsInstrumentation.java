@@ -0,0 +1,153 @@
+package com.fuzz.datacontroller.metrics;
+
+import com.fuzz.datacontroller.source.DataSource;
+import com.fuzz.datacontroller.source.DataSource.SourceType;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Description: Default {@link Instrumentation} that aggregates measurements per {@link SourceType} into
+ * {@link StripedCounter} and {@link LatencyHistogram}. Recording never locks or allocates.
+ */
+public class MetricsInstrumentation implements Instrumentation {
+
+    /**
+     * Description: The measurements of every source of a single {@link SourceType}.
+     */
+    public static class SourceMetrics {
+
+        private final LatencyHistogram getLatency = new LatencyHistogram();
+        private final StripedCounter getFailureCount = new StripedCounter();
+        private final StripedCounter refreshDeclinedCount = new StripedCounter();
+        private final StripedCounter hitCount = new StripedCounter();
+        private final StripedCounter missCount = new StripedCounter();
+        private final LatencyHistogram storeLatency = new LatencyHistogram();
+
+        /**
+         * @return Latency of gets in nanoseconds, both successful and failed.
+         */
+        public LatencyHistogram getGetLatency() {
+            return getLatency;
+        }
+
+        public long getGetCount() {
+            return getLatency.getCount();
+        }
+
+        public long getGetFailureCount() {
+            return getFailureCount.get();
+        }
+
+        /**
+         * @return How often the {@link DataSource.RefreshStrategy} declined a get.
+         */
+        public long getRefreshDeclinedCount() {
+            return refreshDeclinedCount.get();
+        }
+
+        public long getHitCount() {
+            return hitCount.get();
+        }
+
+        public long getMissCount() {
+            return missCount.get();
+        }
+
+        /**
+         * @return The ratio of stored data lookups that found data, or 0 if there were none.
+         */
+        public double getHitRatio() {
+            long hits = hitCount.get();
+            long total = hits + missCount.get();
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        /**
+         * @return Latency of stores in nanoseconds.
+         */
+        public LatencyHistogram getStoreLatency() {
+            return storeLatency;
+        }
+    }
+
+    private final Map<SourceType, SourceMetrics> sourceMetrics;
+    private final LatencyHistogram requestLatency = new LatencyHistogram();
+    private final LatencyHistogram callbackLatency = new LatencyHistogram();
+    private final StripedCounter callbackCount = new StripedCounter();
+
+    public MetricsInstrumentation() {
+        Map<SourceType, SourceMetrics> sourceMetrics = new EnumMap<>(SourceType.class);
+        for (SourceType sourceType : SourceType.values()) {
+            sourceMetrics.put(sourceType, new SourceMetrics());
+        }
+        // fully populated up front, so reads never need a lock.
+        this.sourceMetrics = Collections.unmodifiableMap(sourceMetrics);
+    }
+
+    @Override
+    public void onRequest(long latencyNanos) {
+        requestLatency.record(latencyNanos);
+    }
+
+    @Override
+    public void onGet(DataSource<?> dataSource, long latencyNanos, boolean isSuccess) {
+        SourceMetrics metrics = getSourceMetrics(dataSource.getSourceType());
+        metrics.getLatency.record(latencyNanos);
+        if (!isSuccess) {
+            metrics.getFailureCount.increment();
+        }
+    }
+
+    @Override
+    public void onRefreshDeclined(DataSource<?> dataSource) {
+        getSourceMetrics(dataSource.getSourceType()).refreshDeclinedCount.increment();
+    }
+
+    @Override
+    public void onStoredDataLookup(DataSource<?> dataSource, boolean isHit) {
+        SourceMetrics metrics = getSourceMetrics(dataSource.getSourceType());
+        if (isHit) {
+            metrics.hitCount.increment();
+        } else {
+            metrics.missCount.increment();
+        }
+    }
+
+    @Override
+    public void onStore(DataSource<?> dataSource, long latencyNanos) {
+        getSourceMetrics(dataSource.getSourceType()).storeLatency.record(latencyNanos);
+    }
+
+    @Override
+    public void onCallbacksDelivered(int callbackCount, long latencyNanos) {
+        this.callbackCount.add(callbackCount);
+        callbackLatency.record(latencyNanos);
+    }
+
+    public SourceMetrics getSourceMetrics(SourceType sourceType) {
+        return sourceMetrics.get(sourceType);
+    }
+
+    /**
+     * @return The time in nanoseconds to dispatch requests to every source.
+     */
+    public LatencyHistogram getRequestLatency() {
+        return requestLatency;
+    }
+
+    /**
+     * @return The time in nanoseconds to deliver a response or error to all callbacks.
+     */
+    public LatencyHistogram getCallbackLatency() {
+        return callbackLatency;
+    }
+
+    /**
+     * @return The total amount of single callback invocations.
+     */
+    public long getCallbackCount() {
+        return callbackCount.get();
+    }
+}
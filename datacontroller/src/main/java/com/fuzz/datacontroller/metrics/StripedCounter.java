@@ -0,0 +1,56 @@
+package com.fuzz.datacontroller.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Description: A counter that spreads concurrent increments across padded cells, so threads incrementing
+ * at the same time rarely contend on one cache line. Reading sums all cells.
+ */
+public class StripedCounter {
+
+    // longs between cells, keeps each cell on its own 64 byte cache line.
+    private static final int PADDING = 8;
+
+    private final AtomicLongArray cells;
+    private final int mask;
+
+    /**
+     * @param stripes The amount of cells, rounded up to a power of two.
+     */
+    public StripedCounter(int stripes) {
+        int size = 1;
+        while (size < stripes) {
+            size <<= 1;
+        }
+        mask = size - 1;
+        cells = new AtomicLongArray(size * PADDING);
+    }
+
+    public StripedCounter() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public void increment() {
+        add(1);
+    }
+
+    public void add(long value) {
+        long id = Thread.currentThread().getId();
+        int hash = (int) (id ^ (id >>> 32)) * 0x9e3779b9;
+        cells.getAndAdd(((hash >>> 16) & mask) * PADDING, value);
+    }
+
+    public long get() {
+        long sum = 0;
+        for (int i = 0; i < cells.length(); i += PADDING) {
+            sum += cells.get(i);
+        }
+        return sum;
+    }
+
+    public void reset() {
+        for (int i = 0; i < cells.length(); i += PADDING) {
+            cells.set(i, 0);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.fuzz.datacontroller.paging;
+
+import com.fuzz.datacontroller.source.DataSource;
+import com.fuzz.datacontroller.source.KeyedMemoryDataSource;
+
+/**
+ * Description: Identifies one page of a larger result set. The page number is kept in {@link #index}, so
+ * sources keyed by index, i.e. with {@link KeyedMemoryDataSource#indexKeyExtractor()}, cache each page
+ * separately. Cursor-based APIs get the cursor handed out with the previous page.
+ */
+public class PageParams extends DataSource.SourceParams {
+
+    /**
+     * The amount of items requested per page.
+     */
+    public final int pageSize;
+
+    /**
+     * The opaque cursor to load this page with, null for the first page or index-based APIs.
+     */
+    public final String cursor;
+
+    public PageParams(int page, int pageSize, String cursor) {
+        if (page < 0) {
+            throw new IllegalArgumentException("Page must not be negative: " + page);
+        }
+        this.index = page;
+        this.pageSize = pageSize;
+        this.cursor = cursor;
+    }
+
+    public PageParams(int page, int pageSize) {
+        this(page, pageSize, null);
+    }
+
+    public int getPage() {
+        return index;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!super.equals(o)) {
+            return false;
+        }
+        PageParams that = (PageParams) o;
+        return pageSize == that.pageSize && (cursor != null ? cursor.equals(that.cursor) : that.cursor == null);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = super.hashCode();
+        result = 31 * result + pageSize;
+        result = 31 * result + (cursor != null ? cursor.hashCode() : 0);
+        return result;
+    }
+}
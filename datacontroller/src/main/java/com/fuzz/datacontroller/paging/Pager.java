@@ -0,0 +1,319 @@
+package com.fuzz.datacontroller.paging;
+
+import com.fuzz.datacontroller.DataController;
+import com.fuzz.datacontroller.DataControllerRequest;
+import com.fuzz.datacontroller.DataControllerResponse;
+import com.fuzz.datacontroller.DataResponseError;
+import com.fuzz.datacontroller.source.DataSource;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Description: Pages through a large result set with a {@link DataController}, one {@link PageParams} request
+ * per page. Consuming a page prefetches the next few pages, and pages that fall too far behind or ahead of the
+ * current one are cleared from the {@link DataSource.SourceType#MEMORY} sources, so memory follows the visible
+ * window rather than the dataset while slower tiers keep them for going back.
+ * Requests go through {@link DataController#requestDataAsync(DataSource.SourceParams)}, so the controller
+ * needs an executor, and its sources should key stored data by page.
+ */
+public class Pager<TResponse> {
+
+    /**
+     * Description: Reads the cursor to the next page from a loaded page.
+     */
+    public interface CursorExtractor<TResponse> {
+
+        /**
+         * @return The cursor for the page after this one, or null if this is the last page. Index-based
+         * APIs can return any non-null value while more pages remain.
+         */
+        String getNextCursor(PageParams pageParams, TResponse page);
+    }
+
+    private final DataController<TResponse> dataController;
+    private final int pageSize;
+    private final int prefetchDistance;
+    private final int retainDistance;
+    private final CursorExtractor<TResponse> cursorExtractor;
+
+    // guarded by this. the cursor needed to load each page, kept for evicted pages to reload them.
+    private final Map<Integer, String> cursors = new HashMap<>();
+    private final TreeMap<Integer, PageRequest<TResponse>> requests = new TreeMap<>();
+    // guarded by this. pages evicted while loading, their call may still store them for other requests.
+    private final Set<PageParams> evictedLoadingPages = new HashSet<>();
+    private int currentPage = -1;
+    private int lastPage = Integer.MAX_VALUE;
+
+    /**
+     * Clears pages evicted while loading once their call has stored them. Registered with the controller
+     * only while such pages exist.
+     */
+    private final DataController.DataControllerCallback<TResponse> evictedPageCallback
+            = new DataController.DataControllerCallback<TResponse>() {
+        @Override
+        public void onSuccess(DataControllerResponse<TResponse> response) {
+            DataSource.SourceParams sourceParams = response != null ? response.getSourceParams() : null;
+            if (!(sourceParams instanceof PageParams)) {
+                return;
+            }
+            boolean isEvicted;
+            synchronized (Pager.this) {
+                isEvicted = removeEvictedLoadingPage((PageParams) sourceParams);
+            }
+            if (isEvicted) {
+                clear((PageParams) sourceParams);
+            }
+        }
+
+        @Override
+        public void onFailure(DataResponseError dataResponseError) {
+        }
+    };
+
+    /**
+     * @param pageSize         The amount of items per page.
+     * @param prefetchDistance The amount of pages after the current one to load ahead.
+     * @param retainDistance   The amount of pages on either side of the current one to keep stored. Must be
+     *                         at least the prefetch distance.
+     * @param cursorExtractor  Determines the cursor to each next page and where the data ends.
+     */
+    public Pager(DataController<TResponse> dataController, int pageSize, int prefetchDistance, int retainDistance,
+                 CursorExtractor<TResponse> cursorExtractor) {
+        if (prefetchDistance < 0 || retainDistance < prefetchDistance) {
+            throw new IllegalArgumentException("Retain distance " + retainDistance
+                    + " must be at least the prefetch distance " + prefetchDistance);
+        }
+        this.dataController = dataController;
+        this.pageSize = pageSize;
+        this.prefetchDistance = prefetchDistance;
+        this.retainDistance = retainDistance;
+        this.cursorExtractor = cursorExtractor;
+    }
+
+    /**
+     * Makes the page the current one, requesting it unless it is already loaded or loading, then prefetches
+     * ahead and evicts pages outside the retained window. Evicted pages still loading are cancelled.
+     *
+     * @throws IllegalStateException if the cursor to the page is not known yet, i.e. the page before it has
+     *                               not been loaded.
+     */
+    public DataControllerRequest<TResponse> getPage(int page) {
+        List<PageRequest<TResponse>> evictedRequests;
+        synchronized (this) {
+            if (page < 0 || page > lastPage) {
+                throw new IllegalArgumentException("Page " + page + " is out of range, the last page is " + lastPage);
+            }
+            if (page > 0 && !requests.containsKey(page) && !cursors.containsKey(page)) {
+                throw new IllegalStateException("The cursor to page " + page + " is not known yet. Load page "
+                        + (page - 1) + " first.");
+            }
+            currentPage = page;
+            evictedRequests = evict();
+        }
+        release(evictedRequests);
+        // cursors are never forgotten, so the page can be requested.
+        DataControllerRequest<TResponse> request = request(page);
+        prefetch();
+        return request;
+    }
+
+    /**
+     * @return The page last passed to {@link #getPage(int)}, or -1 if none.
+     */
+    public synchronized int getCurrentPage() {
+        return currentPage;
+    }
+
+    /**
+     * @return The last page, or {@link Integer#MAX_VALUE} if the end has not been reached yet.
+     */
+    public synchronized int getLastPage() {
+        return lastPage;
+    }
+
+    /**
+     * @return The pages currently loaded or loading.
+     */
+    public synchronized Set<Integer> getRetainedPages() {
+        return new TreeSet<>(requests.keySet());
+    }
+
+    /**
+     * Requests the page through the controller outside the lock, since sources may run on the calling thread.
+     *
+     * @return The request of the page, or null if its cursor is not known yet.
+     */
+    private DataControllerRequest<TResponse> request(int page) {
+        final PageParams pageParams;
+        synchronized (this) {
+            PageRequest<TResponse> pageRequest = requests.get(page);
+            if (pageRequest != null) {
+                return pageRequest.request;
+            }
+            if (page > 0 && !cursors.containsKey(page)) {
+                return null;
+            }
+            pageParams = new PageParams(page, pageSize, cursors.get(page));
+            // back in the window, a call still running for the page may store it.
+            removeEvictedLoadingPage(pageParams);
+        }
+        final DataControllerRequest<TResponse> request = dataController.requestDataAsync(pageParams);
+        PageRequest<TResponse> existing;
+        synchronized (this) {
+            existing = requests.get(page);
+            if (existing == null) {
+                requests.put(page, new PageRequest<>(pageParams, request));
+            }
+        }
+        if (existing != null) {
+            // requested by another thread in the meantime.
+            request.cancel();
+            return existing.request;
+        }
+        request.addCallback(new DataController.DataControllerCallback<TResponse>() {
+            @Override
+            public void onSuccess(DataControllerResponse<TResponse> response) {
+                onPageLoaded(pageParams, request, response);
+            }
+
+            @Override
+            public void onFailure(DataResponseError dataResponseError) {
+                onPageFailed(pageParams, request);
+            }
+        });
+        return request;
+    }
+
+    private void onPageLoaded(PageParams pageParams, DataControllerRequest<TResponse> request,
+                              DataControllerResponse<TResponse> response) {
+        synchronized (this) {
+            if (response == null || !response.hasResponse()) {
+                // nothing to page from, allow a retry.
+                removeRequest(pageParams.getPage(), request);
+                return;
+            }
+            String nextCursor = cursorExtractor.getNextCursor(pageParams, response.getResponse());
+            if (nextCursor == null) {
+                lastPage = Math.min(lastPage, pageParams.getPage());
+            } else {
+                cursors.put(pageParams.getPage() + 1, nextCursor);
+            }
+        }
+        prefetch();
+    }
+
+    private synchronized void onPageFailed(PageParams pageParams, DataControllerRequest<TResponse> request) {
+        removeRequest(pageParams.getPage(), request);
+    }
+
+    /**
+     * Removes the request only if it is still the page's, a page evicted while loading may be requested again.
+     */
+    private void removeRequest(int page, DataControllerRequest<TResponse> request) {
+        PageRequest<TResponse> pageRequest = requests.get(page);
+        if (pageRequest != null && pageRequest.request == request) {
+            requests.remove(page);
+        }
+    }
+
+    /**
+     * Requests pages ahead of the current one whose cursor is known. Each page loaded continues the prefetch.
+     */
+    private void prefetch() {
+        int start;
+        int end;
+        synchronized (this) {
+            if (currentPage < 0) {
+                return;
+            }
+            start = currentPage + 1;
+            end = (int) Math.min((long) currentPage + prefetchDistance, lastPage);
+        }
+        for (int page = start; page <= end; page++) {
+            if (request(page) == null) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * @return The requests of the pages dropped from the retained window.
+     */
+    private List<PageRequest<TResponse>> evict() {
+        List<PageRequest<TResponse>> evictedRequests = new ArrayList<>();
+        Iterator<Map.Entry<Integer, PageRequest<TResponse>>> iterator = requests.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Integer, PageRequest<TResponse>> entry = iterator.next();
+            if (Math.abs(entry.getKey() - currentPage) > retainDistance) {
+                iterator.remove();
+                evictedRequests.add(entry.getValue());
+            }
+        }
+        return evictedRequests;
+    }
+
+    /**
+     * Cancels the evicted requests and clears their pages. A cancelled call still stores its page when other
+     * requests wait on it, so pages still loading are cleared again once stored.
+     */
+    private void release(List<PageRequest<TResponse>> evictedRequests) {
+        for (int i = 0; i < evictedRequests.size(); i++) {
+            PageRequest<TResponse> pageRequest = evictedRequests.get(i);
+            if (!pageRequest.request.isDone()) {
+                synchronized (this) {
+                    if (evictedLoadingPages.isEmpty()) {
+                        dataController.registerForCallbacks(evictedPageCallback);
+                    }
+                    evictedLoadingPages.add(pageRequest.pageParams);
+                }
+            }
+            if (!pageRequest.request.cancel()) {
+                // already done, its stores are complete.
+                synchronized (this) {
+                    removeEvictedLoadingPage(pageRequest.pageParams);
+                }
+            }
+            clear(pageRequest.pageParams);
+        }
+    }
+
+    /**
+     * @return True if the page was evicted while loading. Guarded by this.
+     */
+    private boolean removeEvictedLoadingPage(PageParams pageParams) {
+        boolean isRemoved = evictedLoadingPages.remove(pageParams);
+        if (isRemoved && evictedLoadingPages.isEmpty()) {
+            dataController.deregisterForCallbacks(evictedPageCallback);
+        }
+        return isRemoved;
+    }
+
+    private void clear(PageParams pageParams) {
+        List<DataSource<TResponse>> sources = dataController.getSources();
+        for (int i = 0; i < sources.size(); i++) {
+            DataSource<TResponse> source = sources.get(i);
+            if (source.getSourceType() == DataSource.SourceType.MEMORY) {
+                source.clearStoredData(pageParams);
+            }
+        }
+    }
+
+    private static final class PageRequest<TResponse> {
+
+        final PageParams pageParams;
+        final DataControllerRequest<TResponse> request;
+
+        PageRequest(PageParams pageParams, DataControllerRequest<TResponse> request) {
+            this.pageParams = pageParams;
+            this.request = request;
+        }
+    }
+}
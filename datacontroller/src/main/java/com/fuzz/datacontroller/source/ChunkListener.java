@@ -0,0 +1,30 @@
+package com.fuzz.datacontroller.source;
+
+import com.fuzz.datacontroller.DataResponseError;
+
+import java.util.List;
+
+/**
+ * Description: Receives a list response as a sequence of chunks. Calls arrive in order: {@link #onBegin},
+ * any amount of {@link #onChunk(List)}, then either {@link #onEnd()} or {@link #onFailure(DataResponseError)}.
+ */
+public interface ChunkListener<TItem> {
+
+    /**
+     * @param sourceType   The type of source the chunks come from.
+     * @param sourceParams The params the response belongs to.
+     */
+    void onBegin(DataSource.SourceType sourceType, DataSource.SourceParams sourceParams);
+
+    /**
+     * @param chunk The next items of the response. Only valid during the call, copy it to keep it.
+     */
+    void onChunk(List<TItem> chunk);
+
+    void onEnd();
+
+    /**
+     * Called instead of {@link #onEnd()} when the response breaks off, possibly after some chunks.
+     */
+    void onFailure(DataResponseError dataResponseError);
+}
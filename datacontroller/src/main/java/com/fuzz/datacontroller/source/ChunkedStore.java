@@ -0,0 +1,15 @@
+package com.fuzz.datacontroller.source;
+
+/**
+ * Description: Implemented by list sources that can store a streamed response chunk by chunk instead of
+ * waiting for the whole list, i.e. by writing each chunk in its own transaction.
+ */
+public interface ChunkedStore<TItem> {
+
+    /**
+     * @param sourceParams The params the streamed response belongs to.
+     * @return A listener that stores each chunk it receives. What happens to chunks stored before a
+     * {@link ChunkListener#onFailure} is up to the store, i.e. rolling them back or keeping them.
+     */
+    ChunkListener<TItem> beginStore(DataSource.SourceParams sourceParams);
+}
@@ -0,0 +1,412 @@
+package com.fuzz.datacontroller.source;
+
+import com.fuzz.datacontroller.DataController;
+import com.fuzz.datacontroller.DataControllerResponse;
+import com.fuzz.datacontroller.DataResponseError;
+import com.fuzz.datacontroller.metrics.LatencyHistogram;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Description: Stops calling a failing source for a while. Outcomes of the latest calls are kept in a window,
+ * and when the share of transient failures in it, as told by the {@link ErrorClassifier}, passes a threshold
+ * the circuit opens. While open, calls fail fast with a {@link CircuitOpenError} or are served the stored data
+ * of the source, marked stale. After the open time a single probe call is let through, closing the circuit on
+ * success and opening it again on failure. Calls time out after a multiple of the observed p99 latency,
+ * bounded by a minimum and maximum, and a timeout counts as a failure. A timed out call is cancelled with
+ * {@link DataSource#cancel(SourceParams)}, so sources should implement it to stop the call early.
+ */
+public class CircuitBreakerDataSource<TResponse> extends DataSource<TResponse> {
+
+    public enum State {
+
+        /**
+         * Calls pass through and their outcomes are recorded.
+         */
+        CLOSED,
+
+        /**
+         * Calls are rejected until the open time passes.
+         */
+        OPEN,
+
+        /**
+         * A single probe call is let through to decide whether to close.
+         */
+        HALF_OPEN
+    }
+
+    /**
+     * Description: The error calls fail with while the circuit is open and no stored data is available.
+     */
+    public static class CircuitOpenError extends DataResponseError {
+
+        public CircuitOpenError(String message) {
+            super(message);
+        }
+    }
+
+    private static final int MIN_LATENCY_SAMPLES = 20;
+    private static final int TIMEOUT_UPDATE_INTERVAL = 16;
+    private static final int LATENCY_SAMPLE_WINDOW = 1024;
+    private static final int TIMEOUT_MULTIPLIER = 2;
+
+    private final DataSource<TResponse> dataSource;
+    private final ErrorClassifier errorClassifier;
+    private final int minimumCalls;
+    private final float failureRateThreshold;
+    private final long openNanos;
+    private final boolean isFallbackToStoredData;
+    private final ScheduledExecutorService timeoutScheduler;
+    private final long minTimeoutNanos;
+    private final long maxTimeoutNanos;
+
+    private final Object lock = new Object();
+    // guarded by lock. ring of the latest outcomes, true for failures.
+    private final boolean[] outcomes;
+    private int outcomeIndex;
+    private int outcomeCount;
+    private int failureCount;
+    private State state = State.CLOSED;
+    private long openedAt;
+    private boolean isProbeInFlight;
+
+    private final LatencyHistogram latencyHistogram = new LatencyHistogram();
+    private volatile long timeoutNanos;
+
+    private final Set<Call> calls = Collections.newSetFromMap(new ConcurrentHashMap<Call, Boolean>());
+    private final AtomicLong openCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+
+    /**
+     * @param dataSource             The source to protect.
+     * @param errorClassifier        Decides which errors count as failures.
+     * @param windowSize             The amount of latest calls the failure rate is computed over.
+     * @param minimumCalls           The amount of calls needed in the window before the circuit can open.
+     * @param failureRateThreshold   The fraction of failures in the window, between 0 and 1, that opens the circuit.
+     * @param openTime               The time in milliseconds the circuit stays open before probing.
+     * @param isFallbackToStoredData Whether to serve stored data of the source while open.
+     * @param timeoutScheduler       Times out calls. Null disables timeouts.
+     * @param minTimeout             The lower bound of the adaptive timeout in milliseconds.
+     * @param maxTimeout             The upper bound of the adaptive timeout in milliseconds, used until enough
+     *                               latencies are observed.
+     */
+    public CircuitBreakerDataSource(DataSource<TResponse> dataSource, ErrorClassifier errorClassifier,
+                                    int windowSize, int minimumCalls, float failureRateThreshold, long openTime,
+                                    boolean isFallbackToStoredData, ScheduledExecutorService timeoutScheduler,
+                                    long minTimeout, long maxTimeout) {
+        super(dataSource.getRefreshStrategy());
+        if (minimumCalls < 1 || minimumCalls > windowSize) {
+            throw new IllegalArgumentException("Minimum calls must be between 1 and the window size " + windowSize
+                    + ": " + minimumCalls);
+        }
+        if (failureRateThreshold <= 0 || failureRateThreshold > 1) {
+            throw new IllegalArgumentException("Failure rate threshold must be between 0 and 1: " + failureRateThreshold);
+        }
+        if (minTimeout > maxTimeout) {
+            throw new IllegalArgumentException("Min timeout " + minTimeout + " exceeds max timeout " + maxTimeout);
+        }
+        this.dataSource = dataSource;
+        this.errorClassifier = errorClassifier;
+        this.outcomes = new boolean[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openTime);
+        this.isFallbackToStoredData = isFallbackToStoredData;
+        this.timeoutScheduler = timeoutScheduler;
+        this.minTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(minTimeout);
+        this.maxTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(maxTimeout);
+        this.timeoutNanos = maxTimeoutNanos;
+    }
+
+    /**
+     * Opens when half of the latest 20 calls failed, for 30 seconds, and falls back to stored data. Calls time
+     * out between 100 milliseconds and 10 seconds.
+     */
+    public CircuitBreakerDataSource(DataSource<TResponse> dataSource, ScheduledExecutorService timeoutScheduler) {
+        this(dataSource, ErrorClassifier.DEFAULT, 20, 10, 0.5f, 30000, true, timeoutScheduler, 100, 10000);
+    }
+
+    @Override
+    protected void doGet(SourceParams sourceParams, DataController.Success<TResponse> success,
+                         DataController.Error error) {
+        boolean isProbe = false;
+        boolean isRejected = false;
+        synchronized (lock) {
+            if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+                state = State.HALF_OPEN;
+            }
+            if (state == State.OPEN || (state == State.HALF_OPEN && isProbeInFlight)) {
+                isRejected = true;
+            } else if (state == State.HALF_OPEN) {
+                isProbe = true;
+                isProbeInFlight = true;
+            }
+        }
+        if (isRejected) {
+            rejectedCount.incrementAndGet();
+            reject(sourceParams, success, error);
+        } else {
+            new Call(sourceParams, success, error, isProbe).start();
+        }
+    }
+
+    private void reject(SourceParams sourceParams, DataController.Success<TResponse> success,
+                        DataController.Error error) {
+        TResponse storedData = isFallbackToStoredData ? dataSource.getStoredData(sourceParams) : null;
+        if (storedData != null) {
+            // stale so it is not stored back into other sources as fresh.
+            success.onSuccess(new DataControllerResponse<>(storedData, getSourceType(), null, sourceParams, true));
+        } else {
+            error.onFailure(new CircuitOpenError("Circuit is open for " + getSourceType() + " source."));
+        }
+    }
+
+    /**
+     * Description: A single call through the breaker. Exactly one of success, failure, timeout or
+     * cancellation finishes it.
+     */
+    private final class Call implements Runnable {
+
+        private final SourceParams sourceParams;
+        private final DataController.Success<TResponse> success;
+        private final DataController.Error error;
+        private final boolean isProbe;
+        private final AtomicBoolean isDone = new AtomicBoolean();
+        private final long startTime = System.nanoTime();
+        private volatile ScheduledFuture<?> timeoutFuture;
+
+        Call(SourceParams sourceParams, DataController.Success<TResponse> success, DataController.Error error,
+             boolean isProbe) {
+            this.sourceParams = sourceParams;
+            this.success = success;
+            this.error = error;
+            this.isProbe = isProbe;
+        }
+
+        void start() {
+            calls.add(this);
+            if (timeoutScheduler != null) {
+                timeoutFuture = timeoutScheduler.schedule(this, timeoutNanos, TimeUnit.NANOSECONDS);
+            }
+            dataSource.doGet(sourceParams, new DataController.Success<TResponse>() {
+                @Override
+                public void onSuccess(DataControllerResponse<TResponse> response) {
+                    if (finish()) {
+                        recordLatency(System.nanoTime() - startTime);
+                        onOutcome(false, isProbe);
+                        success.onSuccess(response);
+                    }
+                }
+            }, new DataController.Error() {
+                @Override
+                public void onFailure(DataResponseError dataResponseError) {
+                    if (finish()) {
+                        onOutcome(errorClassifier.isTransient(dataResponseError), isProbe);
+                        error.onFailure(dataResponseError);
+                    }
+                }
+            });
+        }
+
+        /**
+         * Times out the call.
+         */
+        @Override
+        public void run() {
+            if (!isDone.compareAndSet(false, true)) {
+                return;
+            }
+            calls.remove(this);
+            timeoutCount.incrementAndGet();
+            // only this call, cancelling the whole source would cut other calls in flight short as well.
+            dataSource.cancel(sourceParams);
+            onOutcome(true, isProbe);
+            DataResponseError timeoutError = new DataResponseError(new TimeoutException("Call to "
+                    + getSourceType() + " source timed out after "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) + " ms."));
+            timeoutError.setNetworkError(true);
+            error.onFailure(timeoutError);
+        }
+
+        private boolean finish() {
+            if (!isDone.compareAndSet(false, true)) {
+                return false;
+            }
+            calls.remove(this);
+            ScheduledFuture<?> timeoutFuture = this.timeoutFuture;
+            if (timeoutFuture != null) {
+                timeoutFuture.cancel(false);
+            }
+            return true;
+        }
+
+        /**
+         * Drops the call without counting an outcome, its callbacks are not invoked.
+         */
+        void abandon() {
+            if (finish() && isProbe) {
+                synchronized (lock) {
+                    isProbeInFlight = false;
+                }
+            }
+        }
+    }
+
+    private void onOutcome(boolean isFailure, boolean isProbe) {
+        synchronized (lock) {
+            if (isProbe) {
+                isProbeInFlight = false;
+                if (state == State.HALF_OPEN) {
+                    if (isFailure) {
+                        open();
+                    } else {
+                        state = State.CLOSED;
+                        resetWindow();
+                    }
+                }
+                return;
+            }
+            if (state != State.CLOSED) {
+                // started before the circuit opened.
+                return;
+            }
+            if (outcomeCount == outcomes.length) {
+                if (outcomes[outcomeIndex]) {
+                    failureCount--;
+                }
+            } else {
+                outcomeCount++;
+            }
+            outcomes[outcomeIndex] = isFailure;
+            if (isFailure) {
+                failureCount++;
+            }
+            outcomeIndex = (outcomeIndex + 1) % outcomes.length;
+            if (outcomeCount >= minimumCalls && failureCount >= failureRateThreshold * outcomeCount) {
+                open();
+            }
+        }
+    }
+
+    /**
+     * Called with the lock held.
+     */
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+        openCount.incrementAndGet();
+        resetWindow();
+    }
+
+    private void resetWindow() {
+        outcomeIndex = 0;
+        outcomeCount = 0;
+        failureCount = 0;
+    }
+
+    private void recordLatency(long latencyNanos) {
+        latencyHistogram.record(latencyNanos);
+        long count = latencyHistogram.getCount();
+        if (count >= MIN_LATENCY_SAMPLES && count % TIMEOUT_UPDATE_INTERVAL == 0) {
+            long timeout = TIMEOUT_MULTIPLIER * latencyHistogram.getValueAtPercentile(99);
+            timeoutNanos = Math.max(minTimeoutNanos, Math.min(maxTimeoutNanos, timeout));
+            if (count >= LATENCY_SAMPLE_WINDOW) {
+                latencyHistogram.reset();
+            }
+        }
+    }
+
+    @Override
+    protected void doStore(DataControllerResponse<TResponse> dataControllerResponse) {
+        dataSource.doStore(dataControllerResponse);
+    }
+
+    @Override
+    public TResponse getStoredData(SourceParams sourceParams) {
+        return dataSource.getStoredData(sourceParams);
+    }
+
+    @Override
+    public StoredDataMetadata getStoredDataMetadata(SourceParams sourceParams) {
+        return dataSource.getStoredDataMetadata(sourceParams);
+    }
+
+    @Override
+    public void clearStoredData(SourceParams sourceParams) {
+        dataSource.clearStoredData(sourceParams);
+    }
+
+    @Override
+    public void cancel() {
+        for (Call call : calls) {
+            call.abandon();
+        }
+        dataSource.cancel();
+    }
+
+    /**
+     * Cancelled calls do not count as failures, so cancelling never opens the circuit.
+     */
+    @Override
+    public void cancel(SourceParams sourceParams) {
+        for (Call call : calls) {
+            if (sourceParams != null ? sourceParams.equals(call.sourceParams) : call.sourceParams == null) {
+                call.abandon();
+            }
+        }
+        dataSource.cancel(sourceParams);
+    }
+
+    @Override
+    public SourceType getSourceType() {
+        return dataSource.getSourceType();
+    }
+
+    public DataSource<TResponse> getDataSource() {
+        return dataSource;
+    }
+
+    public State getState() {
+        synchronized (lock) {
+            if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+                return State.HALF_OPEN;
+            }
+            return state;
+        }
+    }
+
+    /**
+     * @return The current per-call timeout in nanoseconds.
+     */
+    public long getTimeoutNanos() {
+        return timeoutNanos;
+    }
+
+    /**
+     * @return The amount of times the circuit opened.
+     */
+    public long getOpenCount() {
+        return openCount.get();
+    }
+
+    /**
+     * @return The amount of calls rejected while open, whether or not stored data was served.
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount.get();
+    }
+}
@@ -2,6 +2,8 @@ package com.fuzz.datacontroller.source;
 
 import com.fuzz.datacontroller.DataController;
 import com.fuzz.datacontroller.DataControllerResponse;
+import com.fuzz.datacontroller.DataResponseError;
+import com.fuzz.datacontroller.metrics.Instrumentation;
 
 /**
  * Description: Provides a source of where information comes from.
@@ -38,6 +40,30 @@ public abstract class DataSource<TResponse> {
          * Data in this class.
          */
         public Object data;
+
+        /**
+         * Two params are equal when they are of the same class and share index and data. This is what
+         * allows concurrent requests to be coalesced into one. Subclasses that add fields should
+         * override this and {@link #hashCode()}.
+         */
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            SourceParams that = (SourceParams) o;
+            return index == that.index && (data != null ? data.equals(that.data) : that.data == null);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = index;
+            result = 31 * result + (data != null ? data.hashCode() : 0);
+            return result;
+        }
     }
 
     /**
@@ -57,6 +83,8 @@ public abstract class DataSource<TResponse> {
 
     private final RefreshStrategy<TResponse> refreshStrategy;
 
+    private volatile Instrumentation instrumentation = Instrumentation.NONE;
+
     public DataSource(RefreshStrategy<TResponse> refreshStrategy) {
         this.refreshStrategy = refreshStrategy;
     }
@@ -75,6 +103,18 @@ public abstract class DataSource<TResponse> {
         return refreshStrategy;
     }
 
+    /**
+     * @param instrumentation Receives get, store and lookup measurements of this source. Sources that hold
+     *                        stored data should report lookups via {@link Instrumentation#onStoredDataLookup(DataSource, boolean)}.
+     */
+    public void setInstrumentation(Instrumentation instrumentation) {
+        this.instrumentation = instrumentation;
+    }
+
+    public Instrumentation getInstrumentation() {
+        return instrumentation;
+    }
+
     /**
      * Queries this {@link DataSource} for data stored. This potentially can be expensive since
      * if this is a {@link SourceType#DISK}, it will perform an IO operation on the calling thread.
@@ -95,11 +135,24 @@ public abstract class DataSource<TResponse> {
     }
 
     /**
-     * @return true if stored data exists. this is determined by nullability. Override for other kinds
-     * of checks.
+     * Describes the data stored for the params without loading it. By default this falls back to
+     * {@link #getStoredData(SourceParams)}, which is a full read. Sources that can answer cheaply, i.e. from
+     * an index they keep up to date in {@link #doStore(DataControllerResponse)} and
+     * {@link #clearStoredData(SourceParams)}, should override this.
+     */
+    public StoredDataMetadata getStoredDataMetadata(SourceParams sourceParams) {
+        TResponse storedData = getStoredData(sourceParams);
+        return storedData != null
+                ? new StoredDataMetadata(true, StoredDataMetadata.sizeOf(storedData), 0, 0)
+                : StoredDataMetadata.NONE;
+    }
+
+    /**
+     * @return true if stored data exists for the default params, as told by
+     * {@link #getStoredDataMetadata(SourceParams)}. Override for other kinds of checks.
      */
     public boolean hasStoredData() {
-        return getStoredData() != null;
+        return getStoredDataMetadata(new SourceParams()).exists();
     }
 
     /**
@@ -118,7 +171,14 @@ public abstract class DataSource<TResponse> {
      */
     public final void store(DataControllerResponse<TResponse> tResponse) {
         if (!tResponse.getSourceType().equals(getSourceType())) {
-            doStore(tResponse);
+            Instrumentation instrumentation = this.instrumentation;
+            if (instrumentation == Instrumentation.NONE) {
+                doStore(tResponse);
+            } else {
+                long startTime = System.nanoTime();
+                doStore(tResponse);
+                instrumentation.onStore(this, System.nanoTime() - startTime);
+            }
         }
     }
 
@@ -127,16 +187,46 @@ public abstract class DataSource<TResponse> {
      * respects the {@link RefreshStrategy} set in the constructor of this source.
      * It is explicitly up to the source on what kinds of parameters it can handle or expect. The expectation
      * is that if no params returned or it is a default instance, all data should be returned.
+     * Responses that do not carry {@link DataControllerResponse#getSourceParams()} get the params
+     * attached here, so stores further down the line know which key they belong to.
      *
      * @param sourceParams The params used to retrieve information from the {@link DataSource}.
      * @param success      Called when a successful request returns.
      * @param error        Called when a request fails.
+     * @return True if {@link #doGet(SourceParams, DataController.Success, DataController.Error)} was called,
+     * false if the {@link RefreshStrategy} declined and no callback will be invoked.
      */
-    public final void get(SourceParams sourceParams, DataController.Success<TResponse> success,
-                          DataController.Error error) {
+    public final boolean get(final SourceParams sourceParams, final DataController.Success<TResponse> success,
+                             final DataController.Error error) {
+        final Instrumentation instrumentation = this.instrumentation;
+        final boolean isInstrumented = instrumentation != Instrumentation.NONE;
         if (getRefreshStrategy().shouldRefresh(this)) {
-            doGet(sourceParams, success, error);
+            final long startTime = isInstrumented ? System.nanoTime() : 0;
+            doGet(sourceParams, new DataController.Success<TResponse>() {
+                @Override
+                public void onSuccess(DataControllerResponse<TResponse> response) {
+                    if (isInstrumented) {
+                        instrumentation.onGet(DataSource.this, System.nanoTime() - startTime, true);
+                    }
+                    if (response != null && response.getSourceParams() == null && sourceParams != null) {
+                        response = new DataControllerResponse<>(response.getResponse(), response.getSourceType(),
+                                response.getOriginalUrl(), sourceParams, response.isStale());
+                    }
+                    success.onSuccess(response);
+                }
+            }, !isInstrumented ? error : new DataController.Error() {
+                @Override
+                public void onFailure(DataResponseError dataResponseError) {
+                    instrumentation.onGet(DataSource.this, System.nanoTime() - startTime, false);
+                    error.onFailure(dataResponseError);
+                }
+            });
+            return true;
+        }
+        if (isInstrumented) {
+            instrumentation.onRefreshDeclined(this);
         }
+        return false;
     }
 
     /**
@@ -144,10 +234,22 @@ public abstract class DataSource<TResponse> {
      */
     public abstract void cancel();
 
+    /**
+     * Attempts to cancel only the pending operations started with params equal to the specified ones, leaving
+     * other calls running. Called when every request waiting on a call has been cancelled. By default nothing
+     * is cancelled, the call runs to completion and its result is dropped. Override for sources whose calls
+     * can be cancelled one by one.
+     */
+    public void cancel(SourceParams sourceParams) {
+    }
+
     /**
      * Perform the actual information retrieval here. This might call a network, database, or file-based system.
      * Anything that is IO should be done on a separate thread. It is also up to the {@link DataSource}
-     * to ensure that both success and error are properly called.
+     * to ensure that both success and error are properly called. Success may be called more than once, i.e.
+     * with a stored value followed by a refresh. Through a {@link DataController} the first result completes
+     * the {@link com.fuzz.datacontroller.DataControllerRequest}, later ones are still stored and delivered
+     * to registered callbacks.
      *
      * @param sourceParams The params used to retrieve information from the {@link DataSource}.
      * @param success      Called when a successful request returns.
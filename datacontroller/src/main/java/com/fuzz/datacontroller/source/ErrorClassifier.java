@@ -0,0 +1,31 @@
+package com.fuzz.datacontroller.source;
+
+import com.fuzz.datacontroller.DataResponseError;
+
+import java.io.IOException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Description: Tells transient failures of a source, such as network errors and server errors, apart from
+ * errors that would happen again on the same request.
+ */
+public interface ErrorClassifier {
+
+    /**
+     * Network errors, timeouts, IO failures, 5xx and 429 status codes are transient.
+     */
+    ErrorClassifier DEFAULT = new ErrorClassifier() {
+        @Override
+        public boolean isTransient(DataResponseError dataResponseError) {
+            long statusCode = dataResponseError.getStatusCode();
+            Throwable throwable = dataResponseError.getThrowable();
+            return dataResponseError.isNetworkError() || statusCode >= 500 || statusCode == 429
+                    || throwable instanceof IOException || throwable instanceof TimeoutException;
+        }
+    };
+
+    /**
+     * @return True if the error points at the source or its backend being unhealthy rather than at the request.
+     */
+    boolean isTransient(DataResponseError dataResponseError);
+}
@@ -0,0 +1,326 @@
+package com.fuzz.datacontroller.source;
+
+import com.fuzz.datacontroller.DataController;
+import com.fuzz.datacontroller.DataControllerResponse;
+import com.fuzz.datacontroller.DataResponseError;
+import com.fuzz.datacontroller.metrics.LatencyHistogram;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Description: Cuts the tail latency of a slow source by hedging. When the primary source has not answered
+ * within a threshold, the same request is sent to a second source and the first success wins. The threshold
+ * adapts to a percentile of the primary's observed latency, and hedges are drawn from a {@link RetryBudget}
+ * so they stay a fraction of recent requests and a burst is bounded by its reserve. The hedge source should
+ * be a separate instance of the same kind of source. The loser is cancelled with
+ * {@link DataSource#cancel(SourceParams)}, so sources should implement it to stop the call early. Only the
+ * primary feeds the threshold; a primary that loses counts with the time it took so far, a lower bound, so
+ * its slow calls are not dropped from the percentile.
+ */
+public class HedgingDataSource<TResponse> extends DataSource<TResponse> {
+
+    // samples needed before the observed percentile replaces the initial delay.
+    private static final int MIN_SAMPLES = 20;
+    private static final int THRESHOLD_UPDATE_INTERVAL = 16;
+    // samples after which the latency history starts over, so the threshold follows the source.
+    private static final int SAMPLE_WINDOW = 1024;
+
+    private final DataSource<TResponse> primary;
+    private final DataSource<TResponse> hedge;
+    private final ScheduledExecutorService scheduler;
+    private final double percentile;
+    private final RetryBudget hedgeBudget;
+
+    private final LatencyHistogram latencyHistogram = new LatencyHistogram();
+    private volatile long thresholdNanos;
+
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong hedgeCount = new AtomicLong();
+    private final AtomicLong hedgeWinCount = new AtomicLong();
+
+    /**
+     * @param primary      The source every request goes to first.
+     * @param hedge        The source the hedged request goes to.
+     * @param scheduler    Issues the hedged requests.
+     * @param percentile   The percentile of the primary's latency, between 0 and 100, after which to hedge.
+     * @param initialDelay The time in milliseconds after which to hedge until enough latencies are observed.
+     * @param hedgeBudget  Withdrawn from for each hedge and deposited into for each request. It may be shared
+     *                     with other sources to cap their extra load together.
+     */
+    public HedgingDataSource(DataSource<TResponse> primary, DataSource<TResponse> hedge,
+                             ScheduledExecutorService scheduler, double percentile, long initialDelay,
+                             RetryBudget hedgeBudget) {
+        super(primary.getRefreshStrategy());
+        if (primary == hedge) {
+            throw new IllegalArgumentException("The hedge must be a separate instance from the primary.");
+        }
+        if (percentile <= 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        this.primary = primary;
+        this.hedge = hedge;
+        this.scheduler = scheduler;
+        this.percentile = percentile;
+        this.hedgeBudget = hedgeBudget;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(initialDelay);
+    }
+
+    /**
+     * @param maxHedgeRate The maximum fraction of requests that may be hedged, between 0 and 1. At most one
+     *                     hedge is saved up, so idle periods do not allow a burst of hedges.
+     */
+    public HedgingDataSource(DataSource<TResponse> primary, DataSource<TResponse> hedge,
+                             ScheduledExecutorService scheduler, double percentile, long initialDelay,
+                             float maxHedgeRate) {
+        this(primary, hedge, scheduler, percentile, initialDelay,
+                new RetryBudget(maxHedgeRate, maxHedgeRate > 0 ? 1 : 0));
+    }
+
+    /**
+     * Hedges after the p95 latency, at most 5% of requests, with 100 ms until the p95 is known.
+     */
+    public HedgingDataSource(DataSource<TResponse> primary, DataSource<TResponse> hedge,
+                             ScheduledExecutorService scheduler) {
+        this(primary, hedge, scheduler, 95, 100, 0.05f);
+    }
+
+    @Override
+    protected void doGet(SourceParams sourceParams, DataController.Success<TResponse> success,
+                         DataController.Error error) {
+        requestCount.incrementAndGet();
+        hedgeBudget.onRequest();
+        HedgedCall call = new HedgedCall(sourceParams, success, error);
+        call.start();
+    }
+
+    /**
+     * Description: The state of one request across the primary and the hedge. Transitions happen under its lock.
+     */
+    private final class HedgedCall implements Runnable {
+
+        private final SourceParams sourceParams;
+        private final DataController.Success<TResponse> success;
+        private final DataController.Error error;
+        private final long startTime = System.nanoTime();
+
+        private ScheduledFuture<?> hedgeFuture;
+        private boolean isDone;
+        // whether each request is still counted as in flight on its source.
+        private boolean isPrimaryPending;
+        private boolean isHedgePending;
+
+        HedgedCall(SourceParams sourceParams, DataController.Success<TResponse> success,
+                   DataController.Error error) {
+            this.sourceParams = sourceParams;
+            this.success = success;
+            this.error = error;
+        }
+
+        void start() {
+            synchronized (this) {
+                isPrimaryPending = true;
+                hedgeFuture = scheduler.schedule(this, thresholdNanos, TimeUnit.NANOSECONDS);
+            }
+            primary.doGet(sourceParams, new DataController.Success<TResponse>() {
+                @Override
+                public void onSuccess(DataControllerResponse<TResponse> response) {
+                    onSuccessFrom(primary, response);
+                }
+            }, new DataController.Error() {
+                @Override
+                public void onFailure(DataResponseError dataResponseError) {
+                    onFailureFrom(primary, dataResponseError);
+                }
+            });
+        }
+
+        /**
+         * Issues the hedged request once the threshold passed.
+         */
+        @Override
+        public void run() {
+            synchronized (this) {
+                if (isDone || !hedgeBudget.tryRetry()) {
+                    return;
+                }
+                hedgeCount.incrementAndGet();
+                isHedgePending = true;
+            }
+            hedge.doGet(sourceParams, new DataController.Success<TResponse>() {
+                @Override
+                public void onSuccess(DataControllerResponse<TResponse> response) {
+                    onSuccessFrom(hedge, response);
+                }
+            }, new DataController.Error() {
+                @Override
+                public void onFailure(DataResponseError dataResponseError) {
+                    onFailureFrom(hedge, dataResponseError);
+                }
+            });
+        }
+
+        private void onSuccessFrom(DataSource<TResponse> source, DataControllerResponse<TResponse> response) {
+            boolean isPrimaryCompletion;
+            boolean isPrimaryLoss;
+            boolean shouldCancelLoser;
+            synchronized (this) {
+                if (isDone) {
+                    return;
+                }
+                isDone = true;
+                isPrimaryCompletion = source == primary && isPrimaryPending;
+                isPrimaryLoss = source == hedge && isPrimaryPending;
+                finish(source);
+                shouldCancelLoser = source == hedge ? isPrimaryPending : isHedgePending;
+                finish(source == hedge ? primary : hedge);
+                if (hedgeFuture != null) {
+                    hedgeFuture.cancel(false);
+                }
+            }
+            if (isPrimaryCompletion || isPrimaryLoss) {
+                // the primary's latency is at least the time it took so far.
+                recordLatency(System.nanoTime() - startTime);
+            }
+            if (!isPrimaryCompletion) {
+                hedgeWinCount.incrementAndGet();
+            }
+            if (shouldCancelLoser) {
+                (source == hedge ? primary : hedge).cancel(sourceParams);
+            }
+            success.onSuccess(response);
+        }
+
+        private void onFailureFrom(DataSource<TResponse> source, DataResponseError dataResponseError) {
+            boolean isPrimaryCompletion;
+            boolean isFailed;
+            synchronized (this) {
+                if (isDone) {
+                    return;
+                }
+                isPrimaryCompletion = source == primary && isPrimaryPending;
+                finish(source);
+                // the other request may still succeed.
+                isFailed = !isPrimaryPending && !isHedgePending;
+                if (isFailed) {
+                    isDone = true;
+                    if (hedgeFuture != null) {
+                        hedgeFuture.cancel(false);
+                    }
+                }
+            }
+            if (isPrimaryCompletion) {
+                recordLatency(System.nanoTime() - startTime);
+            }
+            if (isFailed) {
+                error.onFailure(dataResponseError);
+            }
+        }
+
+        /**
+         * Marks the request on the source as no longer in flight. Called with the lock held.
+         */
+        private void finish(DataSource<TResponse> source) {
+            if (source == hedge) {
+                isHedgePending = false;
+            } else {
+                isPrimaryPending = false;
+            }
+        }
+    }
+
+    private void recordLatency(long latencyNanos) {
+        latencyHistogram.record(latencyNanos);
+        long count = latencyHistogram.getCount();
+        if (count >= MIN_SAMPLES && count % THRESHOLD_UPDATE_INTERVAL == 0) {
+            thresholdNanos = latencyHistogram.getValueAtPercentile(percentile);
+            if (count >= SAMPLE_WINDOW) {
+                latencyHistogram.reset();
+            }
+        }
+    }
+
+    @Override
+    protected void doStore(DataControllerResponse<TResponse> dataControllerResponse) {
+        primary.doStore(dataControllerResponse);
+    }
+
+    @Override
+    public TResponse getStoredData(SourceParams sourceParams) {
+        return primary.getStoredData(sourceParams);
+    }
+
+    @Override
+    public StoredDataMetadata getStoredDataMetadata(SourceParams sourceParams) {
+        return primary.getStoredDataMetadata(sourceParams);
+    }
+
+    @Override
+    public void clearStoredData(SourceParams sourceParams) {
+        primary.clearStoredData(sourceParams);
+    }
+
+    @Override
+    public void cancel() {
+        primary.cancel();
+        hedge.cancel();
+    }
+
+    @Override
+    public void cancel(SourceParams sourceParams) {
+        primary.cancel(sourceParams);
+        hedge.cancel(sourceParams);
+    }
+
+    @Override
+    public SourceType getSourceType() {
+        return primary.getSourceType();
+    }
+
+    public DataSource<TResponse> getPrimary() {
+        return primary;
+    }
+
+    public DataSource<TResponse> getHedge() {
+        return hedge;
+    }
+
+    /**
+     * @return The latencies of the primary, which the threshold is derived from. Calls it lost are included
+     * with the time they took until the hedge won. It starts over periodically.
+     */
+    public LatencyHistogram getPrimaryLatency() {
+        return latencyHistogram;
+    }
+
+    /**
+     * @return The current delay in nanoseconds after which requests are hedged.
+     */
+    public long getThresholdNanos() {
+        return thresholdNanos;
+    }
+
+    public RetryBudget getHedgeBudget() {
+        return hedgeBudget;
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * @return The amount of hedged requests sent.
+     */
+    public long getHedgeCount() {
+        return hedgeCount.get();
+    }
+
+    /**
+     * @return The amount of hedged requests that answered before the primary.
+     */
+    public long getHedgeWinCount() {
+        return hedgeWinCount.get();
+    }
+}
@@ -0,0 +1,402 @@
+package com.fuzz.datacontroller.source;
+
+import com.fuzz.datacontroller.DataController;
+import com.fuzz.datacontroller.DataControllerResponse;
+import com.fuzz.datacontroller.metrics.Instrumentation;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Description: Memory based source that keeps one entry per key, where the key is extracted from the
+ * {@link SourceParams} of a request or a stored {@link DataControllerResponse}. Entries are bounded by
+ * count or by total weight. The storage is split into independently locked segments, so concurrent
+ * readers and writers on different keys do not contend. The bound applies to all segments together: a
+ * store over the bound evicts least-recently-used entries of its own segment first, then of the others.
+ */
+public class KeyedMemoryDataSource<TKey, TResponse> extends DataSource<TResponse> {
+
+    /**
+     * Description: Determines the storage key for a set of {@link SourceParams}.
+     */
+    public interface KeyExtractor<TKey> {
+
+        /**
+         * @param sourceParams The params of a request or of a stored response. Never null.
+         * @return The key to store under. May be null.
+         */
+        TKey getKey(SourceParams sourceParams);
+    }
+
+    /**
+     * Description: Determines the weight of a stored response, i.e. its approximate size.
+     */
+    public interface Weigher<TResponse> {
+
+        /**
+         * @return A non-negative weight for the response.
+         */
+        int weigh(TResponse response);
+    }
+
+    /**
+     * Description: Notified of entries evicted to make room, i.e. to demote them to a slower source rather than
+     * drop them. Not called for entries that are cleared or replaced.
+     */
+    public interface EvictionListener<TResponse> {
+
+        /**
+         * Called on the storing thread, outside of any lock.
+         *
+         * @param evicted The evicted data as a {@link SourceType#MEMORY} response with the params it was stored with.
+         */
+        void onEvicted(DataControllerResponse<TResponse> evicted);
+    }
+
+    /**
+     * @return Keys by {@link SourceParams#index}.
+     */
+    public static KeyExtractor<Integer> indexKeyExtractor() {
+        return new KeyExtractor<Integer>() {
+            @Override
+            public Integer getKey(SourceParams sourceParams) {
+                return sourceParams.index;
+            }
+        };
+    }
+
+    /**
+     * @return Keys by {@link SourceParams#data}.
+     */
+    public static KeyExtractor<Object> dataKeyExtractor() {
+        return new KeyExtractor<Object>() {
+            @Override
+            public Object getKey(SourceParams sourceParams) {
+                return sourceParams.data;
+            }
+        };
+    }
+
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 4;
+
+    private final KeyExtractor<TKey> keyExtractor;
+    private final Weigher<TResponse> weigher;
+    private final long maxWeight;
+    private final Segment<TKey, TResponse>[] segments;
+    private final int segmentMask;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final AtomicLong totalWeight = new AtomicLong();
+
+    private volatile EvictionListener<TResponse> evictionListener;
+
+    /**
+     * @param refreshStrategy  The strategy to use.
+     * @param keyExtractor     Determines the key for each request.
+     * @param maxWeight        The maximum total weight stored before evicting.
+     * @param weigher          Weighs each entry.
+     * @param concurrencyLevel The expected amount of concurrently writing threads. Determines the amount of segments.
+     */
+    public KeyedMemoryDataSource(RefreshStrategy<TResponse> refreshStrategy, KeyExtractor<TKey> keyExtractor,
+                                 long maxWeight, Weigher<TResponse> weigher, int concurrencyLevel) {
+        super(refreshStrategy);
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("Max weight must be positive: " + maxWeight);
+        }
+        this.keyExtractor = keyExtractor;
+        this.weigher = weigher;
+        this.maxWeight = maxWeight;
+
+        int segmentCount = 1;
+        while (segmentCount < concurrencyLevel) {
+            segmentCount <<= 1;
+        }
+        segmentMask = segmentCount - 1;
+        @SuppressWarnings("unchecked")
+        Segment<TKey, TResponse>[] segments = (Segment<TKey, TResponse>[]) new Segment<?, ?>[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>();
+        }
+        this.segments = segments;
+    }
+
+    public KeyedMemoryDataSource(KeyExtractor<TKey> keyExtractor, long maxWeight, Weigher<TResponse> weigher) {
+        this(new RefreshStrategy<TResponse>() {
+            @Override
+            public boolean shouldRefresh(DataSource<TResponse> dataSource) {
+                return true;
+            }
+        }, keyExtractor, maxWeight, weigher, DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * Bounds the amount of entries rather than the weight.
+     */
+    public KeyedMemoryDataSource(KeyExtractor<TKey> keyExtractor, int maxEntries) {
+        this(keyExtractor, maxEntries, new Weigher<TResponse>() {
+            @Override
+            public int weigh(TResponse response) {
+                return 1;
+            }
+        });
+    }
+
+    @Override
+    protected void doGet(SourceParams sourceParams, DataController.Success<TResponse> success, DataController.Error error) {
+        success.onSuccess(new DataControllerResponse<>(getStoredData(sourceParams), getSourceType(),
+                null, sourceParams));
+    }
+
+    @Override
+    protected void doStore(DataControllerResponse<TResponse> dataControllerResponse) {
+        TKey key = getKey(dataControllerResponse.getSourceParams());
+        TResponse response = dataControllerResponse.getResponse();
+        int index = segmentIndex(key);
+        Segment<TKey, TResponse> segment = segments[index];
+        if (response == null) {
+            totalWeight.addAndGet(-segment.remove(key));
+            return;
+        }
+
+        Segment.Entry<TResponse> entry = new Segment.Entry<>(response, weigher.weigh(response),
+                StoredDataMetadata.stored(StoredDataMetadata.sizeOf(response)),
+                dataControllerResponse.getSourceParams());
+        EvictionListener<TResponse> evictionListener = this.evictionListener;
+        if (entry.weight > maxWeight) {
+            // would never fit, do not flush everything for it. The previous value is outdated, so it goes too.
+            totalWeight.addAndGet(-segment.remove(key));
+            if (evictionListener != null) {
+                evictionListener.onEvicted(entry.toResponse());
+            }
+            return;
+        }
+        totalWeight.addAndGet(segment.put(key, entry));
+
+        List<DataControllerResponse<TResponse>> evicted = evictionListener != null
+                ? new ArrayList<DataControllerResponse<TResponse>>() : null;
+        // own segment first, keeping the entry just stored, then the others one lock at a time.
+        evict(segment, 1, evicted);
+        for (int i = 1; i < segments.length && totalWeight.get() > maxWeight; i++) {
+            evict(segments[(index + i) & segmentMask], 0, evicted);
+        }
+        if (evicted != null) {
+            for (DataControllerResponse<TResponse> evictedResponse : evicted) {
+                evictionListener.onEvicted(evictedResponse);
+            }
+        }
+    }
+
+    private void evict(Segment<TKey, TResponse> segment, int keepCount,
+                       List<DataControllerResponse<TResponse>> evicted) {
+        while (totalWeight.get() > maxWeight) {
+            Segment.Entry<TResponse> eldest = segment.evictEldest(keepCount);
+            if (eldest == null) {
+                return;
+            }
+            totalWeight.addAndGet(-eldest.weight);
+            evictionCount.incrementAndGet();
+            if (evicted != null) {
+                evicted.add(eldest.toResponse());
+            }
+        }
+    }
+
+    @Override
+    public TResponse getStoredData(SourceParams sourceParams) {
+        TKey key = getKey(sourceParams);
+        TResponse response = segmentFor(key).get(key);
+        if (response != null) {
+            hitCount.incrementAndGet();
+        } else {
+            missCount.incrementAndGet();
+        }
+        Instrumentation instrumentation = getInstrumentation();
+        if (instrumentation != Instrumentation.NONE) {
+            instrumentation.onStoredDataLookup(this, response != null);
+        }
+        return response;
+    }
+
+    /**
+     * Answered from the entry without counting a hit or a miss. Like a get, it counts as an access for eviction.
+     */
+    @Override
+    public StoredDataMetadata getStoredDataMetadata(SourceParams sourceParams) {
+        TKey key = getKey(sourceParams);
+        return segmentFor(key).getMetadata(key);
+    }
+
+    @Override
+    public void clearStoredData(SourceParams sourceParams) {
+        TKey key = getKey(sourceParams);
+        totalWeight.addAndGet(-segmentFor(key).remove(key));
+    }
+
+    /**
+     * Clears every key stored here.
+     */
+    public void clearAll() {
+        for (Segment<TKey, TResponse> segment : segments) {
+            totalWeight.addAndGet(-segment.clear());
+        }
+    }
+
+    @Override
+    public SourceType getSourceType() {
+        return SourceType.MEMORY;
+    }
+
+    @Override
+    public void cancel() {
+    }
+
+    /**
+     * @return The amount of entries currently stored.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<TKey, TResponse> segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * @return The total weight of entries currently stored.
+     */
+    public long weight() {
+        return totalWeight.get();
+    }
+
+    /**
+     * @param evictionListener Receives entries evicted from now on, null to drop them.
+     */
+    public void setEvictionListener(EvictionListener<TResponse> evictionListener) {
+        this.evictionListener = evictionListener;
+    }
+
+    public EvictionListener<TResponse> getEvictionListener() {
+        return evictionListener;
+    }
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    private TKey getKey(SourceParams sourceParams) {
+        return keyExtractor.getKey(sourceParams != null ? sourceParams : new SourceParams());
+    }
+
+    private Segment<TKey, TResponse> segmentFor(TKey key) {
+        return segments[segmentIndex(key)];
+    }
+
+    private int segmentIndex(TKey key) {
+        int h = key != null ? key.hashCode() : 0;
+        // spread bits so keys with poor low bits don't pile into one segment.
+        h ^= (h >>> 16);
+        h *= 0x85ebca6b;
+        h ^= (h >>> 13);
+        return h & segmentMask;
+    }
+
+    /**
+     * Description: An access-ordered partition of the storage guarded by its own lock.
+     */
+    private static final class Segment<TKey, TResponse> {
+
+        private static final class Entry<TResponse> {
+
+            final TResponse response;
+            final int weight;
+            final StoredDataMetadata metadata;
+            final SourceParams sourceParams;
+
+            Entry(TResponse response, int weight, StoredDataMetadata metadata, SourceParams sourceParams) {
+                this.response = response;
+                this.weight = weight;
+                this.metadata = metadata;
+                this.sourceParams = sourceParams;
+            }
+
+            DataControllerResponse<TResponse> toResponse() {
+                return new DataControllerResponse<>(response, SourceType.MEMORY, null, sourceParams);
+            }
+        }
+
+        private final LinkedHashMap<TKey, Entry<TResponse>> map = new LinkedHashMap<>(16, 0.75f, true);
+
+        synchronized TResponse get(TKey key) {
+            Entry<TResponse> entry = map.get(key);
+            return entry != null ? entry.response : null;
+        }
+
+        synchronized StoredDataMetadata getMetadata(TKey key) {
+            Entry<TResponse> entry = map.get(key);
+            return entry != null ? entry.metadata : StoredDataMetadata.NONE;
+        }
+
+        /**
+         * @return The change in weight, i.e. the weight of the entry less the one it replaced.
+         */
+        synchronized long put(TKey key, Entry<TResponse> entry) {
+            Entry<TResponse> previous = map.put(key, entry);
+            return entry.weight - (previous != null ? previous.weight : 0);
+        }
+
+        /**
+         * @param keepCount The amount of most recently used entries that are never evicted.
+         * @return The least recently used entry, now removed, or null if no more than the kept ones are left.
+         */
+        synchronized Entry<TResponse> evictEldest(int keepCount) {
+            if (map.size() <= keepCount) {
+                return null;
+            }
+            Iterator<Entry<TResponse>> iterator = map.values().iterator();
+            Entry<TResponse> eldest = iterator.next();
+            iterator.remove();
+            return eldest;
+        }
+
+        /**
+         * @return The weight removed.
+         */
+        synchronized long remove(TKey key) {
+            Entry<TResponse> previous = map.remove(key);
+            return previous != null ? previous.weight : 0;
+        }
+
+        /**
+         * @return The weight removed.
+         */
+        synchronized long clear() {
+            long weight = 0;
+            for (Entry<TResponse> entry : map.values()) {
+                weight += entry.weight;
+            }
+            map.clear();
+            return weight;
+        }
+
+        synchronized int size() {
+            return map.size();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.fuzz.datacontroller.source;
+
+import com.fuzz.datacontroller.DataController;
+import com.fuzz.datacontroller.DataControllerResponse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Description: Maps each element of a list response to another type. Lists longer than the split threshold
+ * are split in halves until each part is at most the threshold and the parts are mapped in parallel on a
+ * {@link ForkJoinPool}, shorter lists are mapped sequentially on the calling thread. Element order is kept
+ * both ways, on gets with {@link MappingDataSource.Mapper#mapFrom(Object)} and on stores with
+ * {@link MappingDataSource.Mapper#mapTo(Object)}.
+ */
+public class ListMappingDataSource<TFromItem, TItem> extends DataSource<List<TItem>> {
+
+    private static final int DEFAULT_SPLIT_THRESHOLD = 1024;
+
+    /**
+     * Description: Created on first use, since most processes never map a list large enough to need it.
+     */
+    private static final class DefaultPoolHolder {
+        static final ForkJoinPool POOL = new ForkJoinPool();
+    }
+
+    private final DataSource<List<TFromItem>> fromDataSource;
+    private final MappingDataSource.Mapper<TFromItem, TItem> mapper;
+    private final ForkJoinPool pool;
+    private final int splitThreshold;
+
+    /**
+     * @param pool           Maps the parts of large lists.
+     * @param splitThreshold The most elements mapped sequentially, and the size of the parts large lists are
+     *                       split into.
+     */
+    public ListMappingDataSource(DataSource<List<TFromItem>> fromDataSource,
+                                 MappingDataSource.Mapper<TFromItem, TItem> mapper, ForkJoinPool pool,
+                                 int splitThreshold) {
+        if (splitThreshold < 1) {
+            throw new IllegalArgumentException("Split threshold must be at least 1: " + splitThreshold);
+        }
+        this.fromDataSource = fromDataSource;
+        this.mapper = mapper;
+        this.pool = pool;
+        this.splitThreshold = splitThreshold;
+    }
+
+    /**
+     * Splits lists longer than 1024 elements on a pool shared by all instances, sized to the processors.
+     */
+    public ListMappingDataSource(DataSource<List<TFromItem>> fromDataSource,
+                                 MappingDataSource.Mapper<TFromItem, TItem> mapper) {
+        this(fromDataSource, mapper, DefaultPoolHolder.POOL, DEFAULT_SPLIT_THRESHOLD);
+    }
+
+    @Override
+    protected void doGet(final SourceParams sourceParams, final DataController.Success<List<TItem>> success,
+                         DataController.Error error) {
+        fromDataSource.doGet(sourceParams, new DataController.Success<List<TFromItem>>() {
+            @Override
+            public void onSuccess(DataControllerResponse<List<TFromItem>> response) {
+                success.onSuccess(new DataControllerResponse<>(mapFrom(response.getResponse()),
+                        response.getSourceType(), response.getOriginalUrl(), sourceParams, response.isStale()));
+            }
+        }, error);
+    }
+
+    @Override
+    protected void doStore(DataControllerResponse<List<TItem>> response) {
+        fromDataSource.doStore(new DataControllerResponse<>(mapTo(response.getResponse()),
+                response.getSourceType(), response.getOriginalUrl(), response.getSourceParams()));
+    }
+
+    /**
+     * Maps the elements with {@link MappingDataSource.Mapper#mapFrom(Object)}, in parallel when large.
+     */
+    public List<TItem> mapFrom(List<TFromItem> fromItems) {
+        return map(fromItems, true);
+    }
+
+    /**
+     * Maps the elements with {@link MappingDataSource.Mapper#mapTo(Object)}, in parallel when large.
+     */
+    public List<TFromItem> mapTo(List<TItem> items) {
+        return map(items, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <A, B> List<B> map(List<A> input, boolean isMapFrom) {
+        if (input == null) {
+            return null;
+        }
+        int size = input.size();
+        Object[] output = new Object[size];
+        // random access lets the parts index straight into the list.
+        List<A> source = input instanceof RandomAccess ? input : new ArrayList<>(input);
+        MapTask task = new MapTask(source, output, 0, size, isMapFrom);
+        if (size <= splitThreshold) {
+            task.compute();
+        } else {
+            pool.invoke(task);
+        }
+        return new ArrayList<B>((List<B>) Arrays.asList(output));
+    }
+
+    /**
+     * Description: Maps a range of the input into the same range of the output.
+     */
+    private final class MapTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<?> input;
+        private final Object[] output;
+        private final int start;
+        private final int end;
+        private final boolean isMapFrom;
+
+        MapTask(List<?> input, Object[] output, int start, int end, boolean isMapFrom) {
+            this.input = input;
+            this.output = output;
+            this.start = start;
+            this.end = end;
+            this.isMapFrom = isMapFrom;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected void compute() {
+            if (end - start <= splitThreshold) {
+                for (int i = start; i < end; i++) {
+                    Object element = input.get(i);
+                    output[i] = isMapFrom ? mapper.mapFrom((TFromItem) element) : mapper.mapTo((TItem) element);
+                }
+            } else {
+                int middle = (start + end) >>> 1;
+                invokeAll(new MapTask(input, output, start, middle, isMapFrom),
+                        new MapTask(input, output, middle, end, isMapFrom));
+            }
+        }
+    }
+
+    @Override
+    public void clearStoredData(SourceParams sourceParams) {
+        fromDataSource.clearStoredData(sourceParams);
+    }
+
+    @Override
+    public void cancel() {
+        fromDataSource.cancel();
+    }
+
+    @Override
+    public void cancel(SourceParams sourceParams) {
+        fromDataSource.cancel(sourceParams);
+    }
+
+    @Override
+    public SourceType getSourceType() {
+        return fromDataSource.getSourceType();
+    }
+
+    public DataSource<List<TFromItem>> getFromDataSource() {
+        return fromDataSource;
+    }
+
+    public MappingDataSource.Mapper<TFromItem, TItem> getMapper() {
+        return mapper;
+    }
+
+    public int getSplitThreshold() {
+        return splitThreshold;
+    }
+}
@@ -0,0 +1,652 @@
+package com.fuzz.datacontroller.source;
+
+import com.fuzz.datacontroller.DataController;
+import com.fuzz.datacontroller.DataControllerResponse;
+import com.fuzz.datacontroller.codec.Codec;
+import com.fuzz.datacontroller.metrics.Instrumentation;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Description: Disk based source that appends every stored response to a log of memory-mapped segment files
+ * and keeps an in-memory index from key to the latest record. Each record is checked with a CRC, so on reopen
+ * the log is replayed up to the first torn or corrupt record. Reads decode straight from the mapped region.
+ * Segments whose records are mostly overwritten or cleared are compacted in the background, copying their live
+ * records forward and deleting the file. The tombstone of a cleared key counts as live until the key is stored
+ * again or a compaction finds no older segment holding it, so segments of tombstones are not compacted over
+ * and over. Keys for which the {@link KeyedMemoryDataSource.KeyExtractor} returns
+ * null are not stored.
+ */
+public class MappedLogDataSource<TKey, TResponse> extends DataSource<TResponse> implements Closeable {
+
+    // [crc][key length][value length][key][value]
+    private static final int HEADER_SIZE = 12;
+    private static final int TOMBSTONE = -1;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private static final class Segment {
+
+        final int id;
+        final File file;
+        final MappedByteBuffer buffer;
+
+        // guarded by the write lock. Includes tombstones.
+        int writePosition;
+        long liveBytes;
+        boolean isCompacting;
+
+        Segment(int id, File file, MappedByteBuffer buffer) {
+            this.id = id;
+            this.file = file;
+            this.buffer = buffer;
+        }
+    }
+
+    private static final class Location {
+
+        final Segment segment;
+        final int offset;
+        final int keyLength;
+        final int valueLength;
+
+        Location(Segment segment, int offset, int keyLength, int valueLength) {
+            this.segment = segment;
+            this.offset = offset;
+            this.keyLength = keyLength;
+            this.valueLength = valueLength;
+        }
+
+        int size() {
+            return HEADER_SIZE + keyLength + valueLength;
+        }
+    }
+
+    private final File directory;
+    private final KeyedMemoryDataSource.KeyExtractor<TKey> keyExtractor;
+    private final Codec<TKey> keyCodec;
+    private final Codec<TResponse> codec;
+    private final int segmentSize;
+    private final float compactionThreshold;
+    private final Executor compactionExecutor;
+    private final boolean ownsExecutor;
+
+    private final ConcurrentMap<TKey, Location> index = new ConcurrentHashMap<>();
+    // the latest tombstone of each cleared key, guarded by the write lock.
+    private final Map<TKey, Location> tombstones = new HashMap<>();
+    private final Object writeLock = new Object();
+    private final List<Segment> segments = new ArrayList<>();
+    private Segment activeSegment;
+    // guarded by the write lock.
+    private final byte[] crcScratch = new byte[4096];
+
+    private final AtomicLong compactionCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    /**
+     * @param refreshStrategy     The strategy to use.
+     * @param directory           The directory holding the segment files. Created if missing.
+     * @param keyExtractor        Determines the key for each request.
+     * @param keyCodec            Serializes the keys. Every key must encode to at least one byte.
+     * @param codec               Serializes the responses.
+     * @param segmentSize         The size in bytes each segment file is preallocated to. Bounds the record size.
+     * @param compactionThreshold Fraction between 0 and 1 of dead bytes at which a full segment is compacted.
+     * @param compactionExecutor  Runs compactions.
+     */
+    public MappedLogDataSource(RefreshStrategy<TResponse> refreshStrategy, File directory,
+                               KeyedMemoryDataSource.KeyExtractor<TKey> keyExtractor, Codec<TKey> keyCodec,
+                               Codec<TResponse> codec, int segmentSize, float compactionThreshold,
+                               Executor compactionExecutor) throws IOException {
+        this(refreshStrategy, directory, keyExtractor, keyCodec, codec, segmentSize, compactionThreshold,
+                compactionExecutor, false);
+    }
+
+    /**
+     * Compacts segments that are half dead on its own daemon thread, which is stopped by {@link #close()}.
+     */
+    public MappedLogDataSource(File directory, KeyedMemoryDataSource.KeyExtractor<TKey> keyExtractor,
+                               Codec<TKey> keyCodec, Codec<TResponse> codec, int segmentSize) throws IOException {
+        this(new RefreshStrategy<TResponse>() {
+            @Override
+            public boolean shouldRefresh(DataSource<TResponse> dataSource) {
+                return true;
+            }
+        }, directory, keyExtractor, keyCodec, codec, segmentSize, 0.5f,
+                Executors.newSingleThreadExecutor(new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "MappedLogDataSource");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                }), true);
+    }
+
+    private MappedLogDataSource(RefreshStrategy<TResponse> refreshStrategy, File directory,
+                                KeyedMemoryDataSource.KeyExtractor<TKey> keyExtractor, Codec<TKey> keyCodec,
+                                Codec<TResponse> codec, int segmentSize, float compactionThreshold,
+                                Executor compactionExecutor, boolean ownsExecutor) throws IOException {
+        super(refreshStrategy);
+        if (segmentSize <= HEADER_SIZE) {
+            throw new IllegalArgumentException("Segment size must be larger than " + HEADER_SIZE + ": " + segmentSize);
+        }
+        if (compactionThreshold <= 0 || compactionThreshold > 1) {
+            throw new IllegalArgumentException("Compaction threshold must be between 0 and 1: " + compactionThreshold);
+        }
+        this.directory = directory;
+        this.keyExtractor = keyExtractor;
+        this.keyCodec = keyCodec;
+        this.codec = codec;
+        this.segmentSize = segmentSize;
+        this.compactionThreshold = compactionThreshold;
+        this.compactionExecutor = compactionExecutor;
+        this.ownsExecutor = ownsExecutor;
+        open();
+    }
+
+    @Override
+    protected void doGet(SourceParams sourceParams, DataController.Success<TResponse> success,
+                         DataController.Error error) {
+        success.onSuccess(new DataControllerResponse<>(getStoredData(sourceParams), getSourceType(),
+                null, sourceParams));
+    }
+
+    @Override
+    protected void doStore(DataControllerResponse<TResponse> dataControllerResponse) {
+        TKey key = getKey(dataControllerResponse.getSourceParams());
+        if (key != null) {
+            try {
+                write(key, dataControllerResponse.getResponse());
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    @Override
+    public TResponse getStoredData(SourceParams sourceParams) {
+        TKey key = getKey(sourceParams);
+        Location location = key != null ? index.get(key) : null;
+        TResponse response = null;
+        if (location != null) {
+            // a compacted segment stays mapped until collected, so the location remains readable.
+            ByteBuffer buffer = location.segment.buffer.duplicate();
+            buffer.limit(location.offset + location.size());
+            buffer.position(location.offset + HEADER_SIZE + location.keyLength);
+            response = codec.decode(buffer);
+        }
+        Instrumentation instrumentation = getInstrumentation();
+        if (instrumentation != Instrumentation.NONE) {
+            instrumentation.onStoredDataLookup(this, response != null);
+        }
+        return response;
+    }
+
+    /**
+     * Answered from the in-memory index. The size and store time are not kept in the log.
+     */
+    @Override
+    public StoredDataMetadata getStoredDataMetadata(SourceParams sourceParams) {
+        TKey key = getKey(sourceParams);
+        return key != null && index.containsKey(key)
+                ? new StoredDataMetadata(true, StoredDataMetadata.UNKNOWN_SIZE, 0, 0)
+                : StoredDataMetadata.NONE;
+    }
+
+    @Override
+    public boolean hasStoredData() {
+        return !index.isEmpty();
+    }
+
+    @Override
+    public void clearStoredData(SourceParams sourceParams) {
+        TKey key = getKey(sourceParams);
+        if (key != null) {
+            try {
+                write(key, null);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    @Override
+    public SourceType getSourceType() {
+        return SourceType.DISK;
+    }
+
+    @Override
+    public void cancel() {
+    }
+
+    /**
+     * Forces written records of the active segment to the storage device.
+     */
+    public void sync() {
+        synchronized (writeLock) {
+            activeSegment.buffer.force();
+        }
+    }
+
+    /**
+     * Syncs the log and stops the owned compaction thread.
+     */
+    @Override
+    public void close() {
+        synchronized (writeLock) {
+            for (int i = 0; i < segments.size(); i++) {
+                segments.get(i).buffer.force();
+            }
+        }
+        if (ownsExecutor) {
+            ((ExecutorService) compactionExecutor).shutdown();
+        }
+    }
+
+    /**
+     * Compacts every full segment past the compaction threshold on the calling thread.
+     */
+    public void compact() throws IOException {
+        synchronized (writeLock) {
+            List<Segment> candidates = new ArrayList<>(segments);
+            for (int i = 0; i < candidates.size(); i++) {
+                Segment segment = candidates.get(i);
+                if (isCompactable(segment)) {
+                    compact(segment);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The amount of keys stored.
+     */
+    public int size() {
+        return index.size();
+    }
+
+    public int getSegmentCount() {
+        synchronized (writeLock) {
+            return segments.size();
+        }
+    }
+
+    public long getCompactionCount() {
+        return compactionCount.get();
+    }
+
+    /**
+     * @return The amount of responses not stored because their record exceeds the segment size.
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    private TKey getKey(SourceParams sourceParams) {
+        return keyExtractor.getKey(sourceParams != null ? sourceParams : new SourceParams());
+    }
+
+    private void open() throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create directory " + directory);
+        }
+        File[] files = directory.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return segmentId(name) >= 0;
+            }
+        });
+        if (files == null) {
+            throw new IOException("Could not list directory " + directory);
+        }
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File lhs, File rhs) {
+                int lhsId = segmentId(lhs.getName());
+                int rhsId = segmentId(rhs.getName());
+                return lhsId < rhsId ? -1 : (lhsId == rhsId ? 0 : 1);
+            }
+        });
+        synchronized (writeLock) {
+            for (File file : files) {
+                Segment segment = mapSegment(segmentId(file.getName()), file);
+                replay(segment);
+                segments.add(segment);
+            }
+            if (segments.isEmpty()) {
+                activeSegment = newSegment(0);
+            } else {
+                activeSegment = segments.get(segments.size() - 1);
+                clearTail(activeSegment);
+            }
+            for (int i = 0; i < segments.size(); i++) {
+                scheduleCompactionIfNeeded(segments.get(i));
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the index from the records of a segment, stopping at the first record that fails its check.
+     */
+    private void replay(Segment segment) {
+        ByteBuffer buffer = segment.buffer.duplicate();
+        int capacity = buffer.capacity();
+        int position = 0;
+        while (position + HEADER_SIZE <= capacity) {
+            int keyLength = buffer.getInt(position + 4);
+            int valueLength = buffer.getInt(position + 8);
+            if (keyLength <= 0 || valueLength < TOMBSTONE) {
+                break;
+            }
+            long size = (long) HEADER_SIZE + keyLength + Math.max(valueLength, 0);
+            if (position + size > capacity
+                    || crc(buffer, position + 4, (int) size - 4) != buffer.getInt(position)) {
+                break;
+            }
+            TKey key = decodeKey(buffer, position, keyLength);
+            track(key, new Location(segment, position, keyLength, Math.max(valueLength, 0)),
+                    valueLength == TOMBSTONE);
+            position += size;
+        }
+        segment.writePosition = position;
+    }
+
+    /**
+     * Zeroes a torn tail left by a crash, so stale bytes behind new records are never replayed.
+     */
+    private void clearTail(Segment segment) {
+        ByteBuffer buffer = segment.buffer.duplicate();
+        int position = segment.writePosition;
+        if (position + HEADER_SIZE <= buffer.capacity()
+                && buffer.getLong(position) == 0 && buffer.getInt(position + 8) == 0) {
+            return;
+        }
+        for (; position < buffer.capacity(); position++) {
+            buffer.put(position, (byte) 0);
+        }
+    }
+
+    private void write(TKey key, TResponse response) throws IOException {
+        int keyLength = keyCodec.sizeOf(key);
+        if (keyLength <= 0) {
+            throw new IllegalArgumentException("Key must encode to at least one byte: " + key);
+        }
+        int valueLength = response != null ? codec.sizeOf(response) : TOMBSTONE;
+        long size = (long) HEADER_SIZE + keyLength + Math.max(valueLength, 0);
+        if (size > segmentSize) {
+            rejectedCount.incrementAndGet();
+            if (index.containsKey(key)) {
+                // the stale value would be served otherwise.
+                write(key, null);
+            }
+            return;
+        }
+        synchronized (writeLock) {
+            if (valueLength == TOMBSTONE && !index.containsKey(key)) {
+                return;
+            }
+            if (activeSegment.writePosition + size > activeSegment.buffer.capacity()) {
+                roll();
+            }
+            Segment segment = activeSegment;
+            int offset = segment.writePosition;
+            ByteBuffer buffer = segment.buffer.duplicate();
+            buffer.position(offset + 4);
+            buffer.putInt(keyLength);
+            buffer.putInt(valueLength);
+            buffer.limit(offset + HEADER_SIZE + keyLength);
+            keyCodec.encode(key, buffer);
+            if (valueLength > 0) {
+                buffer.limit(offset + (int) size);
+                codec.encode(response, buffer);
+            }
+            if (buffer.position() != offset + size) {
+                throw new IllegalStateException("Codec wrote " + (buffer.position() - offset)
+                        + " bytes for a record of " + size);
+            }
+            buffer.putInt(offset, crc(buffer, offset + 4, (int) size - 4));
+            segment.writePosition += size;
+
+            Location previous = track(key, new Location(segment, offset, keyLength, Math.max(valueLength, 0)),
+                    valueLength == TOMBSTONE);
+            if (previous != null) {
+                scheduleCompactionIfNeeded(previous.segment);
+            }
+        }
+    }
+
+    /**
+     * Points the key at its newest record and moves the live bytes over from the record it replaces, which may
+     * be a tombstone that is no longer needed since the key is stored again. Called with the write lock held.
+     *
+     * @return The replaced record, or null.
+     */
+    private Location track(TKey key, Location location, boolean isTombstone) {
+        location.segment.liveBytes += location.size();
+        Location previous;
+        Location previousTombstone;
+        if (isTombstone) {
+            previous = index.remove(key);
+            previousTombstone = tombstones.put(key, location);
+        } else {
+            previous = index.put(key, location);
+            previousTombstone = tombstones.remove(key);
+        }
+        // a key has either a record or a tombstone.
+        if (previous == null) {
+            previous = previousTombstone;
+        }
+        if (previous != null) {
+            previous.segment.liveBytes -= previous.size();
+        }
+        return previous;
+    }
+
+    /**
+     * Seals the active segment and starts a new one. Called with the write lock held.
+     */
+    private void roll() throws IOException {
+        Segment sealed = activeSegment;
+        sealed.buffer.force();
+        activeSegment = newSegment(sealed.id + 1);
+        scheduleCompactionIfNeeded(sealed);
+    }
+
+    private boolean isCompactable(Segment segment) {
+        return segment != activeSegment && !segment.isCompacting && segment.writePosition > 0
+                && segment.writePosition - segment.liveBytes >= compactionThreshold * segment.writePosition;
+    }
+
+    private void scheduleCompactionIfNeeded(final Segment segment) {
+        if (!isCompactable(segment)) {
+            return;
+        }
+        segment.isCompacting = true;
+        try {
+            compactionExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    synchronized (writeLock) {
+                        try {
+                            compact(segment);
+                        } catch (IOException e) {
+                            // left in place, retried on the next trigger.
+                            segment.isCompacting = false;
+                        }
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // closed, compacted on next open.
+            segment.isCompacting = false;
+        }
+    }
+
+    /**
+     * Copies the live records of a sealed segment into the active one and deletes it. Called with the write
+     * lock held.
+     */
+    private void compact(Segment segment) throws IOException {
+        if (!segments.contains(segment)) {
+            return;
+        }
+        // tombstones only matter while an older segment still holds the key, found on the first one.
+        Set<TKey> olderKeys = null;
+        ByteBuffer buffer = segment.buffer.duplicate();
+        int position = 0;
+        while (position < segment.writePosition) {
+            int keyLength = buffer.getInt(position + 4);
+            int valueLength = buffer.getInt(position + 8);
+            int size = HEADER_SIZE + keyLength + Math.max(valueLength, 0);
+            TKey key = decodeKey(buffer, position, keyLength);
+            if (valueLength == TOMBSTONE) {
+                Location tombstone = tombstones.get(key);
+                if (tombstone != null && tombstone.segment == segment && tombstone.offset == position) {
+                    if (olderKeys == null) {
+                        olderKeys = keysBefore(segment);
+                    }
+                    if (olderKeys.contains(key)) {
+                        int offset = copyRecord(buffer, position, size);
+                        Segment target = activeSegment;
+                        tombstones.put(key, new Location(target, offset, keyLength, 0));
+                        target.liveBytes += size;
+                    } else {
+                        tombstones.remove(key);
+                    }
+                }
+            } else {
+                Location location = index.get(key);
+                if (location != null && location.segment == segment && location.offset == position) {
+                    int offset = copyRecord(buffer, position, size);
+                    Segment target = activeSegment;
+                    index.put(key, new Location(target, offset, keyLength, valueLength));
+                    target.liveBytes += size;
+                }
+            }
+            position += size;
+        }
+        // copies must be durable before the originals go away.
+        activeSegment.buffer.force();
+        segments.remove(segment);
+        if (!segment.file.delete()) {
+            throw new IOException("Could not delete compacted segment " + segment.file);
+        }
+        compactionCount.incrementAndGet();
+    }
+
+    /**
+     * @return The keys of every record in the segments older than the specified one. Called with the write
+     * lock held.
+     */
+    private Set<TKey> keysBefore(Segment segment) {
+        Set<TKey> keys = new HashSet<>();
+        for (int i = 0; i < segments.size() && segments.get(i) != segment; i++) {
+            Segment older = segments.get(i);
+            ByteBuffer buffer = older.buffer.duplicate();
+            int position = 0;
+            while (position < older.writePosition) {
+                int keyLength = buffer.getInt(position + 4);
+                int valueLength = buffer.getInt(position + 8);
+                keys.add(decodeKey(buffer, position, keyLength));
+                position += HEADER_SIZE + keyLength + Math.max(valueLength, 0);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * @return The offset of the copy within the active segment.
+     */
+    private int copyRecord(ByteBuffer buffer, int position, int size) throws IOException {
+        if (activeSegment.writePosition + size > activeSegment.buffer.capacity()) {
+            roll();
+        }
+        ByteBuffer source = buffer.duplicate();
+        source.limit(position + size);
+        source.position(position);
+        int offset = activeSegment.writePosition;
+        ByteBuffer target = activeSegment.buffer.duplicate();
+        target.position(offset);
+        target.put(source);
+        activeSegment.writePosition += size;
+        return offset;
+    }
+
+    private TKey decodeKey(ByteBuffer buffer, int position, int keyLength) {
+        ByteBuffer source = buffer.duplicate();
+        source.limit(position + HEADER_SIZE + keyLength);
+        source.position(position + HEADER_SIZE);
+        return keyCodec.decode(source);
+    }
+
+    private int crc(ByteBuffer buffer, int offset, int length) {
+        CRC32 crc32 = new CRC32();
+        ByteBuffer source = buffer.duplicate();
+        source.limit(offset + length);
+        source.position(offset);
+        while (source.hasRemaining()) {
+            int count = Math.min(crcScratch.length, source.remaining());
+            source.get(crcScratch, 0, count);
+            crc32.update(crcScratch, 0, count);
+        }
+        return (int) crc32.getValue();
+    }
+
+    private Segment newSegment(int id) throws IOException {
+        File file = new File(directory, String.format("%s%08d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+        Segment segment = mapSegment(id, file);
+        segments.add(segment);
+        return segment;
+    }
+
+    private Segment mapSegment(int id, File file) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            if (randomAccessFile.length() == 0) {
+                randomAccessFile.setLength(segmentSize);
+            }
+            // the mapping stays valid after the channel closes.
+            MappedByteBuffer buffer = randomAccessFile.getChannel()
+                    .map(FileChannel.MapMode.READ_WRITE, 0, randomAccessFile.length());
+            return new Segment(id, file, buffer);
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    private static int segmentId(String name) {
+        if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -3,11 +3,22 @@ package com.fuzz.datacontroller.source;
 import com.fuzz.datacontroller.DataController;
 import com.fuzz.datacontroller.DataControllerResponse;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
- * Description: Maps the callbacks of one source with another type.
+ * Description: Maps the callbacks of one source with another type. In lazy mode, responses are only mapped
+ * once a consumer reads them, and mapped values are memoized by the identity of the object they were mapped
+ * from in a bounded cache, so repeated reads, fan-out to many callbacks and repeated gets of the same stored
+ * object do not run the mapper again. Mapping is skipped entirely when nothing reads the value, i.e. when no
+ * other source stores it and the callbacks check {@link DataControllerResponse#hasResponse()} only. Stores
+ * always map back, since the caller may have changed the mapped value.
  */
 public class MappingDataSource<TFromResponse, TResponse> extends DataSource<TResponse> {
 
+    /**
+     * Description: Converts between the two types. Lazy mode expects non-null values to map to non-null ones.
+     */
     public interface Mapper<TFromResponse, TResponse> {
 
         TResponse mapFrom(TFromResponse fromResponse);
@@ -18,10 +29,32 @@ public class MappingDataSource<TFromResponse, TResponse> extends DataSource<TRes
     private final DataSource<TFromResponse> fromDataSource;
     private final Mapper<TFromResponse, TResponse> mapper;
 
+    // null unless lazy.
+    private final IdentityCache<TFromResponse, TResponse> mappedCache;
+
+    /**
+     * Maps eagerly on every get and store.
+     */
     public MappingDataSource(DataSource<TFromResponse> fromDataSource,
                              Mapper<TFromResponse, TResponse> mapper) {
         this.fromDataSource = fromDataSource;
         this.mapper = mapper;
+        this.mappedCache = null;
+    }
+
+    /**
+     * Maps lazily and memoizes.
+     *
+     * @param cacheSize The amount of mapped values remembered.
+     */
+    public MappingDataSource(DataSource<TFromResponse> fromDataSource,
+                             Mapper<TFromResponse, TResponse> mapper, int cacheSize) {
+        if (cacheSize < 1) {
+            throw new IllegalArgumentException("Cache size must be at least 1: " + cacheSize);
+        }
+        this.fromDataSource = fromDataSource;
+        this.mapper = mapper;
+        this.mappedCache = new IdentityCache<>(cacheSize);
     }
 
     @Override
@@ -30,12 +63,22 @@ public class MappingDataSource<TFromResponse, TResponse> extends DataSource<TRes
     }
 
     @Override
-    protected void doGet(SourceParams sourceParams, final DataController.Success<TResponse> success, DataController.Error error) {
+    public void cancel(SourceParams sourceParams) {
+        fromDataSource.cancel(sourceParams);
+    }
+
+    @Override
+    protected void doGet(final SourceParams sourceParams, final DataController.Success<TResponse> success, DataController.Error error) {
         fromDataSource.doGet(sourceParams, new DataController.Success<TFromResponse>() {
             @Override
             public void onSuccess(DataControllerResponse<TFromResponse> response) {
-                success.onSuccess(new DataControllerResponse<>(mapper.mapFrom(response.getResponse()),
-                        response.getSourceType(), response.getOriginalUrl()));
+                if (mappedCache == null) {
+                    success.onSuccess(new DataControllerResponse<>(mapper.mapFrom(response.getResponse()),
+                            response.getSourceType(), response.getOriginalUrl(), sourceParams, response.isStale()));
+                } else {
+                    success.onSuccess(new LazyResponse(response.getResponse(), response.getSourceType(),
+                            response.getOriginalUrl(), sourceParams, response.isStale()));
+                }
             }
         }, error);
     }
@@ -43,7 +86,110 @@ public class MappingDataSource<TFromResponse, TResponse> extends DataSource<TRes
     @Override
     protected void doStore(DataControllerResponse<TResponse> response) {
         fromDataSource.doStore(new DataControllerResponse<>(mapper.mapTo(response.getResponse()),
-                response.getSourceType(), response.getOriginalUrl()));
+                response.getSourceType(), response.getOriginalUrl(), response.getSourceParams()));
+    }
+
+    /**
+     * Maps through the cache when lazy.
+     */
+    private TResponse mapFrom(TFromResponse fromResponse) {
+        if (mappedCache == null || fromResponse == null) {
+            return mapper.mapFrom(fromResponse);
+        }
+        TResponse response = mappedCache.get(fromResponse);
+        if (response == null) {
+            response = mapper.mapFrom(fromResponse);
+            if (response != null) {
+                mappedCache.put(fromResponse, response);
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Description: A response that maps its value on first read. Every callback it is delivered to shares
+     * the one mapped value.
+     */
+    private final class LazyResponse extends DataControllerResponse<TResponse> {
+
+        private TFromResponse fromResponse;
+        private TResponse response;
+        private volatile boolean isMapped;
+
+        LazyResponse(TFromResponse fromResponse, SourceType type, String originalUrl, SourceParams sourceParams,
+                     boolean isStale) {
+            super(null, type, originalUrl, sourceParams, isStale);
+            this.fromResponse = fromResponse;
+        }
+
+        @Override
+        public TResponse getResponse() {
+            if (!isMapped) {
+                synchronized (this) {
+                    if (!isMapped) {
+                        response = mapFrom(fromResponse);
+                        // the source object is no longer needed once mapped.
+                        fromResponse = null;
+                        isMapped = true;
+                    }
+                }
+            }
+            return response;
+        }
+
+        /**
+         * Answered without mapping, as long as the value has not been mapped yet.
+         */
+        @Override
+        public boolean hasResponse() {
+            synchronized (this) {
+                return isMapped ? response != null : fromResponse != null;
+            }
+        }
+    }
+
+    /**
+     * Description: A bounded least recently used map keyed by object identity.
+     */
+    private static final class IdentityCache<K, V> {
+
+        private final Map<IdentityKey, V> entries;
+
+        IdentityCache(final int maxSize) {
+            entries = new LinkedHashMap<IdentityKey, V>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<IdentityKey, V> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+
+        synchronized V get(K key) {
+            return entries.get(new IdentityKey(key));
+        }
+
+        synchronized void put(K key, V value) {
+            entries.put(new IdentityKey(key), value);
+        }
+    }
+
+    private static final class IdentityKey {
+
+        private final Object key;
+
+        IdentityKey(Object key) {
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof IdentityKey && ((IdentityKey) o).key == key;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(key);
+        }
     }
 
     @Override
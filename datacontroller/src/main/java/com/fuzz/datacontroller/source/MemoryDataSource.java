@@ -2,6 +2,7 @@ package com.fuzz.datacontroller.source;
 
 import com.fuzz.datacontroller.DataController;
 import com.fuzz.datacontroller.DataControllerResponse;
+import com.fuzz.datacontroller.metrics.Instrumentation;
 
 /**
  * Description: Provides default memory based source. It will always succeed in returning because
@@ -10,7 +11,8 @@ import com.fuzz.datacontroller.DataControllerResponse;
  */
 public class MemoryDataSource<TResponse> extends DataSource<TResponse> {
 
-    private TResponse storage;
+    private volatile TResponse storage;
+    private volatile StoredDataMetadata metadata = StoredDataMetadata.NONE;
 
     public MemoryDataSource(RefreshStrategy<TResponse> refreshStrategy) {
         super(refreshStrategy);
@@ -21,12 +23,15 @@ public class MemoryDataSource<TResponse> extends DataSource<TResponse> {
 
     @Override
     public void doStore(DataControllerResponse<TResponse> tResponse) {
-        this.storage = tResponse.getResponse();
+        TResponse response = tResponse.getResponse();
+        this.storage = response;
+        metadata = response != null
+                ? StoredDataMetadata.stored(StoredDataMetadata.sizeOf(response)) : StoredDataMetadata.NONE;
     }
 
     @Override
     public void doGet(SourceParams sourceParams, DataController.Success<TResponse> success, DataController.Error error) {
-        success.onSuccess(new DataControllerResponse<>(storage, getSourceType()));
+        success.onSuccess(new DataControllerResponse<>(getStoredData(sourceParams), getSourceType()));
     }
 
     @Override
@@ -36,12 +41,23 @@ public class MemoryDataSource<TResponse> extends DataSource<TResponse> {
 
     @Override
     public TResponse getStoredData(SourceParams sourceParams) {
+        TResponse storage = this.storage;
+        Instrumentation instrumentation = getInstrumentation();
+        if (instrumentation != Instrumentation.NONE) {
+            instrumentation.onStoredDataLookup(this, storage != null);
+        }
         return storage;
     }
 
+    @Override
+    public StoredDataMetadata getStoredDataMetadata(SourceParams sourceParams) {
+        return metadata;
+    }
+
     @Override
     public void clearStoredData(SourceParams sourceParams) {
         storage = null;
+        metadata = StoredDataMetadata.NONE;
     }
 
     @Override
@@ -0,0 +1,366 @@
+package com.fuzz.datacontroller.source;
+
+import com.fuzz.datacontroller.DataController;
+import com.fuzz.datacontroller.DataControllerResponse;
+import com.fuzz.datacontroller.codec.Codec;
+import com.fuzz.datacontroller.metrics.Instrumentation;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Description: Memory based source that keeps responses serialized outside of the heap, so large caches do
+ * not add to GC work. Responses are encoded with a {@link Codec} into chunks of direct {@link ByteBuffer} slabs
+ * and decoded again on every read. Slabs are carved into power-of-two chunk sizes, and when the off-heap
+ * budget is spent, least-recently-used entries are evicted to make room. A slab whose chunks are all free is
+ * carved again for whichever size needs room. Encoding and decoding run outside of the lock on a copy of the
+ * bytes, so the lock is only held to copy them in or out.
+ */
+public class OffHeapMemoryDataSource<TKey, TResponse> extends DataSource<TResponse> {
+
+    private static final int MIN_CHUNK_SIZE = 64;
+
+    private static final class Entry {
+
+        final int slab;
+        final int offset;
+        final int length;
+        final int sizeClass;
+
+        Entry(int slab, int offset, int length, int sizeClass) {
+            this.slab = slab;
+            this.offset = offset;
+            this.length = length;
+            this.sizeClass = sizeClass;
+        }
+    }
+
+    private static final class Slab {
+
+        final ByteBuffer buffer;
+        // -1 until carved.
+        int sizeClass = -1;
+        int liveChunks;
+
+        Slab(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+    }
+
+    private final KeyedMemoryDataSource.KeyExtractor<TKey> keyExtractor;
+    private final Codec<TResponse> codec;
+    private final long maxBytes;
+    private final int slabSize;
+
+    private final List<Slab> slabs = new ArrayList<>();
+    // free chunks per size class, each encoded as slab index and offset.
+    private final List<List<long[]>> freeChunks = new ArrayList<>();
+    private final LinkedHashMap<TKey, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long usedBytes;
+    private long evictionCount;
+    private long rejectedCount;
+
+    /**
+     * @param refreshStrategy The strategy to use.
+     * @param keyExtractor    Determines the key for each request.
+     * @param codec           Serializes the responses.
+     * @param maxBytes        The off-heap budget. Slabs are only allocated while it is not exceeded.
+     * @param slabSize        The size of each direct buffer allocation. Responses larger than this are not stored.
+     */
+    public OffHeapMemoryDataSource(RefreshStrategy<TResponse> refreshStrategy, KeyedMemoryDataSource.KeyExtractor<TKey> keyExtractor,
+                                   Codec<TResponse> codec, long maxBytes, int slabSize) {
+        super(refreshStrategy);
+        if (slabSize < MIN_CHUNK_SIZE || Integer.bitCount(slabSize) != 1) {
+            throw new IllegalArgumentException("Slab size must be a power of two of at least "
+                    + MIN_CHUNK_SIZE + ": " + slabSize);
+        }
+        if (maxBytes < slabSize) {
+            throw new IllegalArgumentException("Max bytes must fit at least one slab: " + maxBytes);
+        }
+        this.keyExtractor = keyExtractor;
+        this.codec = codec;
+        this.maxBytes = maxBytes;
+        this.slabSize = slabSize;
+        for (int chunkSize = MIN_CHUNK_SIZE; chunkSize <= slabSize; chunkSize <<= 1) {
+            freeChunks.add(new ArrayList<long[]>());
+        }
+    }
+
+    /**
+     * Allocates slabs of 1 MB.
+     */
+    public OffHeapMemoryDataSource(KeyedMemoryDataSource.KeyExtractor<TKey> keyExtractor, Codec<TResponse> codec,
+                                   long maxBytes) {
+        this(new RefreshStrategy<TResponse>() {
+            @Override
+            public boolean shouldRefresh(DataSource<TResponse> dataSource) {
+                return true;
+            }
+        }, keyExtractor, codec, maxBytes, 1 << 20);
+    }
+
+    @Override
+    protected void doGet(SourceParams sourceParams, DataController.Success<TResponse> success,
+                         DataController.Error error) {
+        success.onSuccess(new DataControllerResponse<>(getStoredData(sourceParams), getSourceType(),
+                null, sourceParams));
+    }
+
+    @Override
+    protected void doStore(DataControllerResponse<TResponse> dataControllerResponse) {
+        TKey key = getKey(dataControllerResponse.getSourceParams());
+        TResponse response = dataControllerResponse.getResponse();
+        if (response == null) {
+            synchronized (entries) {
+                remove(key);
+            }
+            return;
+        }
+
+        int length = codec.sizeOf(response);
+        if (length > slabSize) {
+            synchronized (entries) {
+                remove(key);
+                rejectedCount++;
+            }
+            return;
+        }
+        // encoded before the previous value is replaced, so a failing codec leaves it in place.
+        ByteBuffer encoded = ByteBuffer.allocate(length);
+        codec.encode(response, encoded);
+        encoded.flip();
+        synchronized (entries) {
+            remove(key);
+            int sizeClass = sizeClassFor(length);
+            long[] chunk = allocate(sizeClass);
+            if (chunk == null) {
+                rejectedCount++;
+                return;
+            }
+            Entry entry = new Entry((int) chunk[0], (int) chunk[1], length, sizeClass);
+            ByteBuffer buffer = slabs.get(entry.slab).buffer.duplicate();
+            buffer.position(entry.offset);
+            buffer.put(encoded);
+            entries.put(key, entry);
+            usedBytes += length;
+        }
+    }
+
+    @Override
+    public TResponse getStoredData(SourceParams sourceParams) {
+        TKey key = getKey(sourceParams);
+        byte[] bytes = null;
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                // copied out while holding the lock, the chunk may be reused once released.
+                ByteBuffer buffer = slabs.get(entry.slab).buffer.duplicate();
+                buffer.limit(entry.offset + entry.length);
+                buffer.position(entry.offset);
+                bytes = new byte[entry.length];
+                buffer.get(bytes);
+            }
+        }
+        TResponse response = bytes != null ? codec.decode(ByteBuffer.wrap(bytes)) : null;
+        Instrumentation instrumentation = getInstrumentation();
+        if (instrumentation != Instrumentation.NONE) {
+            instrumentation.onStoredDataLookup(this, response != null);
+        }
+        return response;
+    }
+
+    /**
+     * Answered from the entry table without decoding. Does not count as an access for eviction.
+     */
+    @Override
+    public StoredDataMetadata getStoredDataMetadata(SourceParams sourceParams) {
+        TKey key = getKey(sourceParams);
+        synchronized (entries) {
+            return entries.containsKey(key)
+                    ? new StoredDataMetadata(true, StoredDataMetadata.UNKNOWN_SIZE, 0, 0)
+                    : StoredDataMetadata.NONE;
+        }
+    }
+
+    @Override
+    public void clearStoredData(SourceParams sourceParams) {
+        synchronized (entries) {
+            remove(getKey(sourceParams));
+        }
+    }
+
+    /**
+     * Clears every key stored here. Slabs stay allocated for reuse.
+     */
+    public void clearAll() {
+        synchronized (entries) {
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                release(iterator.next());
+                iterator.remove();
+            }
+        }
+    }
+
+    @Override
+    public SourceType getSourceType() {
+        return SourceType.MEMORY;
+    }
+
+    @Override
+    public void cancel() {
+    }
+
+    /**
+     * @return The configured off-heap budget in bytes.
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * @return The bytes of direct memory allocated in slabs.
+     */
+    public long getAllocatedBytes() {
+        synchronized (entries) {
+            return (long) slabs.size() * slabSize;
+        }
+    }
+
+    /**
+     * @return The bytes taken up by encoded responses, excluding chunk padding.
+     */
+    public long getUsedBytes() {
+        synchronized (entries) {
+            return usedBytes;
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getEvictionCount() {
+        synchronized (entries) {
+            return evictionCount;
+        }
+    }
+
+    /**
+     * @return The amount of responses not stored because they were too large or no room could be made.
+     */
+    public long getRejectedCount() {
+        synchronized (entries) {
+            return rejectedCount;
+        }
+    }
+
+    private TKey getKey(SourceParams sourceParams) {
+        return keyExtractor.getKey(sourceParams != null ? sourceParams : new SourceParams());
+    }
+
+    private void remove(TKey key) {
+        Entry previous = entries.remove(key);
+        if (previous != null) {
+            release(previous);
+        }
+    }
+
+    private void release(Entry entry) {
+        freeChunk(entry.slab, entry.offset, entry.sizeClass);
+        usedBytes -= entry.length;
+    }
+
+    private void freeChunk(int slab, int offset, int sizeClass) {
+        freeChunks.get(sizeClass).add(new long[]{slab, offset});
+        slabs.get(slab).liveChunks--;
+    }
+
+    /**
+     * @return The slab and offset of a free chunk, or null if none could be freed up.
+     */
+    private long[] allocate(int sizeClass) {
+        List<long[]> free = freeChunks.get(sizeClass);
+        if (!free.isEmpty()) {
+            return takeChunk(free);
+        }
+        if ((long) (slabs.size() + 1) * slabSize <= maxBytes) {
+            slabs.add(new Slab(ByteBuffer.allocateDirect(slabSize)));
+            carveSlab(slabs.size() - 1, sizeClass);
+            return takeChunk(free);
+        }
+        for (int slab = 0; slab < slabs.size(); slab++) {
+            if (slabs.get(slab).liveChunks == 0) {
+                carveSlab(slab, sizeClass);
+                return takeChunk(free);
+            }
+        }
+        // evict in LRU order until a chunk of this size frees up.
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            if (eldest.sizeClass == sizeClass) {
+                evict(iterator, eldest);
+                return takeChunk(free);
+            }
+        }
+        // nothing of this size to evict, so evict other sizes until one of their slabs empties.
+        iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            evict(iterator, eldest);
+            if (slabs.get(eldest.slab).liveChunks == 0) {
+                carveSlab(eldest.slab, sizeClass);
+                return takeChunk(free);
+            }
+        }
+        return null;
+    }
+
+    private void evict(Iterator<Entry> iterator, Entry entry) {
+        release(entry);
+        iterator.remove();
+        evictionCount++;
+    }
+
+    private long[] takeChunk(List<long[]> free) {
+        long[] chunk = free.remove(free.size() - 1);
+        slabs.get((int) chunk[0]).liveChunks++;
+        return chunk;
+    }
+
+    /**
+     * Hands every chunk of the slab to the size class. A slab carved before must have no live chunks.
+     */
+    private void carveSlab(int slab, int sizeClass) {
+        Slab carved = slabs.get(slab);
+        if (carved.sizeClass >= 0) {
+            Iterator<long[]> iterator = freeChunks.get(carved.sizeClass).iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next()[0] == slab) {
+                    iterator.remove();
+                }
+            }
+        }
+        carved.sizeClass = sizeClass;
+        int chunkSize = MIN_CHUNK_SIZE << sizeClass;
+        List<long[]> free = freeChunks.get(sizeClass);
+        for (int offset = slabSize - chunkSize; offset >= 0; offset -= chunkSize) {
+            free.add(new long[]{slab, offset});
+        }
+    }
+
+    private static int sizeClassFor(int length) {
+        int sizeClass = 0;
+        while ((MIN_CHUNK_SIZE << sizeClass) < length) {
+            sizeClass++;
+        }
+        return sizeClass;
+    }
+}
@@ -0,0 +1,92 @@
+package com.fuzz.datacontroller.source;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Description: A token bucket that caps retries to a fraction of the requests. Every request deposits a
+ * fraction of a token, and every retry withdraws a whole one, so during an outage retries stop once the
+ * reserve is spent instead of multiplying the load. One budget can be shared by several sources to cap their
+ * retries together.
+ */
+public class RetryBudget {
+
+    // tokens are kept in thousandths so deposits stay exact without floating point.
+    private static final long SCALE = 1000;
+
+    private final long deposit;
+    private final long maxBalance;
+    private final AtomicLong balance;
+
+    private final AtomicLong retryCount = new AtomicLong();
+    private final AtomicLong exhaustedCount = new AtomicLong();
+
+    /**
+     * @param retryRatio  The fraction of requests that may be retried, between 0 and 1.
+     * @param minReserve  The amount of retries allowed up front, and the most that can be saved up, so low
+     *                    traffic can still retry.
+     */
+    public RetryBudget(float retryRatio, int minReserve) {
+        if (retryRatio < 0 || retryRatio > 1) {
+            throw new IllegalArgumentException("Retry ratio must be between 0 and 1: " + retryRatio);
+        }
+        if (minReserve < 0) {
+            throw new IllegalArgumentException("Reserve must not be negative: " + minReserve);
+        }
+        this.deposit = Math.round(retryRatio * SCALE);
+        this.maxBalance = Math.max(minReserve, 1) * SCALE;
+        this.balance = new AtomicLong(minReserve * SCALE);
+    }
+
+    /**
+     * Allows retries for 10% of requests with a reserve of 10 retries.
+     */
+    public RetryBudget() {
+        this(0.1f, 10);
+    }
+
+    /**
+     * Deposits the share of a request.
+     */
+    public void onRequest() {
+        long current;
+        long next;
+        do {
+            current = balance.get();
+            next = Math.min(maxBalance, current + deposit);
+        } while (current != next && !balance.compareAndSet(current, next));
+    }
+
+    /**
+     * @return True if a retry may be made, withdrawing a token for it.
+     */
+    public boolean tryRetry() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < SCALE) {
+                exhaustedCount.incrementAndGet();
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - SCALE));
+        retryCount.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * @return The amount of whole retries currently available.
+     */
+    public long getAvailableRetries() {
+        return balance.get() / SCALE;
+    }
+
+    public long getRetryCount() {
+        return retryCount.get();
+    }
+
+    /**
+     * @return The amount of retries refused because the budget ran out.
+     */
+    public long getExhaustedCount() {
+        return exhaustedCount.get();
+    }
+}
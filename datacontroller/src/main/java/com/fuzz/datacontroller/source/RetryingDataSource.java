@@ -0,0 +1,196 @@
+package com.fuzz.datacontroller.source;
+
+import com.fuzz.datacontroller.DataController;
+import com.fuzz.datacontroller.DataControllerResponse;
+import com.fuzz.datacontroller.DataResponseError;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Description: Retries failed calls of a source when the {@link ErrorClassifier} deems the error transient.
+ * Retries wait with exponential backoff and full jitter, scheduled on a {@link ScheduledExecutorService} so no
+ * thread sleeps in between, and each retry draws from a {@link RetryBudget} so retries stay a bounded fraction
+ * of the traffic. The last error is reported once attempts or budget run out.
+ */
+public class RetryingDataSource<TResponse> extends DataSource<TResponse> {
+
+    private final DataSource<TResponse> dataSource;
+    private final ScheduledExecutorService scheduler;
+    private final ErrorClassifier errorClassifier;
+    private final RetryBudget retryBudget;
+    private final int maxAttempts;
+    private final long baseDelay;
+    private final long maxDelay;
+
+    private final Set<Attempt> attempts = Collections.newSetFromMap(new ConcurrentHashMap<Attempt, Boolean>());
+
+    /**
+     * @param dataSource      The source to retry.
+     * @param scheduler       Schedules the retries.
+     * @param errorClassifier Decides which errors are retried.
+     * @param retryBudget     Caps the amount of retries, may be shared between sources.
+     * @param maxAttempts     The amount of calls made at most, including the first.
+     * @param baseDelay       The backoff in milliseconds before the first retry, doubling with each retry.
+     * @param maxDelay        The most backoff in milliseconds before any retry.
+     */
+    public RetryingDataSource(DataSource<TResponse> dataSource, ScheduledExecutorService scheduler,
+                              ErrorClassifier errorClassifier, RetryBudget retryBudget, int maxAttempts,
+                              long baseDelay, long maxDelay) {
+        super(dataSource.getRefreshStrategy());
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Max attempts must be at least 1: " + maxAttempts);
+        }
+        if (baseDelay < 0 || baseDelay > maxDelay) {
+            throw new IllegalArgumentException("Base delay " + baseDelay + " must be between 0 and max delay "
+                    + maxDelay);
+        }
+        this.dataSource = dataSource;
+        this.scheduler = scheduler;
+        this.errorClassifier = errorClassifier;
+        this.retryBudget = retryBudget;
+        this.maxAttempts = maxAttempts;
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+    }
+
+    /**
+     * Makes up to 3 attempts with a backoff from 100 milliseconds up to 5 seconds, on its own budget.
+     */
+    public RetryingDataSource(DataSource<TResponse> dataSource, ScheduledExecutorService scheduler) {
+        this(dataSource, scheduler, ErrorClassifier.DEFAULT, new RetryBudget(), 3, 100, 5000);
+    }
+
+    @Override
+    protected void doGet(SourceParams sourceParams, DataController.Success<TResponse> success,
+                         DataController.Error error) {
+        retryBudget.onRequest();
+        Attempt attempt = new Attempt(sourceParams, success, error);
+        attempts.add(attempt);
+        attempt.run();
+    }
+
+    /**
+     * Description: The calls made for one request. Runs a call each time it is scheduled.
+     */
+    private final class Attempt implements Runnable {
+
+        private final SourceParams sourceParams;
+        private final DataController.Success<TResponse> success;
+        private final DataController.Error error;
+        private int attempt;
+        private volatile ScheduledFuture<?> future;
+        private volatile boolean isCancelled;
+
+        Attempt(SourceParams sourceParams, DataController.Success<TResponse> success, DataController.Error error) {
+            this.sourceParams = sourceParams;
+            this.success = success;
+            this.error = error;
+        }
+
+        @Override
+        public void run() {
+            if (isCancelled) {
+                return;
+            }
+            attempt++;
+            dataSource.doGet(sourceParams, new DataController.Success<TResponse>() {
+                @Override
+                public void onSuccess(DataControllerResponse<TResponse> response) {
+                    attempts.remove(Attempt.this);
+                    success.onSuccess(response);
+                }
+            }, new DataController.Error() {
+                @Override
+                public void onFailure(DataResponseError dataResponseError) {
+                    // errors caused by cancelling are not retried.
+                    if (!isCancelled && attempt < maxAttempts && errorClassifier.isTransient(dataResponseError)
+                            && retryBudget.tryRetry()) {
+                        retry();
+                    } else {
+                        attempts.remove(Attempt.this);
+                        error.onFailure(dataResponseError);
+                    }
+                }
+            });
+        }
+
+        void cancel() {
+            isCancelled = true;
+            attempts.remove(this);
+            ScheduledFuture<?> future = this.future;
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+
+        private void retry() {
+            // full jitter spreads retries of requests that failed together.
+            long ceiling = Math.min(maxDelay, baseDelay << Math.min(attempt - 1, 30));
+            long delay = ceiling > 0 ? ThreadLocalRandom.current().nextLong(ceiling + 1) : 0;
+            future = scheduler.schedule(this, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    protected void doStore(DataControllerResponse<TResponse> dataControllerResponse) {
+        dataSource.doStore(dataControllerResponse);
+    }
+
+    @Override
+    public TResponse getStoredData(SourceParams sourceParams) {
+        return dataSource.getStoredData(sourceParams);
+    }
+
+    @Override
+    public StoredDataMetadata getStoredDataMetadata(SourceParams sourceParams) {
+        return dataSource.getStoredDataMetadata(sourceParams);
+    }
+
+    @Override
+    public void clearStoredData(SourceParams sourceParams) {
+        dataSource.clearStoredData(sourceParams);
+    }
+
+    /**
+     * Cancels the source along with any retries waiting on their backoff.
+     */
+    @Override
+    public void cancel() {
+        for (Attempt attempt : attempts) {
+            attempt.cancel();
+        }
+        dataSource.cancel();
+    }
+
+    /**
+     * Cancels the calls made with the params along with their retries waiting on their backoff.
+     */
+    @Override
+    public void cancel(SourceParams sourceParams) {
+        for (Attempt attempt : attempts) {
+            if (sourceParams != null ? sourceParams.equals(attempt.sourceParams) : attempt.sourceParams == null) {
+                attempt.cancel();
+            }
+        }
+        dataSource.cancel(sourceParams);
+    }
+
+    @Override
+    public SourceType getSourceType() {
+        return dataSource.getSourceType();
+    }
+
+    public DataSource<TResponse> getDataSource() {
+        return dataSource;
+    }
+
+    public RetryBudget getRetryBudget() {
+        return retryBudget;
+    }
+}
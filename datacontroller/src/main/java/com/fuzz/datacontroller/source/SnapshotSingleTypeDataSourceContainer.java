@@ -0,0 +1,87 @@
+package com.fuzz.datacontroller.source;
+
+import com.fuzz.datacontroller.source.DataSource.SourceType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Description: Stores one {@link DataSource} per {@link SourceType} in an array indexed by its ordinal.
+ * Every register and deregister publishes a new immutable snapshot, so lookups and iteration
+ * are lock-free and do not allocate. Iteration follows {@link SourceType} ordering.
+ */
+public class SnapshotSingleTypeDataSourceContainer<TResponse> implements DataSourceStorage<TResponse> {
+
+    private static final SourceType[] SOURCE_TYPES = SourceType.values();
+
+    private static final class Snapshot<TResponse> {
+
+        final DataSource<TResponse>[] dataSourcesByType;
+        final List<DataSource<TResponse>> sources;
+
+        Snapshot(DataSource<TResponse>[] dataSourcesByType) {
+            this.dataSourcesByType = dataSourcesByType;
+            List<DataSource<TResponse>> sources = new ArrayList<>(dataSourcesByType.length);
+            for (DataSource<TResponse> dataSource : dataSourcesByType) {
+                if (dataSource != null) {
+                    sources.add(dataSource);
+                }
+            }
+            this.sources = Collections.unmodifiableList(sources);
+        }
+    }
+
+    private final Object writeLock = new Object();
+
+    private volatile Snapshot<TResponse> snapshot;
+
+    public SnapshotSingleTypeDataSourceContainer() {
+        @SuppressWarnings("unchecked")
+        DataSource<TResponse>[] dataSources = (DataSource<TResponse>[]) new DataSource<?>[SOURCE_TYPES.length];
+        snapshot = new Snapshot<>(dataSources);
+    }
+
+    @Override
+    public void registerDataSource(DataSource<TResponse> dataSource) {
+        synchronized (writeLock) {
+            DataSource<TResponse>[] dataSources = snapshot.dataSourcesByType.clone();
+            dataSources[dataSource.getSourceType().ordinal()] = dataSource;
+            snapshot = new Snapshot<>(dataSources);
+        }
+    }
+
+    @Override
+    public DataSource<TResponse> getDataSource(DataSourceParams sourceParams) {
+        DataSource<TResponse> dataSource = null;
+        if (sourceParams.sourceType != null) {
+            dataSource = snapshot.dataSourcesByType[sourceParams.sourceType.ordinal()];
+        }
+        if (dataSource == null) {
+            throw new RuntimeException("No data source found for type: " + sourceParams.sourceType);
+        }
+        return dataSource;
+    }
+
+    @Override
+    public void deregisterDataSource(DataSource<TResponse> dataSource) {
+        synchronized (writeLock) {
+            int ordinal = dataSource.getSourceType().ordinal();
+            if (snapshot.dataSourcesByType[ordinal] != null) {
+                DataSource<TResponse>[] dataSources = snapshot.dataSourcesByType.clone();
+                dataSources[ordinal] = null;
+                snapshot = new Snapshot<>(dataSources);
+            }
+        }
+    }
+
+    /**
+     * @return An immutable snapshot of the registered sources. It does not reflect later registrations. The
+     * list is random access, index it rather than iterate to avoid allocating an iterator.
+     */
+    @Override
+    public Collection<DataSource<TResponse>> sources() {
+        return snapshot.sources;
+    }
+}
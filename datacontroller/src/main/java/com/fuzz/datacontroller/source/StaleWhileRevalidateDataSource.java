@@ -0,0 +1,138 @@
+package com.fuzz.datacontroller.source;
+
+import com.fuzz.datacontroller.DataController;
+import com.fuzz.datacontroller.DataControllerResponse;
+import com.fuzz.datacontroller.StaleWhileRevalidateDataSourceChainer;
+import com.fuzz.datacontroller.metrics.Instrumentation;
+
+/**
+ * Description: Wraps a {@link SourceType#MEMORY} or {@link SourceType#DISK} source so stored data is always
+ * served right away, even past its max age. Such data is delivered with {@link DataControllerResponse#isStale()}
+ * set, and the {@link StaleWhileRevalidateDataSourceChainer} then lets the next source refresh it in the
+ * background. The result of that refresh comes back through the regular store and callback path.
+ */
+public class StaleWhileRevalidateDataSource<TResponse> extends DataSource<TResponse> {
+
+    private final DataSource<TResponse> dataSource;
+    private final long maxAge;
+
+    private volatile long lastStoreTime;
+    private volatile boolean hasStoreTime;
+
+    /**
+     * @param dataSource The storage source to serve data from.
+     * @param maxAge     The time in milliseconds after the last store that data is considered stale.
+     */
+    public StaleWhileRevalidateDataSource(DataSource<TResponse> dataSource, long maxAge) {
+        this.dataSource = dataSource;
+        this.maxAge = maxAge;
+    }
+
+    @Override
+    protected void doGet(SourceParams sourceParams, DataController.Success<TResponse> success,
+                         DataController.Error error) {
+        TResponse storedData = dataSource.getStoredData(sourceParams);
+        Instrumentation instrumentation = getInstrumentation();
+        if (instrumentation != Instrumentation.NONE) {
+            instrumentation.onStoredDataLookup(this, storedData != null);
+        }
+        if (storedData != null) {
+            success.onSuccess(new DataControllerResponse<>(storedData, getSourceType(), null,
+                    sourceParams, isStale(sourceParams)));
+        } else {
+            dataSource.doGet(sourceParams, success, error);
+        }
+    }
+
+    @Override
+    protected void doStore(DataControllerResponse<TResponse> dataControllerResponse) {
+        dataSource.doStore(dataControllerResponse);
+        lastStoreTime = System.nanoTime();
+        hasStoreTime = true;
+    }
+
+    @Override
+    public TResponse getStoredData(SourceParams sourceParams) {
+        return dataSource.getStoredData(sourceParams);
+    }
+
+    @Override
+    public StoredDataMetadata getStoredDataMetadata(SourceParams sourceParams) {
+        return dataSource.getStoredDataMetadata(sourceParams);
+    }
+
+    @Override
+    public boolean hasStoredData() {
+        return dataSource.hasStoredData();
+    }
+
+    @Override
+    public void clearStoredData(SourceParams sourceParams) {
+        dataSource.clearStoredData(sourceParams);
+        hasStoreTime = false;
+    }
+
+    /**
+     * @return True if the data in this source is past its max age, or if it was never stored
+     * through this source (i.e. it was left over on disk from a previous run).
+     */
+    public boolean isStale() {
+        return !hasStoreTime || (System.nanoTime() - lastStoreTime) >= maxAge * 1000000L;
+    }
+
+    /**
+     * @return True if the data stored for the params is past its max age. Uses the store time the wrapped
+     * source keeps per key in {@link #getStoredDataMetadata(SourceParams)} when it has one, otherwise the time
+     * of the last store through this source as in {@link #isStale()}.
+     */
+    public boolean isStale(SourceParams sourceParams) {
+        return isStale(dataSource.getStoredDataMetadata(sourceParams));
+    }
+
+    /**
+     * @return True if this source has data for the default params that does not need a refresh.
+     */
+    public boolean hasFreshData() {
+        return hasFreshData(new SourceParams());
+    }
+
+    /**
+     * @return True if this source has data for the params that does not need a refresh, judged per key as in
+     * {@link #isStale(SourceParams)}.
+     */
+    public boolean hasFreshData(SourceParams sourceParams) {
+        StoredDataMetadata metadata = dataSource.getStoredDataMetadata(sourceParams);
+        return metadata.exists() && !isStale(metadata);
+    }
+
+    private boolean isStale(StoredDataMetadata metadata) {
+        long lastStoredTime = metadata.getLastStoredTime();
+        if (lastStoredTime > 0) {
+            return System.currentTimeMillis() - lastStoredTime >= maxAge;
+        }
+        return isStale();
+    }
+
+    @Override
+    public void cancel() {
+        dataSource.cancel();
+    }
+
+    @Override
+    public void cancel(SourceParams sourceParams) {
+        dataSource.cancel(sourceParams);
+    }
+
+    @Override
+    public SourceType getSourceType() {
+        return dataSource.getSourceType();
+    }
+
+    public DataSource<TResponse> getDataSource() {
+        return dataSource;
+    }
+
+    public long getMaxAge() {
+        return maxAge;
+    }
+}
@@ -0,0 +1,86 @@
+package com.fuzz.datacontroller.source;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Description: Describes the data stored in a {@link DataSource} without loading it. Sources keep this
+ * next to their storage and update it as data is stored and cleared, so questions like "is anything stored"
+ * do not cost a full read.
+ */
+public final class StoredDataMetadata {
+
+    /**
+     * The size when the source cannot tell it without loading the data.
+     */
+    public static final int UNKNOWN_SIZE = -1;
+
+    /**
+     * Nothing is stored.
+     */
+    public static final StoredDataMetadata NONE = new StoredDataMetadata(false, 0, 0, 0);
+
+    private static final AtomicLong versions = new AtomicLong();
+
+    /**
+     * @param size The size of the data just stored, see {@link #sizeOf(Object)}.
+     * @return Metadata for data stored now, with a version newer than any created before.
+     */
+    public static StoredDataMetadata stored(int size) {
+        return new StoredDataMetadata(true, size, System.currentTimeMillis(), versions.incrementAndGet());
+    }
+
+    /**
+     * @return The amount of elements of a {@link Collection} or {@link Map}, 0 for null and 1 for anything else.
+     */
+    public static int sizeOf(Object response) {
+        if (response == null) {
+            return 0;
+        } else if (response instanceof Collection) {
+            return ((Collection<?>) response).size();
+        } else if (response instanceof Map) {
+            return ((Map<?, ?>) response).size();
+        }
+        return 1;
+    }
+
+    private final boolean exists;
+    private final int size;
+    private final long lastStoredTime;
+    private final long version;
+
+    /**
+     * @param size           The amount of elements stored, or {@link #UNKNOWN_SIZE}.
+     * @param lastStoredTime The wall clock time in milliseconds of the last store, 0 if unknown.
+     * @param version        Grows with every store, 0 if unknown.
+     */
+    public StoredDataMetadata(boolean exists, int size, long lastStoredTime, long version) {
+        this.exists = exists;
+        this.size = size;
+        this.lastStoredTime = lastStoredTime;
+        this.version = version;
+    }
+
+    public boolean exists() {
+        return exists;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getLastStoredTime() {
+        return lastStoredTime;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public String toString() {
+        return "StoredDataMetadata{exists=" + exists + ", size=" + size + ", lastStoredTime=" + lastStoredTime
+                + ", version=" + version + "}";
+    }
+}
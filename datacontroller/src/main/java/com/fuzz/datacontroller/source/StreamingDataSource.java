@@ -0,0 +1,110 @@
+package com.fuzz.datacontroller.source;
+
+import com.fuzz.datacontroller.DataController;
+import com.fuzz.datacontroller.DataControllerResponse;
+import com.fuzz.datacontroller.DataResponseError;
+import com.fuzz.datacontroller.metrics.Instrumentation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Description: A list source that can emit its result in chunks as it reads them, so consumers see the first
+ * items early and never need the whole list in memory. Regular requests through
+ * {@link #get(SourceParams, DataController.Success, DataController.Error)} still work and receive the
+ * collected list.
+ */
+public abstract class StreamingDataSource<TItem> extends DataSource<List<TItem>> {
+
+    public StreamingDataSource(RefreshStrategy<List<TItem>> refreshStrategy) {
+        super(refreshStrategy);
+    }
+
+    public StreamingDataSource() {
+    }
+
+    /**
+     * Streams the response into the listener. This respects the {@link RefreshStrategy} of this source, and is
+     * measured like {@link #get(SourceParams, DataController.Success, DataController.Error)}.
+     *
+     * @return True if {@link #doStream(SourceParams, ChunkListener)} was called, false if the
+     * {@link RefreshStrategy} declined and the listener will not be called.
+     */
+    public final boolean stream(SourceParams sourceParams, final ChunkListener<TItem> chunkListener) {
+        final Instrumentation instrumentation = getInstrumentation();
+        if (getRefreshStrategy().shouldRefresh(this)) {
+            if (instrumentation == Instrumentation.NONE) {
+                doStream(sourceParams, chunkListener);
+                return true;
+            }
+            final long startTime = System.nanoTime();
+            doStream(sourceParams, new ChunkListener<TItem>() {
+                @Override
+                public void onBegin(SourceType sourceType, SourceParams sourceParams) {
+                    chunkListener.onBegin(sourceType, sourceParams);
+                }
+
+                @Override
+                public void onChunk(List<TItem> chunk) {
+                    chunkListener.onChunk(chunk);
+                }
+
+                @Override
+                public void onEnd() {
+                    instrumentation.onGet(StreamingDataSource.this, System.nanoTime() - startTime, true);
+                    chunkListener.onEnd();
+                }
+
+                @Override
+                public void onFailure(DataResponseError dataResponseError) {
+                    instrumentation.onGet(StreamingDataSource.this, System.nanoTime() - startTime, false);
+                    chunkListener.onFailure(dataResponseError);
+                }
+            });
+            return true;
+        }
+        if (instrumentation != Instrumentation.NONE) {
+            instrumentation.onRefreshDeclined(this);
+        }
+        return false;
+    }
+
+    /**
+     * Perform the actual retrieval here, calling the listener as chunks are read. Anything that is IO should
+     * be done on a separate thread.
+     */
+    protected abstract void doStream(SourceParams sourceParams, ChunkListener<TItem> chunkListener);
+
+    /**
+     * Collects the streamed chunks into a single list.
+     */
+    @Override
+    protected void doGet(final SourceParams sourceParams, final DataController.Success<List<TItem>> success,
+                         final DataController.Error error) {
+        doStream(sourceParams, new ChunkListener<TItem>() {
+
+            private final List<TItem> items = new ArrayList<>();
+            private SourceType sourceType = getSourceType();
+
+            @Override
+            public void onBegin(SourceType sourceType, SourceParams sourceParams) {
+                this.sourceType = sourceType;
+            }
+
+            @Override
+            public void onChunk(List<TItem> chunk) {
+                items.addAll(chunk);
+            }
+
+            @Override
+            public void onEnd() {
+                success.onSuccess(new DataControllerResponse<>(items, sourceType, null, sourceParams));
+            }
+
+            @Override
+            public void onFailure(DataResponseError dataResponseError) {
+                error.onFailure(dataResponseError);
+            }
+        });
+    }
+}
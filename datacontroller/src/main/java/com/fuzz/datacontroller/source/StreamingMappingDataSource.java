@@ -0,0 +1,147 @@
+package com.fuzz.datacontroller.source;
+
+import com.fuzz.datacontroller.DataControllerResponse;
+import com.fuzz.datacontroller.DataResponseError;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Description: Maps the items of a {@link StreamingDataSource} to another type one chunk at a time, so mapping
+ * never holds more than a chunk of either type.
+ */
+public class StreamingMappingDataSource<TFromItem, TItem> extends StreamingDataSource<TItem>
+        implements ChunkedStore<TItem> {
+
+    private final StreamingDataSource<TFromItem> fromDataSource;
+    private final MappingDataSource.Mapper<TFromItem, TItem> mapper;
+
+    public StreamingMappingDataSource(StreamingDataSource<TFromItem> fromDataSource,
+                                      MappingDataSource.Mapper<TFromItem, TItem> mapper) {
+        this.fromDataSource = fromDataSource;
+        this.mapper = mapper;
+    }
+
+    @Override
+    protected void doStream(SourceParams sourceParams, final ChunkListener<TItem> chunkListener) {
+        fromDataSource.doStream(sourceParams, new ChunkListener<TFromItem>() {
+
+            private final List<TItem> mapped = new ArrayList<>();
+
+            @Override
+            public void onBegin(SourceType sourceType, SourceParams sourceParams) {
+                chunkListener.onBegin(sourceType, sourceParams);
+            }
+
+            @Override
+            public void onChunk(List<TFromItem> chunk) {
+                mapped.clear();
+                for (int i = 0; i < chunk.size(); i++) {
+                    mapped.add(mapper.mapFrom(chunk.get(i)));
+                }
+                chunkListener.onChunk(mapped);
+            }
+
+            @Override
+            public void onEnd() {
+                chunkListener.onEnd();
+            }
+
+            @Override
+            public void onFailure(DataResponseError dataResponseError) {
+                chunkListener.onFailure(dataResponseError);
+            }
+        });
+    }
+
+    @Override
+    protected void doStore(DataControllerResponse<List<TItem>> response) {
+        List<TItem> items = response.getResponse();
+        List<TFromItem> fromItems = null;
+        if (items != null) {
+            fromItems = new ArrayList<>(items.size());
+            for (int i = 0; i < items.size(); i++) {
+                fromItems.add(mapper.mapTo(items.get(i)));
+            }
+        }
+        fromDataSource.doStore(new DataControllerResponse<>(fromItems, response.getSourceType(),
+                response.getOriginalUrl(), response.getSourceParams()));
+    }
+
+    /**
+     * Maps chunks back as they arrive if the wrapped source is a {@link ChunkedStore}, otherwise collects them
+     * and stores the whole list at the end.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public ChunkListener<TItem> beginStore(final SourceParams sourceParams) {
+        final ChunkListener<TFromItem> fromStore = fromDataSource instanceof ChunkedStore
+                ? ((ChunkedStore<TFromItem>) fromDataSource).beginStore(sourceParams) : null;
+        return new ChunkListener<TItem>() {
+
+            private final List<TFromItem> fromItems = new ArrayList<>();
+            private SourceType sourceType;
+
+            @Override
+            public void onBegin(SourceType sourceType, SourceParams sourceParams) {
+                this.sourceType = sourceType;
+                if (fromStore != null) {
+                    fromStore.onBegin(sourceType, sourceParams);
+                }
+            }
+
+            @Override
+            public void onChunk(List<TItem> chunk) {
+                if (fromStore != null) {
+                    fromItems.clear();
+                }
+                for (int i = 0; i < chunk.size(); i++) {
+                    fromItems.add(mapper.mapTo(chunk.get(i)));
+                }
+                if (fromStore != null) {
+                    fromStore.onChunk(fromItems);
+                }
+            }
+
+            @Override
+            public void onEnd() {
+                if (fromStore != null) {
+                    fromStore.onEnd();
+                } else {
+                    fromDataSource.doStore(new DataControllerResponse<List<TFromItem>>(fromItems, sourceType,
+                            null, sourceParams));
+                }
+            }
+
+            @Override
+            public void onFailure(DataResponseError dataResponseError) {
+                if (fromStore != null) {
+                    fromStore.onFailure(dataResponseError);
+                }
+            }
+        };
+    }
+
+    @Override
+    public void cancel() {
+        fromDataSource.cancel();
+    }
+
+    @Override
+    public void cancel(SourceParams sourceParams) {
+        fromDataSource.cancel(sourceParams);
+    }
+
+    @Override
+    public SourceType getSourceType() {
+        return fromDataSource.getSourceType();
+    }
+
+    public StreamingDataSource<TFromItem> getFromDataSource() {
+        return fromDataSource;
+    }
+
+    public MappingDataSource.Mapper<TFromItem, TItem> getMapper() {
+        return mapper;
+    }
+}
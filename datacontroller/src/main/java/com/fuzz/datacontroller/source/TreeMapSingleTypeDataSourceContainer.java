@@ -2,6 +2,7 @@ package com.fuzz.datacontroller.source;
 
 import com.fuzz.datacontroller.source.DataSource.SourceType;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Map;
 import java.util.TreeMap;
@@ -25,7 +26,9 @@ public class TreeMapSingleTypeDataSourceContainer<TResponse> implements DataSour
     public DataSource<TResponse> getDataSource(DataSourceParams sourceParams) {
         DataSource<TResponse> dataSource = null;
         if (sourceParams.sourceType != null) {
-            dataSource = dataSourceMap.get(sourceParams.sourceType);
+            synchronized (dataSourceMap) {
+                dataSource = dataSourceMap.get(sourceParams.sourceType);
+            }
         }
         if (dataSource == null) {
             throw new RuntimeException("No data source found for type: " + sourceParams.sourceType);
@@ -40,10 +43,13 @@ public class TreeMapSingleTypeDataSourceContainer<TResponse> implements DataSour
         }
     }
 
+    /**
+     * @return A copy of the registered sources, since the live view cannot be iterated outside of the lock.
+     */
     @Override
     public Collection<DataSource<TResponse>> sources() {
         synchronized (dataSourceMap) {
-            return dataSourceMap.values();
+            return new ArrayList<>(dataSourceMap.values());
         }
     }
 }
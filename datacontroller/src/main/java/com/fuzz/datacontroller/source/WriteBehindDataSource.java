@@ -0,0 +1,284 @@
+package com.fuzz.datacontroller.source;
+
+import com.fuzz.datacontroller.DataController;
+import com.fuzz.datacontroller.DataControllerResponse;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Description: Wraps a source so that {@link #store(DataControllerResponse)} only queues the response and
+ * returns. Queued responses are coalesced by key, keeping only the latest one, and written to the wrapped
+ * source in batches on a background thread, either when the batch size is reached or on a fixed interval.
+ * Reads see queued responses before they are written.
+ */
+public class WriteBehindDataSource<TKey, TResponse> extends DataSource<TResponse> {
+
+    /**
+     * Description: Notified of queued responses the wrapped source failed to write. They are no longer queued,
+     * so this is the place to retry or report them.
+     */
+    public interface WriteFailureListener<TResponse> {
+
+        /**
+         * Called on the flushing thread while the flush lock is held. Anything it throws is ignored, so it does
+         * not stop the flush.
+         *
+         * @param response The response that was not written.
+         * @param error    What the wrapped source threw.
+         */
+        void onWriteFailed(DataControllerResponse<TResponse> response, RuntimeException error);
+    }
+
+    private static final Object NULL_KEY = new Object();
+
+    private final DataSource<TResponse> dataSource;
+    private final KeyedMemoryDataSource.KeyExtractor<TKey> keyExtractor;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService scheduler;
+    private final boolean ownsScheduler;
+    private final ScheduledFuture<?> periodicFlush;
+
+    private final ConcurrentMap<Object, DataControllerResponse<TResponse>> pendingStores = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object();
+    private final AtomicBoolean isFlushScheduled = new AtomicBoolean();
+
+    private final AtomicLong storedCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    private volatile WriteFailureListener<TResponse> writeFailureListener;
+
+    private final Runnable flushRunnable = new Runnable() {
+        @Override
+        public void run() {
+            isFlushScheduled.set(false);
+            flush();
+        }
+    };
+
+    /**
+     * @param dataSource    The source to write to.
+     * @param keyExtractor  Determines which queued responses replace each other.
+     * @param maxBatchSize  The amount of queued keys that triggers a flush.
+     * @param flushInterval The time in milliseconds between periodic flushes.
+     * @param scheduler     Runs the flushes. {@link #shutdown(long, TimeUnit)} only stops the periodic flush on it.
+     */
+    public WriteBehindDataSource(DataSource<TResponse> dataSource, KeyedMemoryDataSource.KeyExtractor<TKey> keyExtractor,
+                                 int maxBatchSize, long flushInterval, ScheduledExecutorService scheduler) {
+        this(dataSource, keyExtractor, maxBatchSize, flushInterval, scheduler, false);
+    }
+
+    /**
+     * Flushes on its own daemon thread, which is stopped by {@link #shutdown(long, TimeUnit)}.
+     */
+    public WriteBehindDataSource(DataSource<TResponse> dataSource, KeyedMemoryDataSource.KeyExtractor<TKey> keyExtractor,
+                                 int maxBatchSize, long flushInterval) {
+        this(dataSource, keyExtractor, maxBatchSize, flushInterval,
+                Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "WriteBehindDataSource");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                }), true);
+    }
+
+    private WriteBehindDataSource(DataSource<TResponse> dataSource, KeyedMemoryDataSource.KeyExtractor<TKey> keyExtractor,
+                                  int maxBatchSize, long flushInterval, ScheduledExecutorService scheduler,
+                                  boolean ownsScheduler) {
+        this.dataSource = dataSource;
+        this.keyExtractor = keyExtractor;
+        this.maxBatchSize = maxBatchSize;
+        this.scheduler = scheduler;
+        this.ownsScheduler = ownsScheduler;
+        periodicFlush = scheduler.scheduleWithFixedDelay(flushRunnable, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    protected void doGet(SourceParams sourceParams, DataController.Success<TResponse> success,
+                         DataController.Error error) {
+        DataControllerResponse<TResponse> pending = pendingStores.get(getKey(sourceParams));
+        if (pending != null) {
+            success.onSuccess(new DataControllerResponse<>(pending.getResponse(), getSourceType(), null, sourceParams));
+        } else {
+            dataSource.doGet(sourceParams, success, error);
+        }
+    }
+
+    @Override
+    protected void doStore(DataControllerResponse<TResponse> dataControllerResponse) {
+        if (pendingStores.put(getKey(dataControllerResponse.getSourceParams()), dataControllerResponse) != null) {
+            coalescedCount.incrementAndGet();
+        }
+        if (pendingStores.size() >= maxBatchSize && isFlushScheduled.compareAndSet(false, true)) {
+            try {
+                scheduler.execute(flushRunnable);
+            } catch (RejectedExecutionException e) {
+                // shut down, left for an explicit flush.
+                isFlushScheduled.set(false);
+            }
+        }
+    }
+
+    @Override
+    public TResponse getStoredData(SourceParams sourceParams) {
+        DataControllerResponse<TResponse> pending = pendingStores.get(getKey(sourceParams));
+        if (pending != null) {
+            return pending.getResponse();
+        }
+        return dataSource.getStoredData(sourceParams);
+    }
+
+    @Override
+    public StoredDataMetadata getStoredDataMetadata(SourceParams sourceParams) {
+        DataControllerResponse<TResponse> pending = pendingStores.get(getKey(sourceParams));
+        if (pending != null) {
+            // not written yet, so the wrapped source knows nothing about it.
+            TResponse response = pending.getResponse();
+            return response != null
+                    ? new StoredDataMetadata(true, StoredDataMetadata.sizeOf(response), 0, 0)
+                    : StoredDataMetadata.NONE;
+        }
+        return dataSource.getStoredDataMetadata(sourceParams);
+    }
+
+    @Override
+    public boolean hasStoredData() {
+        return !pendingStores.isEmpty() || dataSource.hasStoredData();
+    }
+
+    @Override
+    public void clearStoredData(SourceParams sourceParams) {
+        synchronized (flushLock) {
+            pendingStores.remove(getKey(sourceParams));
+            dataSource.clearStoredData(sourceParams);
+        }
+    }
+
+    /**
+     * Writes the responses queued when it is called to the wrapped source on the calling thread. Responses stored
+     * meanwhile are left for the next flush, so steady stores cannot keep it from returning. Flushes never run
+     * concurrently, so writes for the same key are applied in order. A response stays queued, and visible to
+     * reads, until its write completes. If it was replaced meanwhile the replacement stays queued.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            Map<Object, DataControllerResponse<TResponse>> snapshot = new LinkedHashMap<>(pendingStores);
+            for (Map.Entry<Object, DataControllerResponse<TResponse>> entry : snapshot.entrySet()) {
+                DataControllerResponse<TResponse> response = entry.getValue();
+                write(response);
+                pendingStores.remove(entry.getKey(), response);
+            }
+        }
+    }
+
+    /**
+     * Stops periodic flushing, then writes out anything queued. Responses stored after this are still
+     * queued but only written by an explicit {@link #flush()}.
+     *
+     * @return True if the owned flush thread terminated within the timeout.
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+        boolean terminated = true;
+        periodicFlush.cancel(false);
+        if (ownsScheduler) {
+            scheduler.shutdown();
+            terminated = scheduler.awaitTermination(timeout, unit);
+        }
+        flush();
+        return terminated;
+    }
+
+    private void write(DataControllerResponse<TResponse> response) {
+        try {
+            dataSource.doStore(response);
+            storedCount.incrementAndGet();
+        } catch (RuntimeException e) {
+            // keep writing the rest of the batch, the response is handed to the listener.
+            failedCount.incrementAndGet();
+            WriteFailureListener<TResponse> writeFailureListener = this.writeFailureListener;
+            if (writeFailureListener != null) {
+                try {
+                    writeFailureListener.onWriteFailed(response, e);
+                } catch (RuntimeException listenerError) {
+                    // would otherwise end the flush and, on the scheduler, cancel the periodic flush.
+                }
+            }
+        }
+    }
+
+    private Object getKey(SourceParams sourceParams) {
+        TKey key = keyExtractor.getKey(sourceParams != null ? sourceParams : new SourceParams());
+        return key != null ? key : NULL_KEY;
+    }
+
+    @Override
+    public void cancel() {
+        dataSource.cancel();
+    }
+
+    @Override
+    public void cancel(SourceParams sourceParams) {
+        dataSource.cancel(sourceParams);
+    }
+
+    @Override
+    public SourceType getSourceType() {
+        return dataSource.getSourceType();
+    }
+
+    public DataSource<TResponse> getDataSource() {
+        return dataSource;
+    }
+
+    /**
+     * @param writeFailureListener Receives responses whose write throws from now on, null to only count them.
+     */
+    public void setWriteFailureListener(WriteFailureListener<TResponse> writeFailureListener) {
+        this.writeFailureListener = writeFailureListener;
+    }
+
+    public WriteFailureListener<TResponse> getWriteFailureListener() {
+        return writeFailureListener;
+    }
+
+    /**
+     * @return The amount of keys waiting to be written.
+     */
+    public int getPendingCount() {
+        return pendingStores.size();
+    }
+
+    /**
+     * @return The amount of responses written to the wrapped source.
+     */
+    public long getStoredCount() {
+        return storedCount.get();
+    }
+
+    /**
+     * @return The amount of responses replaced by a later one for the same key before being written.
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    /**
+     * @return The amount of writes that threw.
+     */
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+}
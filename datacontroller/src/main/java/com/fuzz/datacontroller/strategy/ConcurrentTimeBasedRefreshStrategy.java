@@ -0,0 +1,128 @@
+package com.fuzz.datacontroller.strategy;
+
+import com.fuzz.datacontroller.source.DataSource;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Description: Thread-safe version of {@link TimeBasedRefreshStrategy}. It measures time with a monotonic
+ * clock, and when content expires exactly one caller claims the refresh, so concurrent callers do not
+ * stampede the source. Optional jitter randomizes each refresh interval and optional early expiration
+ * lets a random caller refresh shortly before the deadline, so strategies created together do not all
+ * expire at the same instant.
+ */
+public class ConcurrentTimeBasedRefreshStrategy<TResponse> implements DataSource.RefreshStrategy<TResponse> {
+
+    /**
+     * Description: Source of monotonic time, replaceable for testing.
+     */
+    public interface Ticker {
+
+        long nanoTime();
+    }
+
+    private static final Ticker SYSTEM_TICKER = new Ticker() {
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+    };
+
+    private static final long NOT_REFRESHED = Long.MIN_VALUE;
+
+    private final long refreshTimeNanos;
+    private final float jitter;
+    private final long earlyExpirationNanos;
+    private final Ticker ticker;
+    // null uses the calling thread's random, so callers do not contend on one seed.
+    private final Random random;
+
+    // monotonic time at which current content expires.
+    private final AtomicLong expirationTime = new AtomicLong(NOT_REFRESHED);
+
+    /**
+     * @param refreshTime           The time in milliseconds between refreshes.
+     * @param jitter                Fraction between 0 and 1 by which each refresh interval is randomly shortened.
+     * @param earlyExpirationWindow The time in milliseconds before expiration during which callers may refresh early,
+     *                              with a probability growing towards the deadline. 0 disables it.
+     * @param ticker                The monotonic clock to use.
+     * @param random                Decides jitter and early expiration, null for {@link ThreadLocalRandom}.
+     */
+    public ConcurrentTimeBasedRefreshStrategy(long refreshTime, float jitter, long earlyExpirationWindow, Ticker ticker,
+                                              Random random) {
+        if (jitter < 0 || jitter > 1) {
+            throw new IllegalArgumentException("Jitter must be between 0 and 1: " + jitter);
+        }
+        this.refreshTimeNanos = TimeUnit.MILLISECONDS.toNanos(refreshTime);
+        this.jitter = jitter;
+        this.earlyExpirationNanos = TimeUnit.MILLISECONDS.toNanos(Math.min(earlyExpirationWindow, refreshTime));
+        this.ticker = ticker;
+        this.random = random;
+    }
+
+    public ConcurrentTimeBasedRefreshStrategy(long refreshTime, float jitter, long earlyExpirationWindow, Ticker ticker) {
+        this(refreshTime, jitter, earlyExpirationWindow, ticker, null);
+    }
+
+    public ConcurrentTimeBasedRefreshStrategy(long refreshTime, float jitter, long earlyExpirationWindow) {
+        this(refreshTime, jitter, earlyExpirationWindow, SYSTEM_TICKER);
+    }
+
+    /**
+     * @param refreshTime The time in milliseconds between refreshes.
+     */
+    public ConcurrentTimeBasedRefreshStrategy(long refreshTime) {
+        this(refreshTime, 0, 0);
+    }
+
+    /**
+     * On next call to {@link #shouldRefresh(DataSource)}, exactly one caller will refresh.
+     */
+    public void forceRefresh() {
+        expirationTime.set(NOT_REFRESHED);
+    }
+
+    /**
+     * @return The monotonic time in nanoseconds at which content expires.
+     */
+    public long getExpirationTime() {
+        return expirationTime.get();
+    }
+
+    @Override
+    public boolean shouldRefresh(DataSource<TResponse> dataSource) {
+        long current = ticker.nanoTime();
+        long expiration = expirationTime.get();
+        if (expiration != NOT_REFRESHED && !isExpired(current, expiration)) {
+            return false;
+        }
+        // only the caller that moves the expiration forward refreshes.
+        return expirationTime.compareAndSet(expiration, current + nextRefreshInterval());
+    }
+
+    private boolean isExpired(long current, long expiration) {
+        long remaining = expiration - current;
+        if (remaining <= 0) {
+            return true;
+        }
+        if (remaining >= earlyExpirationNanos) {
+            return false;
+        }
+        // probability grows linearly as the deadline comes closer.
+        return nextFloat() * earlyExpirationNanos >= remaining;
+    }
+
+    private long nextRefreshInterval() {
+        if (jitter == 0) {
+            return refreshTimeNanos;
+        }
+        return refreshTimeNanos - (long) (refreshTimeNanos * jitter * nextFloat());
+    }
+
+    private float nextFloat() {
+        return random != null ? random.nextFloat() : ThreadLocalRandom.current().nextFloat();
+    }
+}
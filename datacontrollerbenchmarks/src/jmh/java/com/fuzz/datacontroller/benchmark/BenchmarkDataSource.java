@@ -0,0 +1,46 @@
+package com.fuzz.datacontroller.benchmark;
+
+import com.fuzz.datacontroller.DataController;
+import com.fuzz.datacontroller.DataControllerResponse;
+import com.fuzz.datacontroller.source.DataSource;
+
+/**
+ * Description: Returns a fixed response synchronously so benchmarks measure framework overhead only.
+ */
+public class BenchmarkDataSource<TResponse> extends DataSource<TResponse> {
+
+    private final SourceType sourceType;
+    private final TResponse response;
+
+    private TResponse storedResponse;
+
+    public BenchmarkDataSource(SourceType sourceType, TResponse response) {
+        this.sourceType = sourceType;
+        this.response = response;
+    }
+
+    @Override
+    protected void doGet(SourceParams sourceParams, DataController.Success<TResponse> success,
+                         DataController.Error error) {
+        success.onSuccess(new DataControllerResponse<>(response, sourceType, null, sourceParams));
+    }
+
+    @Override
+    protected void doStore(DataControllerResponse<TResponse> dataControllerResponse) {
+        storedResponse = dataControllerResponse.getResponse();
+    }
+
+    @Override
+    public TResponse getStoredData(SourceParams sourceParams) {
+        return storedResponse;
+    }
+
+    @Override
+    public void cancel() {
+    }
+
+    @Override
+    public SourceType getSourceType() {
+        return sourceType;
+    }
+}
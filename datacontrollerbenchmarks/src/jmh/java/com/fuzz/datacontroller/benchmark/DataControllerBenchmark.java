@@ -0,0 +1,67 @@
+package com.fuzz.datacontroller.benchmark;
+
+import com.fuzz.datacontroller.DataController;
+import com.fuzz.datacontroller.DataControllerResponse;
+import com.fuzz.datacontroller.DataResponseError;
+import com.fuzz.datacontroller.source.DataSource;
+import com.fuzz.datacontroller.source.DataSourceStorage;
+import com.fuzz.datacontroller.source.MemoryDataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Description: Measures a full {@link DataController#requestData(DataSource.SourceParams)} pass across
+ * MEMORY, DISK and NETWORK, and a single {@link DataController#requestSpecific(DataSourceStorage.DataSourceParams,
+ * DataSource.SourceParams)} call, including the store path and callback delivery.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DataControllerBenchmark {
+
+    private DataController<String> dataController;
+    private DataSource.SourceParams sourceParams;
+    private DataSourceStorage.DataSourceParams networkParams;
+    private Blackhole blackhole;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        this.blackhole = blackhole;
+        dataController = new DataController<>();
+        dataController.registerDataSource(new MemoryDataSource<String>());
+        dataController.registerDataSource(new BenchmarkDataSource<>(DataSource.SourceType.DISK, "disk"));
+        dataController.registerDataSource(new BenchmarkDataSource<>(DataSource.SourceType.NETWORK, "network"));
+        dataController.registerForCallbacks(new DataController.DataControllerCallback<String>() {
+            @Override
+            public void onFailure(DataResponseError dataResponseError) {
+                DataControllerBenchmark.this.blackhole.consume(dataResponseError);
+            }
+
+            @Override
+            public void onSuccess(DataControllerResponse<String> response) {
+                DataControllerBenchmark.this.blackhole.consume(response);
+            }
+        });
+        sourceParams = new DataSource.SourceParams();
+        networkParams = DataSourceStorage.DataSourceParams.networkParams();
+    }
+
+    @Benchmark
+    public void requestData() {
+        dataController.requestData(sourceParams);
+    }
+
+    @Benchmark
+    public void requestSpecific() {
+        dataController.requestSpecific(networkParams, sourceParams);
+    }
+}
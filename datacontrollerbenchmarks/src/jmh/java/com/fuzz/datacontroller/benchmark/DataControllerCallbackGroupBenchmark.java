@@ -0,0 +1,65 @@
+package com.fuzz.datacontroller.benchmark;
+
+import com.fuzz.datacontroller.DataController;
+import com.fuzz.datacontroller.DataControllerCallbackGroup;
+import com.fuzz.datacontroller.DataControllerResponse;
+import com.fuzz.datacontroller.DataResponseError;
+import com.fuzz.datacontroller.source.DataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Description: Measures fan-out of a single response to a growing number of registered callbacks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DataControllerCallbackGroupBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    public int callbackCount;
+
+    private DataControllerCallbackGroup<String> callbackGroup;
+    private DataControllerResponse<String> response;
+    private DataResponseError error;
+
+    @Setup
+    public void setup(final Blackhole blackhole) {
+        callbackGroup = new DataControllerCallbackGroup<>();
+        for (int i = 0; i < callbackCount; i++) {
+            callbackGroup.registerForCallbacks(new DataController.DataControllerCallback<String>() {
+                @Override
+                public void onFailure(DataResponseError dataResponseError) {
+                    blackhole.consume(dataResponseError);
+                }
+
+                @Override
+                public void onSuccess(DataControllerResponse<String> response) {
+                    blackhole.consume(response);
+                }
+            });
+        }
+        response = new DataControllerResponse<>("response", DataSource.SourceType.NETWORK);
+        error = new DataResponseError("error");
+    }
+
+    @Benchmark
+    public void onSuccess() {
+        callbackGroup.onSuccess(response);
+    }
+
+    @Benchmark
+    public void onFailure() {
+        callbackGroup.onFailure(error);
+    }
+}
@@ -0,0 +1,70 @@
+package com.fuzz.datacontroller.benchmark;
+
+import com.fuzz.datacontroller.source.DataSource;
+import com.fuzz.datacontroller.source.DataSourceStorage;
+import com.fuzz.datacontroller.source.ListBasedDataSourceContainer;
+import com.fuzz.datacontroller.source.SnapshotSingleTypeDataSourceContainer;
+import com.fuzz.datacontroller.source.TreeMapSingleTypeDataSourceContainer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Description: Measures lookup and iteration of each {@link DataSourceStorage} implementation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DataSourceStorageBenchmark {
+
+    @Param({"treeMap", "list", "snapshot"})
+    public String storageType;
+
+    private DataSourceStorage<String> dataSourceStorage;
+    private DataSourceStorage.DataSourceParams dataSourceParams;
+
+    @Setup
+    public void setup() {
+        if ("treeMap".equals(storageType)) {
+            dataSourceStorage = new TreeMapSingleTypeDataSourceContainer<>();
+            dataSourceParams = DataSourceStorage.DataSourceParams.diskParams();
+        } else if ("list".equals(storageType)) {
+            dataSourceStorage = new ListBasedDataSourceContainer<>();
+            dataSourceParams = new DataSourceStorage.DataSourceParams(1);
+        } else {
+            dataSourceStorage = new SnapshotSingleTypeDataSourceContainer<>();
+            dataSourceParams = DataSourceStorage.DataSourceParams.diskParams();
+        }
+        for (DataSource.SourceType sourceType : DataSource.SourceType.values()) {
+            dataSourceStorage.registerDataSource(new BenchmarkDataSource<>(sourceType, sourceType.name()));
+        }
+    }
+
+    @Benchmark
+    public DataSource<String> getDataSource() {
+        return dataSourceStorage.getDataSource(dataSourceParams);
+    }
+
+    @Benchmark
+    public void iterateSources(Blackhole blackhole) {
+        for (DataSource<String> dataSource : dataSourceStorage.sources()) {
+            blackhole.consume(dataSource);
+        }
+    }
+
+    @Benchmark
+    public void registerAndDeregister() {
+        DataSource<String> dataSource = dataSourceStorage.getDataSource(dataSourceParams);
+        dataSourceStorage.deregisterDataSource(dataSource);
+        dataSourceStorage.registerDataSource(dataSource);
+    }
+}
@@ -0,0 +1,69 @@
+package com.fuzz.datacontroller.benchmark;
+
+import com.fuzz.datacontroller.source.DataSource;
+import com.fuzz.datacontroller.source.ListMappingDataSource;
+import com.fuzz.datacontroller.source.MappingDataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Description: Measures mapping a 100k element list with {@link ListMappingDataSource}, sequentially and split
+ * across a {@link ForkJoinPool} at several thresholds.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ListMappingDataSourceBenchmark {
+
+    // a threshold of the list size maps sequentially.
+    @Param({"100000", "4096", "1024"})
+    public int splitThreshold;
+
+    private ForkJoinPool pool;
+    private ListMappingDataSource<Integer, String> dataSource;
+    private List<Integer> items;
+
+    @Setup
+    public void setup() {
+        pool = new ForkJoinPool();
+        dataSource = new ListMappingDataSource<>(new BenchmarkDataSource<List<Integer>>(DataSource.SourceType.DISK, null),
+                new MappingDataSource.Mapper<Integer, String>() {
+                    @Override
+                    public String mapFrom(Integer fromResponse) {
+                        return Integer.toHexString(fromResponse * 31);
+                    }
+
+                    @Override
+                    public Integer mapTo(String response) {
+                        return Integer.parseInt(response, 16);
+                    }
+                }, pool, splitThreshold);
+        items = new ArrayList<>(100000);
+        for (int i = 0; i < 100000; i++) {
+            items.add(i);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public List<String> mapFrom() {
+        return dataSource.mapFrom(items);
+    }
+}
@@ -0,0 +1,105 @@
+package com.fuzz.datacontroller.benchmark;
+
+import com.fuzz.datacontroller.DataController;
+import com.fuzz.datacontroller.DataControllerResponse;
+import com.fuzz.datacontroller.DataResponseError;
+import com.fuzz.datacontroller.source.DataSource;
+import com.fuzz.datacontroller.source.MappingDataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Description: Measures the overhead {@link MappingDataSource} adds on top of its source on the get and
+ * store paths. The mapper is trivial so only the wrapping cost shows, for the lazy mode that is the cost of the
+ * identity cache lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MappingDataSourceBenchmark {
+
+    private BenchmarkDataSource<Integer> dataSource;
+    private MappingDataSource<Integer, String> mappingDataSource;
+    private MappingDataSource<Integer, String> lazyMappingDataSource;
+    private DataSource.SourceParams sourceParams;
+    private DataControllerResponse<Integer> response;
+    private DataControllerResponse<String> mappedResponse;
+
+    private DataController.Success<Integer> success;
+    private DataController.Success<String> mappedSuccess;
+    private DataController.Error error;
+
+    @Setup
+    public void setup(final Blackhole blackhole) {
+        dataSource = new BenchmarkDataSource<>(DataSource.SourceType.DISK, 1);
+        MappingDataSource.Mapper<Integer, String> mapper = new MappingDataSource.Mapper<Integer, String>() {
+            @Override
+            public String mapFrom(Integer fromResponse) {
+                return "1";
+            }
+
+            @Override
+            public Integer mapTo(String response) {
+                return 1;
+            }
+        };
+        mappingDataSource = new MappingDataSource<>(dataSource, mapper);
+        lazyMappingDataSource = new MappingDataSource<>(dataSource, mapper, 64);
+        sourceParams = new DataSource.SourceParams();
+        response = new DataControllerResponse<>(1, DataSource.SourceType.NETWORK);
+        mappedResponse = new DataControllerResponse<>("1", DataSource.SourceType.NETWORK);
+
+        success = new DataController.Success<Integer>() {
+            @Override
+            public void onSuccess(DataControllerResponse<Integer> response) {
+                blackhole.consume(response);
+            }
+        };
+        mappedSuccess = new DataController.Success<String>() {
+            @Override
+            public void onSuccess(DataControllerResponse<String> response) {
+                blackhole.consume(response.getResponse());
+            }
+        };
+        error = new DataController.Error() {
+            @Override
+            public void onFailure(DataResponseError dataResponseError) {
+                blackhole.consume(dataResponseError);
+            }
+        };
+    }
+
+    @Benchmark
+    public void get() {
+        dataSource.get(sourceParams, success, error);
+    }
+
+    @Benchmark
+    public void getMapped() {
+        mappingDataSource.get(sourceParams, mappedSuccess, error);
+    }
+
+    @Benchmark
+    public void getMappedLazy() {
+        lazyMappingDataSource.get(sourceParams, mappedSuccess, error);
+    }
+
+    @Benchmark
+    public void store() {
+        dataSource.store(response);
+    }
+
+    @Benchmark
+    public void storeMapped() {
+        mappingDataSource.store(mappedResponse);
+    }
+}
@@ -0,0 +1,106 @@
+package com.fuzz.datacontroller.test;
+
+import com.fuzz.datacontroller.codec.BinaryCodecs;
+import com.fuzz.datacontroller.codec.Codec;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Description: Validates round trips and sizes of the {@link BinaryCodecs} and the {@link GsonCodec}.
+ */
+public class BinaryCodecsTest {
+
+    @Test
+    public void test_varIntSizes() {
+        assertEquals(1, BinaryCodecs.intCodec().sizeOf(0));
+        assertEquals(1, BinaryCodecs.intCodec().sizeOf(-64));
+        assertEquals(2, BinaryCodecs.intCodec().sizeOf(64));
+        assertEquals(5, BinaryCodecs.intCodec().sizeOf(Integer.MIN_VALUE));
+        assertEquals(10, BinaryCodecs.longCodec().sizeOf(Long.MAX_VALUE));
+        assertEquals(4, BinaryCodecs.stringCodec().sizeOf("abc"));
+    }
+
+    @Test
+    public void test_roundTripsPrimitives() {
+        assertRoundTrip(BinaryCodecs.intCodec(), 0);
+        assertRoundTrip(BinaryCodecs.intCodec(), Integer.MIN_VALUE);
+        assertRoundTrip(BinaryCodecs.intCodec(), Integer.MAX_VALUE);
+        assertRoundTrip(BinaryCodecs.longCodec(), Long.MIN_VALUE);
+        assertRoundTrip(BinaryCodecs.longCodec(), 300L);
+        assertRoundTrip(BinaryCodecs.doubleCodec(), Math.PI);
+        assertRoundTrip(BinaryCodecs.booleanCodec(), true);
+        assertRoundTrip(BinaryCodecs.nullableCodec(BinaryCodecs.stringCodec()), null);
+    }
+
+    @Test
+    public void test_roundTripsUtf8() {
+        assertRoundTrip(BinaryCodecs.stringCodec(), "");
+        assertRoundTrip(BinaryCodecs.stringCodec(), "plain ascii");
+        assertRoundTrip(BinaryCodecs.stringCodec(), "\u00e9t\u00e9 \u20ac \ud83d\ude00");
+        assertEquals(1 + 2 + 3 + 4, BinaryCodecs.utf8Size("a\u00e9\u20ac\ud83d\ude00"));
+    }
+
+    @Test
+    public void test_roundTripsCollections() {
+        Codec<List<String>> codec = BinaryCodecs.listCodec(BinaryCodecs.stringCodec());
+        assertRoundTrip(codec, Arrays.asList("one", "two", "three"));
+
+        byte[] bytes = {1, 2, 3};
+        ByteBuffer buffer = ByteBuffer.allocate(BinaryCodecs.bytesCodec().sizeOf(bytes));
+        BinaryCodecs.bytesCodec().encode(bytes, buffer);
+        buffer.flip();
+        assertArrayEquals(bytes, BinaryCodecs.bytesCodec().decode(buffer));
+    }
+
+    @Test
+    public void test_gsonCodecWritesJson() {
+        GsonCodec<List<String>> codec = new GsonCodec<>(new Gson(), new TypeToken<List<String>>() {
+        }.getType());
+        List<String> value = Arrays.asList("one", "two");
+        assertEquals("[\"one\",\"two\"]".length(), codec.sizeOf(value));
+        assertRoundTrip(codec, value);
+    }
+
+    @Test
+    public void test_gsonCodecEncodesMutatedValue() {
+        GsonCodec<List<String>> codec = new GsonCodec<>(new Gson(), new TypeToken<List<String>>() {
+        }.getType());
+        List<String> value = new ArrayList<>(Arrays.asList("one", "two"));
+        assertRoundTrip(codec, value);
+
+        value.set(0, "uno");
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        codec.encode(value, buffer);
+        buffer.flip();
+        assertEquals(value, codec.decode(buffer));
+    }
+
+    private static <T> void assertRoundTrip(Codec<T> codec, T value) {
+        int size = codec.sizeOf(value);
+        // offset and slack check that codecs respect the position and write exactly sizeOf bytes.
+        ByteBuffer buffer = ByteBuffer.allocate(size + 8);
+        buffer.position(3);
+        codec.encode(value, buffer);
+        assertEquals(3 + size, buffer.position());
+        buffer.limit(buffer.position());
+        buffer.position(3);
+        T decoded = codec.decode(buffer);
+        if (value == null) {
+            assertNull(decoded);
+        } else {
+            assertEquals(value, decoded);
+        }
+        assertEquals(3 + size, buffer.position());
+    }
+}
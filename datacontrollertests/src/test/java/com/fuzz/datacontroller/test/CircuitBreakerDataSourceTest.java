@@ -0,0 +1,196 @@
+package com.fuzz.datacontroller.test;
+
+import com.fuzz.datacontroller.DataController;
+import com.fuzz.datacontroller.DataControllerResponse;
+import com.fuzz.datacontroller.DataResponseError;
+import com.fuzz.datacontroller.source.CircuitBreakerDataSource;
+import com.fuzz.datacontroller.source.DataSource.SourceParams;
+import com.fuzz.datacontroller.source.ErrorClassifier;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Description: Validates opening, probing, fallback and timeouts of the {@link CircuitBreakerDataSource}.
+ */
+public class CircuitBreakerDataSourceTest {
+
+    private ScheduledExecutorService scheduler;
+
+    @Before
+    public void before_test_Init() {
+        scheduler = Executors.newScheduledThreadPool(2);
+    }
+
+    @After
+    public void after_test_Shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void test_opensAfterFailuresAndFailsFast() throws Exception {
+        LatencyInjectingDataSource source = new LatencyInjectingDataSource("network", 1, scheduler)
+                .enqueueDelays(-1, -1, -1, -1);
+        CircuitBreakerDataSource<String> dataSource = new CircuitBreakerDataSource<>(source,
+                ErrorClassifier.DEFAULT, 4, 4, 0.5f, 60000, false, null, 0, 0);
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals("error: injected failure", await(dataSource).get());
+        }
+        assertEquals(CircuitBreakerDataSource.State.OPEN, dataSource.getState());
+        assertEquals(1, dataSource.getOpenCount());
+
+        AtomicReference<Object> result = await(dataSource);
+        assertTrue(result.get() instanceof CircuitBreakerDataSource.CircuitOpenError);
+        assertEquals(4, source.getCallCount());
+        assertEquals(1, dataSource.getRejectedCount());
+    }
+
+    @Test
+    public void test_ignoresNonTransientErrors() throws Exception {
+        LatencyInjectingDataSource source = new LatencyInjectingDataSource("network", 1, scheduler)
+                .enqueueDelays(-1, -1, -1, -1);
+        CircuitBreakerDataSource<String> dataSource = new CircuitBreakerDataSource<>(source,
+                new ErrorClassifier() {
+                    @Override
+                    public boolean isTransient(DataResponseError dataResponseError) {
+                        return false;
+                    }
+                }, 4, 4, 0.5f, 60000, false, null, 0, 0);
+
+        for (int i = 0; i < 4; i++) {
+            await(dataSource);
+        }
+        assertEquals(CircuitBreakerDataSource.State.CLOSED, dataSource.getState());
+        assertEquals("network", await(dataSource).get());
+    }
+
+    @Test
+    public void test_servesStoredDataWhileOpen() throws Exception {
+        LatencyInjectingDataSource source = new LatencyInjectingDataSource("network", -1, scheduler) {
+            @Override
+            public String getStoredData(SourceParams sourceParams) {
+                return "stored";
+            }
+        };
+        CircuitBreakerDataSource<String> dataSource = new CircuitBreakerDataSource<>(source,
+                ErrorClassifier.DEFAULT, 2, 2, 1f, 60000, true, null, 0, 0);
+
+        await(dataSource);
+        await(dataSource);
+        assertEquals(CircuitBreakerDataSource.State.OPEN, dataSource.getState());
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<DataControllerResponse<String>> response = new AtomicReference<>();
+        dataSource.get(new SourceParams(), new DataController.Success<String>() {
+            @Override
+            public void onSuccess(DataControllerResponse<String> dataControllerResponse) {
+                response.set(dataControllerResponse);
+                latch.countDown();
+            }
+        }, new DataController.Error() {
+            @Override
+            public void onFailure(DataResponseError dataResponseError) {
+                latch.countDown();
+            }
+        });
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals("stored", response.get().getResponse());
+        assertTrue(response.get().isStale());
+        assertEquals(2, source.getCallCount());
+    }
+
+    @Test
+    public void test_halfOpenProbeClosesOrReopens() throws Exception {
+        LatencyInjectingDataSource source = new LatencyInjectingDataSource("network", 1, scheduler)
+                .enqueueDelays(-1, -1, -1, 1);
+        CircuitBreakerDataSource<String> dataSource = new CircuitBreakerDataSource<>(source,
+                ErrorClassifier.DEFAULT, 2, 2, 1f, 50, false, null, 0, 0);
+
+        await(dataSource);
+        await(dataSource);
+        assertEquals(CircuitBreakerDataSource.State.OPEN, dataSource.getState());
+
+        Thread.sleep(100);
+        assertEquals(CircuitBreakerDataSource.State.HALF_OPEN, dataSource.getState());
+        // the failed probe opens the circuit again.
+        assertEquals("error: injected failure", await(dataSource).get());
+        assertEquals(CircuitBreakerDataSource.State.OPEN, dataSource.getState());
+        assertEquals(2, dataSource.getOpenCount());
+
+        Thread.sleep(100);
+        assertEquals("network", await(dataSource).get());
+        assertEquals(CircuitBreakerDataSource.State.CLOSED, dataSource.getState());
+        assertEquals(4, source.getCallCount());
+    }
+
+    @Test
+    public void test_timesOutSlowCalls() throws Exception {
+        LatencyInjectingDataSource source = new LatencyInjectingDataSource("network", 5000, scheduler);
+        CircuitBreakerDataSource<String> dataSource = new CircuitBreakerDataSource<>(source,
+                ErrorClassifier.DEFAULT, 4, 1, 1f, 60000, false, scheduler, 10, 20);
+
+        AtomicReference<Object> result = await(dataSource);
+        assertTrue(result.get() instanceof DataResponseError);
+        assertTrue(((DataResponseError) result.get()).getThrowable() instanceof TimeoutException);
+        assertEquals(1, dataSource.getTimeoutCount());
+        assertEquals(1, source.getParamsCancelCount());
+        assertEquals(0, source.getCancelCount());
+        assertEquals(CircuitBreakerDataSource.State.OPEN, dataSource.getState());
+    }
+
+    @Test
+    public void test_timeoutAdaptsToObservedLatency() throws Exception {
+        LatencyInjectingDataSource source = new LatencyInjectingDataSource("network", 1, scheduler);
+        CircuitBreakerDataSource<String> dataSource = new CircuitBreakerDataSource<>(source, scheduler);
+        assertEquals(TimeUnit.SECONDS.toNanos(10), dataSource.getTimeoutNanos());
+
+        for (int i = 0; i < 32; i++) {
+            assertEquals("network", await(dataSource).get());
+        }
+        assertTrue(dataSource.getTimeoutNanos() < TimeUnit.SECONDS.toNanos(1));
+        assertFalse(dataSource.getTimeoutNanos() < TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    /**
+     * @return The response, or the error message prefixed with "error: ". A {@link CircuitBreakerDataSource.CircuitOpenError}
+     * and errors with a throwable are returned as is.
+     */
+    private static AtomicReference<Object> await(CircuitBreakerDataSource<String> dataSource)
+            throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<Object> result = new AtomicReference<>();
+        dataSource.get(new SourceParams(), new DataController.Success<String>() {
+            @Override
+            public void onSuccess(DataControllerResponse<String> response) {
+                result.set(response.getResponse());
+                latch.countDown();
+            }
+        }, new DataController.Error() {
+            @Override
+            public void onFailure(DataResponseError dataResponseError) {
+                if (dataResponseError instanceof CircuitBreakerDataSource.CircuitOpenError
+                        || dataResponseError.getThrowable() != null) {
+                    result.set(dataResponseError);
+                } else {
+                    result.set("error: " + dataResponseError.getMessage());
+                }
+                latch.countDown();
+            }
+        });
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        return result;
+    }
+}
@@ -0,0 +1,113 @@
+package com.fuzz.datacontroller.test;
+
+import com.fuzz.datacontroller.strategy.ConcurrentTimeBasedRefreshStrategy;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Description: Validates expiration, single refresh claims and jitter.
+ */
+public class ConcurrentTimeBasedRefreshStrategyTest {
+
+    private long time = 1000L;
+
+    private final ConcurrentTimeBasedRefreshStrategy.Ticker ticker = new ConcurrentTimeBasedRefreshStrategy.Ticker() {
+        @Override
+        public long nanoTime() {
+            return time;
+        }
+    };
+
+    // always draws the middle of the range.
+    private final Random random = new Random() {
+        @Override
+        public float nextFloat() {
+            return 0.5f;
+        }
+    };
+
+    @Test
+    public void test_refreshesAfterExpiration() {
+        ConcurrentTimeBasedRefreshStrategy<String> strategy
+                = new ConcurrentTimeBasedRefreshStrategy<>(1000L, 0, 0, ticker);
+        assertTrue(strategy.shouldRefresh(null));
+        assertFalse(strategy.shouldRefresh(null));
+
+        time += TimeUnit.MILLISECONDS.toNanos(1000L);
+        assertTrue(strategy.shouldRefresh(null));
+        assertFalse(strategy.shouldRefresh(null));
+
+        strategy.forceRefresh();
+        assertTrue(strategy.shouldRefresh(null));
+    }
+
+    @Test
+    public void test_jitterShortensInterval() {
+        ConcurrentTimeBasedRefreshStrategy<String> strategy
+                = new ConcurrentTimeBasedRefreshStrategy<>(1000L, 0.5f, 0, ticker, random);
+        strategy.shouldRefresh(null);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(750L), strategy.getExpirationTime() - time);
+    }
+
+    @Test
+    public void test_jitterStaysInRange() {
+        ConcurrentTimeBasedRefreshStrategy<String> strategy
+                = new ConcurrentTimeBasedRefreshStrategy<>(1000L, 0.5f, 0, ticker);
+        strategy.shouldRefresh(null);
+        long interval = strategy.getExpirationTime() - time;
+        assertTrue(interval <= TimeUnit.MILLISECONDS.toNanos(1000L));
+        assertTrue(interval >= TimeUnit.MILLISECONDS.toNanos(500L));
+    }
+
+    @Test
+    public void test_earlyExpirationBeforeDeadline() {
+        ConcurrentTimeBasedRefreshStrategy<String> strategy
+                = new ConcurrentTimeBasedRefreshStrategy<>(1000L, 0, 1000L, ticker, random);
+        strategy.shouldRefresh(null);
+        long expiration = strategy.getExpirationTime();
+
+        // the draw is half the window, so callers refresh once less than half of it remains.
+        time = expiration - TimeUnit.MILLISECONDS.toNanos(600L);
+        assertFalse(strategy.shouldRefresh(null));
+        time = expiration - TimeUnit.MILLISECONDS.toNanos(400L);
+        assertTrue(strategy.shouldRefresh(null));
+        assertFalse(strategy.shouldRefresh(null));
+    }
+
+    @Test
+    public void test_onlyOneConcurrentRefresh() throws InterruptedException {
+        final ConcurrentTimeBasedRefreshStrategy<String> strategy = new ConcurrentTimeBasedRefreshStrategy<>(60000L);
+        final AtomicInteger refreshCount = new AtomicInteger();
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final CountDownLatch doneLatch = new CountDownLatch(8);
+        for (int i = 0; i < 8; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        startLatch.await();
+                        for (int j = 0; j < 1000; j++) {
+                            if (strategy.shouldRefresh(null)) {
+                                refreshCount.incrementAndGet();
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                    }
+                    doneLatch.countDown();
+                }
+            }).start();
+        }
+        startLatch.countDown();
+        assertTrue(doneLatch.await(10, TimeUnit.SECONDS));
+        assertEquals(1, refreshCount.get());
+    }
+}
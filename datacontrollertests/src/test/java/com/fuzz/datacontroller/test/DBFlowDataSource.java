@@ -5,7 +5,10 @@ import android.support.annotation.NonNull;
 import com.fuzz.datacontroller.DataController;
 import com.fuzz.datacontroller.DataControllerResponse;
 import com.fuzz.datacontroller.DataResponseError;
+import com.fuzz.datacontroller.source.ChunkListener;
+import com.fuzz.datacontroller.source.ChunkedStore;
 import com.fuzz.datacontroller.source.DataSource;
+import com.fuzz.datacontroller.source.StoredDataMetadata;
 import com.raizlabs.android.dbflow.config.DatabaseDefinition;
 import com.raizlabs.android.dbflow.config.FlowManager;
 import com.raizlabs.android.dbflow.sql.language.CursorResult;
@@ -21,7 +24,7 @@ import java.util.List;
 /**
  * Description: Stores data in a dbflow database.
  */
-public class DBFlowDataSource<TModel extends Model> extends DataSource<List<TModel>> {
+public class DBFlowDataSource<TModel extends Model> extends DataSource<List<TModel>> implements ChunkedStore<TModel> {
 
     public static class DatabaseParams<TModel extends Model> extends SourceParams {
 
@@ -31,6 +34,16 @@ public class DBFlowDataSource<TModel extends Model> extends DataSource<List<TMod
     private final Class<TModel> modelClass;
     private Transaction currentTransaction;
 
+    // metadata of the whole table, null until first counted.
+    private volatile StoredDataMetadata tableMetadata;
+
+    private final ProcessModelTransaction.ProcessModel<TModel> saveModel = new ProcessModelTransaction.ProcessModel<TModel>() {
+        @Override
+        public void processModel(TModel model) {
+            model.save();
+        }
+    };
+
     public DBFlowDataSource(RefreshStrategy<List<TModel>> refreshStrategy, Class<TModel> modelClass) {
         super(refreshStrategy);
         this.modelClass = modelClass;
@@ -66,26 +79,65 @@ public class DBFlowDataSource<TModel extends Model> extends DataSource<List<TMod
         if (dataControllerResponse != null && dataControllerResponse.getResponse() != null) {
             // store synchronous. Usually we would want to store async.
             DatabaseDefinition database = FlowManager.getDatabaseForTable(modelClass);
-            database.executeTransaction(new ProcessModelTransaction.Builder<>(
-                    new ProcessModelTransaction.ProcessModel<TModel>() {
-                        @Override
-                        public void processModel(TModel model) {
-                            model.save();
-                        }
-                    })
+            database.executeTransaction(new ProcessModelTransaction.Builder<>(saveModel)
                     .addAll(dataControllerResponse.getResponse())
                     .build());
+            tableMetadata = countStoredRows();
         }
     }
 
+    /**
+     * Saves each chunk in its own transaction. Chunks saved before a failure are kept.
+     */
+    @Override
+    public ChunkListener<TModel> beginStore(SourceParams sourceParams) {
+        final DatabaseDefinition database = FlowManager.getDatabaseForTable(modelClass);
+        return new ChunkListener<TModel>() {
+            @Override
+            public void onBegin(SourceType sourceType, SourceParams sourceParams) {
+            }
+
+            @Override
+            public void onChunk(List<TModel> chunk) {
+                database.executeTransaction(new ProcessModelTransaction.Builder<>(saveModel)
+                        .addAll(chunk)
+                        .build());
+            }
+
+            @Override
+            public void onEnd() {
+                tableMetadata = countStoredRows();
+            }
+
+            @Override
+            public void onFailure(DataResponseError dataResponseError) {
+            }
+        };
+    }
+
     @Override
     public List<TModel> getStoredData(SourceParams sourceParams) {
         return getModelQueriableFromParams(sourceParams).queryList();
     }
 
+    /**
+     * For the whole table this is a count query, done once and then kept up to date on stores. Other
+     * queries fall back to loading them.
+     */
     @Override
-    public boolean hasStoredData() {
-        return !getStoredData().isEmpty();
+    public StoredDataMetadata getStoredDataMetadata(SourceParams sourceParams) {
+        if (sourceParams instanceof DatabaseParams && ((DatabaseParams) sourceParams).modelQueriable != null) {
+            List<TModel> storedData = getStoredData(sourceParams);
+            return !storedData.isEmpty() ? new StoredDataMetadata(true, storedData.size(), 0, 0)
+                    : StoredDataMetadata.NONE;
+        }
+        StoredDataMetadata metadata = tableMetadata;
+        if (metadata == null) {
+            int count = countRows();
+            metadata = count > 0 ? new StoredDataMetadata(true, count, 0, 0) : StoredDataMetadata.NONE;
+            tableMetadata = metadata;
+        }
+        return metadata;
     }
 
     @Override
@@ -101,6 +153,15 @@ public class DBFlowDataSource<TModel extends Model> extends DataSource<List<TMod
         currentTransaction = null;
     }
 
+    private StoredDataMetadata countStoredRows() {
+        int count = countRows();
+        return count > 0 ? StoredDataMetadata.stored(count) : StoredDataMetadata.NONE;
+    }
+
+    private int countRows() {
+        return (int) SQLite.selectCountOf().from(modelClass).count();
+    }
+
     /**
      * Retrieves a {@link ModelQueriable}. If none specified, then we retrieve all table data.
      *
@@ -0,0 +1,129 @@
+package com.fuzz.datacontroller.test;
+
+import com.fuzz.datacontroller.DataController;
+import com.fuzz.datacontroller.DataControllerRequest;
+import com.fuzz.datacontroller.DataControllerResponse;
+import com.fuzz.datacontroller.DataResponseError;
+import com.fuzz.datacontroller.FirstStorageDataSourceChainer;
+import com.fuzz.datacontroller.source.DataSource;
+import com.fuzz.datacontroller.source.DataSourceStorage.DataSourceParams;
+import com.fuzz.datacontroller.source.MemoryDataSource;
+import com.fuzz.datacontroller.source.TreeMapSingleTypeDataSourceContainer;
+import com.fuzz.datacontroller.strategy.OneShotRefreshStrategy;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Description: Ensures requests run on the {@link DataController} executor and complete their handle.
+ */
+public class DataControllerAsyncTest {
+
+    private ExecutorService executorService;
+    private DataController<String> dataController;
+    private volatile Thread chainerThread;
+
+    @Before
+    public void before_test_Init() {
+        executorService = Executors.newSingleThreadExecutor();
+        dataController = new DataController<>(new TreeMapSingleTypeDataSourceContainer<String>(),
+                new FirstStorageDataSourceChainer<String>() {
+                    @Override
+                    public boolean shouldQueryNext(DataSource<String> lastSource, DataSource<String> sourceToChain) {
+                        chainerThread = Thread.currentThread();
+                        return super.shouldQueryNext(lastSource, sourceToChain);
+                    }
+                }, executorService);
+        dataController.registerDataSource(new MemoryDataSource<String>());
+        dataController.registerDataSource(new MockDataSource<String>() {
+            @Override
+            protected void doGet(SourceParams sourceParams, DataController.Success<String> success,
+                                 DataController.Error error) {
+                success.onSuccess(new DataControllerResponse<>("network", getSourceType()));
+            }
+
+            @Override
+            public SourceType getSourceType() {
+                return SourceType.NETWORK;
+            }
+        });
+    }
+
+    @After
+    public void after_test_Shutdown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void test_requestDataAsync() throws Exception {
+        DataControllerRequest<String> request = dataController.requestDataAsync();
+        DataControllerResponse<String> response = request.get(5, TimeUnit.SECONDS);
+        assertEquals("network", response.getResponse());
+        assertEquals(DataSource.SourceType.NETWORK, response.getSourceType());
+        assertTrue(request.isDone());
+        assertNotEquals(Thread.currentThread(), chainerThread);
+
+        // memory now has data, chain stops there.
+        response = dataController.requestDataAsync().get(5, TimeUnit.SECONDS);
+        assertEquals(DataSource.SourceType.MEMORY, response.getSourceType());
+    }
+
+    @Test
+    public void test_requestSpecificAsyncFailure() throws Exception {
+        DataControllerRequest<String> request = dataController.requestSpecificAsync(
+                DataSourceParams.diskParams(), new DataSource.SourceParams());
+        final DataResponseError[] errors = new DataResponseError[1];
+        final CountDownLatch callbackLatch = new CountDownLatch(1);
+        request.addCallback(new DataController.DataControllerCallback<String>() {
+            @Override
+            public void onFailure(DataResponseError dataResponseError) {
+                errors[0] = dataResponseError;
+                callbackLatch.countDown();
+            }
+
+            @Override
+            public void onSuccess(DataControllerResponse<String> response) {
+            }
+        });
+        boolean failed = false;
+        try {
+            request.get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            failed = true;
+        }
+        assertTrue(failed);
+        assertTrue(callbackLatch.await(5, TimeUnit.SECONDS));
+        assertEquals(request.getError(), errors[0]);
+    }
+
+    @Test
+    public void test_requestCompletesWhenSourceDeclines() throws Exception {
+        DataController<String> dataController = new DataController<>(
+                new TreeMapSingleTypeDataSourceContainer<String>(), new FirstStorageDataSourceChainer<String>(),
+                executorService);
+        dataController.registerDataSource(new MemoryDataSource<>(new OneShotRefreshStrategy<String>()));
+
+        dataController.requestDataAsync().get(5, TimeUnit.SECONDS);
+        // the strategy declines from now on, the request still completes with no response.
+        DataControllerRequest<String> request = dataController.requestDataAsync();
+        assertNull(request.get(5, TimeUnit.SECONDS));
+        assertTrue(request.isDone());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void test_requestAsyncWithoutExecutor() {
+        new DataController<String>().requestDataAsync();
+    }
+}
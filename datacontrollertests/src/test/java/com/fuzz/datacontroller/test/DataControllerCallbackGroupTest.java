@@ -7,6 +7,9 @@ import com.fuzz.datacontroller.DataResponseError;
 
 import org.junit.Test;
 
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -54,6 +57,42 @@ public class DataControllerCallbackGroupTest {
         assertFalse(isFailureCalled);
     }
 
+    @Test
+    public void test_CanRegisterDuringDelivery() {
+        callbackGroup.registerForCallbacks(new DataController.DataControllerCallback() {
+            @Override
+            public void onFailure(DataResponseError dataResponseError) {
+            }
+
+            @Override
+            public void onSuccess(DataControllerResponse response) {
+                callbackGroup.deregisterForCallbacks(this);
+                callbackGroup.registerForCallbacks(dataControllerCallback);
+            }
+        });
+        callbackGroup.onSuccess(null);
+        callbackGroup.onSuccess(null);
+        assertTrue(isSuccessCalled);
+    }
+
+    @Test
+    public void test_DeliversOnExecutor() {
+        final int[] executeCount = new int[1];
+        DataControllerCallbackGroup asyncGroup = new DataControllerCallbackGroup(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                executeCount[0]++;
+                command.run();
+            }
+        });
+        asyncGroup.registerForCallbacks(dataControllerCallback);
+        asyncGroup.onSuccess(null);
+        asyncGroup.onFailure(null);
+        assertEquals(2, executeCount[0]);
+        assertTrue(isSuccessCalled);
+        assertTrue(isFailureCalled);
+    }
+
     private final DataController.DataControllerCallback dataControllerCallback = new DataController.DataControllerCallback() {
         @Override
         public void onFailure(DataResponseError dataResponseError) {
@@ -5,10 +5,14 @@ import com.fuzz.datacontroller.source.DataSource.SourceType;
 import com.fuzz.datacontroller.source.DataSourceStorage.DataSourceParams;
 import com.fuzz.datacontroller.source.ListBasedDataSourceContainer;
 import com.fuzz.datacontroller.source.MemoryDataSource;
+import com.fuzz.datacontroller.source.SnapshotSingleTypeDataSourceContainer;
 import com.fuzz.datacontroller.source.TreeMapSingleTypeDataSourceContainer;
 
 import org.junit.Test;
 
+import java.util.Collection;
+import java.util.Iterator;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
@@ -85,4 +89,41 @@ public class DefaultDataSourceContainerTest {
         listBasedDataSourceContainer.deregisterDataSource(mockDataSource);
         assertEquals(1, listBasedDataSourceContainer.sources().size());
     }
+
+    @Test
+    public void test_snapshotDataSourceContainer() {
+        SnapshotSingleTypeDataSourceContainer<String> snapshotDataSourceContainer
+                = new SnapshotSingleTypeDataSourceContainer<>();
+
+        MockDataSource<String> networkDataSource = new MockDataSource<String>() {
+            @Override
+            public SourceType getSourceType() {
+                return SourceType.NETWORK;
+            }
+        };
+        MemoryDataSource<String> memoryDataSource = new MemoryDataSource<>();
+        snapshotDataSourceContainer.registerDataSource(networkDataSource);
+        snapshotDataSourceContainer.registerDataSource(memoryDataSource);
+
+        Collection<DataSource<String>> sources = snapshotDataSourceContainer.sources();
+        assertEquals(2, sources.size());
+        Iterator<DataSource<String>> iterator = sources.iterator();
+        assertEquals(memoryDataSource, iterator.next());
+        assertEquals(networkDataSource, iterator.next());
+        assertEquals(memoryDataSource, snapshotDataSourceContainer.getDataSource(
+                new DataSourceParams(SourceType.MEMORY)));
+
+        snapshotDataSourceContainer.deregisterDataSource(memoryDataSource);
+        assertEquals(1, snapshotDataSourceContainer.sources().size());
+        // previously published snapshots are immutable.
+        assertEquals(2, sources.size());
+
+        boolean failed = false;
+        try {
+            snapshotDataSourceContainer.getDataSource(new DataSourceParams(SourceType.MEMORY));
+        } catch (RuntimeException e) {
+            failed = true;
+        }
+        assertTrue(failed);
+    }
 }
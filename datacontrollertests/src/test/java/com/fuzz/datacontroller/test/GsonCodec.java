@@ -0,0 +1,58 @@
+package com.fuzz.datacontroller.test;
+
+import com.fuzz.datacontroller.codec.BinaryCodecs;
+import com.fuzz.datacontroller.codec.Codec;
+import com.google.gson.Gson;
+
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+
+/**
+ * Description: Codec that writes responses as plain UTF-8 JSON, for compatibility with stores that hold
+ * JSON already. Decoding reads up to the buffer's limit, so it expects the buffer to end with the value.
+ */
+public class GsonCodec<T> implements Codec<T> {
+
+    private static final class Serialized {
+
+        final Object value;
+        final String json;
+
+        Serialized(Object value, String json) {
+            this.value = value;
+            this.json = json;
+        }
+    }
+
+    private final Gson gson;
+    private final Type type;
+
+    // sizeOf is followed by encode of the same value, so keep its result for that one encode.
+    private volatile Serialized lastSerialized;
+
+    public GsonCodec(Gson gson, Type type) {
+        this.gson = gson;
+        this.type = type;
+    }
+
+    @Override
+    public int sizeOf(T value) {
+        String json = gson.toJson(value, type);
+        lastSerialized = new Serialized(value, json);
+        return BinaryCodecs.utf8Size(json);
+    }
+
+    @Override
+    public void encode(T value, ByteBuffer buffer) {
+        Serialized serialized = lastSerialized;
+        lastSerialized = null;
+        // the value may have changed since a previous pair, so anything but the matching sizeOf is rewritten.
+        String json = serialized != null && serialized.value == value ? serialized.json : gson.toJson(value, type);
+        BinaryCodecs.writeUtf8(buffer, json);
+    }
+
+    @Override
+    public T decode(ByteBuffer buffer) {
+        return gson.fromJson(BinaryCodecs.readUtf8(buffer, buffer.remaining()), type);
+    }
+}
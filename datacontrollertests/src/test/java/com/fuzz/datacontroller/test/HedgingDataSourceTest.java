@@ -0,0 +1,172 @@
+package com.fuzz.datacontroller.test;
+
+import com.fuzz.datacontroller.DataController;
+import com.fuzz.datacontroller.DataControllerResponse;
+import com.fuzz.datacontroller.DataResponseError;
+import com.fuzz.datacontroller.source.DataSource.SourceParams;
+import com.fuzz.datacontroller.source.HedgingDataSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Description: Validates hedging, its cap and its adaptive threshold on the {@link HedgingDataSource}.
+ */
+public class HedgingDataSourceTest {
+
+    private ScheduledExecutorService scheduler;
+
+    @Before
+    public void before_test_Init() {
+        scheduler = Executors.newScheduledThreadPool(2);
+    }
+
+    @After
+    public void after_test_Shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void test_hedgeWinsOverSlowPrimary() throws Exception {
+        LatencyInjectingDataSource primary = new LatencyInjectingDataSource("primary", 5000, scheduler);
+        LatencyInjectingDataSource hedge = new LatencyInjectingDataSource("hedge", 10, scheduler);
+        HedgingDataSource<String> dataSource = new HedgingDataSource<>(primary, hedge, scheduler, 95, 20, 1f);
+
+        assertEquals("hedge", await(dataSource));
+        assertEquals(1, dataSource.getHedgeCount());
+        assertEquals(1, dataSource.getHedgeWinCount());
+        assertEquals(1, primary.getParamsCancelCount());
+        assertEquals(0, hedge.getParamsCancelCount());
+        // the primary was cut short, it counts with the time it took until then.
+        assertEquals(1, dataSource.getPrimaryLatency().getCount());
+        assertTrue(dataSource.getPrimaryLatency().getMax() >= TimeUnit.MILLISECONDS.toNanos(20));
+    }
+
+    @Test
+    public void test_loserIsCancelledAlongsideOtherCalls() throws Exception {
+        LatencyInjectingDataSource primary = new LatencyInjectingDataSource("primary", 5000, scheduler);
+        // the first hedge belongs to the other call and is slow as well.
+        LatencyInjectingDataSource hedge = new LatencyInjectingDataSource("hedge", 10, scheduler)
+                .enqueueDelays(5000);
+        HedgingDataSource<String> dataSource = new HedgingDataSource<>(primary, hedge, scheduler, 95, 20, 1f);
+
+        SourceParams other = new SourceParams();
+        other.index = 1;
+        final CountDownLatch otherLatch = new CountDownLatch(1);
+        dataSource.get(other, new DataController.Success<String>() {
+            @Override
+            public void onSuccess(DataControllerResponse<String> response) {
+                otherLatch.countDown();
+            }
+        }, new DataController.Error() {
+            @Override
+            public void onFailure(DataResponseError dataResponseError) {
+                otherLatch.countDown();
+            }
+        });
+        Thread.sleep(50);
+
+        assertEquals("hedge", await(dataSource));
+        // only the losing call is cancelled, the other call on the primary continues.
+        assertEquals(1, primary.getParamsCancelCount());
+        assertEquals(1, otherLatch.getCount());
+    }
+
+    @Test
+    public void test_fastPrimaryIsNotHedged() throws Exception {
+        LatencyInjectingDataSource primary = new LatencyInjectingDataSource("primary", 5, scheduler);
+        LatencyInjectingDataSource hedge = new LatencyInjectingDataSource("hedge", 5, scheduler);
+        HedgingDataSource<String> dataSource = new HedgingDataSource<>(primary, hedge, scheduler, 95, 1000, 1f);
+
+        assertEquals("primary", await(dataSource));
+        assertEquals(0, dataSource.getHedgeCount());
+        assertEquals(0, hedge.getCallCount());
+    }
+
+    @Test
+    public void test_capsHedgeRate() throws Exception {
+        LatencyInjectingDataSource primary = new LatencyInjectingDataSource("primary", 50, scheduler);
+        LatencyInjectingDataSource hedge = new LatencyInjectingDataSource("hedge", 1000, scheduler);
+        HedgingDataSource<String> dataSource = new HedgingDataSource<>(primary, hedge, scheduler, 95, 1, 0.25f);
+
+        for (int i = 0; i < 8; i++) {
+            assertEquals("primary", await(dataSource));
+        }
+        assertEquals(2, dataSource.getHedgeCount());
+        assertEquals(0, dataSource.getHedgeWinCount());
+        assertEquals(2, hedge.getParamsCancelCount());
+        assertEquals(8, dataSource.getPrimaryLatency().getCount());
+    }
+
+    @Test
+    public void test_waitsForHedgeWhenPrimaryFails() throws Exception {
+        LatencyInjectingDataSource primary = new LatencyInjectingDataSource("primary", 0, scheduler)
+                .enqueueDelays(-100);
+        LatencyInjectingDataSource hedge = new LatencyInjectingDataSource("hedge", 100, scheduler);
+        HedgingDataSource<String> dataSource = new HedgingDataSource<>(primary, hedge, scheduler, 95, 10, 1f);
+
+        assertEquals("hedge", await(dataSource));
+    }
+
+    @Test
+    public void test_thresholdFollowsObservedLatency() throws Exception {
+        LatencyInjectingDataSource primary = new LatencyInjectingDataSource("primary", 1, scheduler);
+        LatencyInjectingDataSource hedge = new LatencyInjectingDataSource("hedge", 1, scheduler);
+        HedgingDataSource<String> dataSource = new HedgingDataSource<>(primary, hedge, scheduler, 95, 10000, 0f);
+
+        for (int i = 0; i < 32; i++) {
+            await(dataSource);
+        }
+        assertTrue(dataSource.getThresholdNanos() < TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    public void test_thresholdFollowsSlowModeOfBimodalLatency() throws Exception {
+        LatencyInjectingDataSource primary = new LatencyInjectingDataSource("primary", 1, scheduler);
+        // one call in ten is slow, so the p95 lies in the slow mode.
+        for (int i = 0; i < 64; i++) {
+            primary.enqueueDelays(i % 10 == 9 ? 200 : 1);
+        }
+        LatencyInjectingDataSource hedge = new LatencyInjectingDataSource("hedge", 5, scheduler);
+        HedgingDataSource<String> dataSource = new HedgingDataSource<>(primary, hedge, scheduler, 95, 50, 1f);
+
+        for (int i = 0; i < 64; i++) {
+            await(dataSource);
+        }
+        assertTrue(dataSource.getHedgeWinCount() > 0);
+        // the slow calls lost to the hedge, yet still hold the threshold in the slow mode.
+        long thresholdNanos = dataSource.getThresholdNanos();
+        assertTrue(thresholdNanos >= TimeUnit.MILLISECONDS.toNanos(40));
+        assertTrue(thresholdNanos <= TimeUnit.MILLISECONDS.toNanos(250));
+    }
+
+    private static String await(HedgingDataSource<String> dataSource) throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<String> result = new AtomicReference<>();
+        dataSource.get(new SourceParams(), new DataController.Success<String>() {
+            @Override
+            public void onSuccess(DataControllerResponse<String> response) {
+                result.set(response.getResponse());
+                latch.countDown();
+            }
+        }, new DataController.Error() {
+            @Override
+            public void onFailure(DataResponseError dataResponseError) {
+                result.set("error: " + dataResponseError.getMessage());
+                latch.countDown();
+            }
+        });
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        return result.get();
+    }
+}
@@ -0,0 +1,152 @@
+package com.fuzz.datacontroller.test;
+
+import com.fuzz.datacontroller.DataController;
+import com.fuzz.datacontroller.DataControllerResponse;
+import com.fuzz.datacontroller.DataResponseError;
+import com.fuzz.datacontroller.source.DataSource;
+import com.fuzz.datacontroller.source.DataSource.SourceParams;
+import com.fuzz.datacontroller.source.DataSource.SourceType;
+import com.fuzz.datacontroller.source.KeyedMemoryDataSource;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Description: Validates keyed storage and eviction of the {@link KeyedMemoryDataSource}.
+ */
+public class KeyedMemoryDataSourceTest {
+
+    @Test
+    public void test_storesPerKey() {
+        KeyedMemoryDataSource<Integer, String> dataSource
+                = new KeyedMemoryDataSource<>(KeyedMemoryDataSource.indexKeyExtractor(), 10);
+        dataSource.store(response("one", 1));
+        dataSource.store(response("two", 2));
+
+        assertEquals("one", dataSource.getStoredData(params(1)));
+        assertEquals("two", dataSource.getStoredData(params(2)));
+        assertNull(dataSource.getStoredData(params(3)));
+        assertEquals(2, dataSource.getHitCount());
+        assertEquals(1, dataSource.getMissCount());
+
+        dataSource.clearStoredData(params(1));
+        assertNull(dataSource.getStoredData(params(1)));
+        assertEquals(1, dataSource.size());
+    }
+
+    @Test
+    public void test_evictsLeastRecentlyUsed() {
+        KeyedMemoryDataSource<Integer, String> dataSource = new KeyedMemoryDataSource<>(
+                new DataSource.RefreshStrategy<String>() {
+                    @Override
+                    public boolean shouldRefresh(DataSource<String> dataSource) {
+                        return true;
+                    }
+                }, KeyedMemoryDataSource.indexKeyExtractor(), 2, new KeyedMemoryDataSource.Weigher<String>() {
+            @Override
+            public int weigh(String response) {
+                return 1;
+            }
+        }, 1);
+        dataSource.store(response("one", 1));
+        dataSource.store(response("two", 2));
+        dataSource.getStoredData(params(1));
+        dataSource.store(response("three", 3));
+
+        assertEquals("one", dataSource.getStoredData(params(1)));
+        assertNull(dataSource.getStoredData(params(2)));
+        assertEquals("three", dataSource.getStoredData(params(3)));
+        assertEquals(1, dataSource.getEvictionCount());
+    }
+
+    @Test
+    public void test_boundsByWeight() {
+        KeyedMemoryDataSource<Integer, String> dataSource = new KeyedMemoryDataSource<>(
+                KeyedMemoryDataSource.indexKeyExtractor(), 10, new KeyedMemoryDataSource.Weigher<String>() {
+            @Override
+            public int weigh(String response) {
+                return response.length();
+            }
+        });
+        for (int i = 0; i < 20; i++) {
+            dataSource.store(response("abc", i));
+        }
+        // the bound is shared by all segments, so three entries fit wherever they hash.
+        assertEquals(3, dataSource.size());
+        assertEquals(9, dataSource.weight());
+        assertEquals("abc", dataSource.getStoredData(params(19)));
+    }
+
+    @Test
+    public void test_entryHeavierThanSegmentShareIsKept() {
+        KeyedMemoryDataSource<Integer, String> dataSource = new KeyedMemoryDataSource<>(
+                KeyedMemoryDataSource.indexKeyExtractor(), 10, new KeyedMemoryDataSource.Weigher<String>() {
+            @Override
+            public int weigh(String response) {
+                return response.length();
+            }
+        });
+        for (int i = 0; i < 3; i++) {
+            dataSource.store(response("abcdefgh", i));
+        }
+        assertEquals(1, dataSource.size());
+        assertEquals("abcdefgh", dataSource.getStoredData(params(2)));
+    }
+
+    @Test
+    public void test_entryBoundIsNotSplitBySegment() {
+        KeyedMemoryDataSource<Integer, String> dataSource
+                = new KeyedMemoryDataSource<>(KeyedMemoryDataSource.indexKeyExtractor(), 8);
+        for (int i = 0; i < 100; i++) {
+            dataSource.store(response("value", i));
+        }
+        assertEquals(8, dataSource.size());
+        assertEquals(92, dataSource.getEvictionCount());
+    }
+
+    @Test
+    public void test_controllerStoresByRequestParams() {
+        DataController<String> dataController = new DataController<>();
+        final KeyedMemoryDataSource<Integer, String> memoryDataSource
+                = new KeyedMemoryDataSource<>(KeyedMemoryDataSource.indexKeyExtractor(), 10);
+        dataController.registerDataSource(memoryDataSource);
+        dataController.registerDataSource(new MockDataSource<String>() {
+            @Override
+            protected void doGet(SourceParams sourceParams, DataController.Success<String> success,
+                                 DataController.Error error) {
+                success.onSuccess(new DataControllerResponse<>("page" + sourceParams.index, getSourceType()));
+            }
+
+            @Override
+            public SourceType getSourceType() {
+                return SourceType.NETWORK;
+            }
+        });
+        dataController.registerForCallbacks(new DataController.DataControllerCallback<String>() {
+            @Override
+            public void onFailure(DataResponseError dataResponseError) {
+            }
+
+            @Override
+            public void onSuccess(DataControllerResponse<String> response) {
+            }
+        });
+
+        dataController.requestData(params(4));
+        dataController.requestData(params(5));
+        assertEquals("page4", memoryDataSource.getStoredData(params(4)));
+        assertEquals("page5", memoryDataSource.getStoredData(params(5)));
+    }
+
+    private static DataControllerResponse<String> response(String value, int index) {
+        return new DataControllerResponse<>(value, SourceType.NETWORK, null, params(index));
+    }
+
+    private static SourceParams params(int index) {
+        SourceParams sourceParams = new SourceParams();
+        sourceParams.index = index;
+        return sourceParams;
+    }
+}
@@ -0,0 +1,122 @@
+package com.fuzz.datacontroller.test;
+
+import com.fuzz.datacontroller.DataController;
+import com.fuzz.datacontroller.DataControllerResponse;
+import com.fuzz.datacontroller.DataResponseError;
+import com.fuzz.datacontroller.source.DataSource;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Description: Stands in for a network source, answering each call after an injected delay. Delays are taken
+ * from a queue in order, falling back to a default once it runs out. A negative delay fails the call
+ * with a network error instead.
+ */
+public class LatencyInjectingDataSource extends DataSource<String> {
+
+    private final String response;
+    private final long defaultDelay;
+    private final ScheduledExecutorService scheduler;
+    private final ConcurrentLinkedQueue<Long> delays = new ConcurrentLinkedQueue<>();
+    private final Map<ScheduledFuture<?>, SourceParams> pending = new HashMap<>();
+
+    private final AtomicInteger callCount = new AtomicInteger();
+    private final AtomicInteger cancelCount = new AtomicInteger();
+    private final AtomicInteger paramsCancelCount = new AtomicInteger();
+
+    /**
+     * @param defaultDelay The delay in milliseconds when no queued delay remains.
+     */
+    public LatencyInjectingDataSource(String response, long defaultDelay, ScheduledExecutorService scheduler) {
+        this.response = response;
+        this.defaultDelay = defaultDelay;
+        this.scheduler = scheduler;
+    }
+
+    public LatencyInjectingDataSource enqueueDelays(long... delays) {
+        for (long delay : delays) {
+            this.delays.add(delay);
+        }
+        return this;
+    }
+
+    @Override
+    protected void doGet(final SourceParams sourceParams, final DataController.Success<String> success,
+                         final DataController.Error error) {
+        callCount.incrementAndGet();
+        Long queuedDelay = delays.poll();
+        final long delay = queuedDelay != null ? queuedDelay : defaultDelay;
+        ScheduledFuture<?> future = scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (delay < 0) {
+                    DataResponseError dataResponseError = new DataResponseError("injected failure");
+                    dataResponseError.setNetworkError(true);
+                    error.onFailure(dataResponseError);
+                } else {
+                    success.onSuccess(new DataControllerResponse<>(response, getSourceType(), null, sourceParams));
+                }
+            }
+        }, Math.abs(delay), TimeUnit.MILLISECONDS);
+        synchronized (pending) {
+            pending.put(future, sourceParams);
+        }
+    }
+
+    @Override
+    protected void doStore(DataControllerResponse<String> dataControllerResponse) {
+    }
+
+    @Override
+    public void cancel() {
+        cancelCount.incrementAndGet();
+        synchronized (pending) {
+            for (ScheduledFuture<?> future : pending.keySet()) {
+                future.cancel(false);
+            }
+            pending.clear();
+        }
+    }
+
+    @Override
+    public void cancel(SourceParams sourceParams) {
+        paramsCancelCount.incrementAndGet();
+        synchronized (pending) {
+            Iterator<Map.Entry<ScheduledFuture<?>, SourceParams>> iterator = pending.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<ScheduledFuture<?>, SourceParams> entry = iterator.next();
+                if (entry.getValue().equals(sourceParams)) {
+                    entry.getKey().cancel(false);
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    @Override
+    public SourceType getSourceType() {
+        return SourceType.NETWORK;
+    }
+
+    public int getCallCount() {
+        return callCount.get();
+    }
+
+    public int getCancelCount() {
+        return cancelCount.get();
+    }
+
+    /**
+     * @return The amount of calls to {@link #cancel(SourceParams)}.
+     */
+    public int getParamsCancelCount() {
+        return paramsCancelCount.get();
+    }
+}
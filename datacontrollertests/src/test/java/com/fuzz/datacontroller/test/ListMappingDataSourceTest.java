@@ -0,0 +1,160 @@
+package com.fuzz.datacontroller.test;
+
+import com.fuzz.datacontroller.DataController;
+import com.fuzz.datacontroller.DataControllerResponse;
+import com.fuzz.datacontroller.DataResponseError;
+import com.fuzz.datacontroller.source.DataSource;
+import com.fuzz.datacontroller.source.ListMappingDataSource;
+import com.fuzz.datacontroller.source.MappingDataSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Description: Validates ordering and splitting of parallel mapping on the {@link ListMappingDataSource}.
+ */
+public class ListMappingDataSourceTest {
+
+    private final Set<Thread> mappingThreads = Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
+
+    private final MappingDataSource.Mapper<Integer, String> mapper = new MappingDataSource.Mapper<Integer, String>() {
+        @Override
+        public String mapFrom(Integer fromResponse) {
+            mappingThreads.add(Thread.currentThread());
+            return String.valueOf(fromResponse);
+        }
+
+        @Override
+        public Integer mapTo(String response) {
+            mappingThreads.add(Thread.currentThread());
+            return Integer.valueOf(response);
+        }
+    };
+
+    private ForkJoinPool pool;
+
+    @Before
+    public void before_test_Init() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @After
+    public void after_test_Shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void test_mapsLargeListInOrderInParallel() {
+        ListSource fromDataSource = new ListSource(range(100000));
+        ListMappingDataSource<Integer, String> dataSource = new ListMappingDataSource<>(fromDataSource, mapper,
+                pool, 1000);
+
+        List<String> mapped = get(dataSource);
+        assertEquals(100000, mapped.size());
+        for (int i = 0; i < mapped.size(); i++) {
+            assertEquals(String.valueOf(i), mapped.get(i));
+        }
+        assertTrue(!mappingThreads.contains(Thread.currentThread()) || mappingThreads.size() > 1);
+    }
+
+    @Test
+    public void test_mapsSmallListOnCallingThread() {
+        ListSource fromDataSource = new ListSource(range(10));
+        ListMappingDataSource<Integer, String> dataSource = new ListMappingDataSource<>(fromDataSource, mapper,
+                pool, 1000);
+
+        assertEquals(10, get(dataSource).size());
+        assertEquals(Collections.singleton(Thread.currentThread()), mappingThreads);
+    }
+
+    @Test
+    public void test_storeMapsBackInOrder() {
+        ListSource fromDataSource = new ListSource(null);
+        ListMappingDataSource<Integer, String> dataSource = new ListMappingDataSource<>(fromDataSource, mapper,
+                pool, 16);
+        List<String> items = new LinkedList<>();
+        for (int i = 0; i < 5000; i++) {
+            items.add(String.valueOf(i));
+        }
+
+        dataSource.store(new DataControllerResponse<>(items, DataSource.SourceType.NETWORK));
+        assertEquals(range(5000), fromDataSource.stored);
+    }
+
+    @Test
+    public void test_nullListStaysNull() {
+        ListMappingDataSource<Integer, String> dataSource = new ListMappingDataSource<>(new ListSource(null),
+                mapper);
+        assertNull(get(dataSource));
+    }
+
+    private static List<Integer> range(int size) {
+        List<Integer> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(i);
+        }
+        return list;
+    }
+
+    private static List<String> get(DataSource<List<String>> dataSource) {
+        final List<List<String>> responses = new ArrayList<>();
+        dataSource.get(new DataSource.SourceParams(), new DataController.Success<List<String>>() {
+            @Override
+            public void onSuccess(DataControllerResponse<List<String>> response) {
+                responses.add(response.getResponse());
+            }
+        }, new DataController.Error() {
+            @Override
+            public void onFailure(DataResponseError dataResponseError) {
+            }
+        });
+        assertEquals(1, responses.size());
+        return responses.get(0);
+    }
+
+    /**
+     * Description: Returns a fixed list and records the last stored one.
+     */
+    private static class ListSource extends DataSource<List<Integer>> {
+
+        private final List<Integer> response;
+        private List<Integer> stored;
+
+        ListSource(List<Integer> response) {
+            this.response = response;
+        }
+
+        @Override
+        protected void doGet(SourceParams sourceParams, DataController.Success<List<Integer>> success,
+                             DataController.Error error) {
+            success.onSuccess(new DataControllerResponse<>(response, getSourceType(), null, sourceParams));
+        }
+
+        @Override
+        protected void doStore(DataControllerResponse<List<Integer>> dataControllerResponse) {
+            stored = dataControllerResponse.getResponse();
+        }
+
+        @Override
+        public void cancel() {
+        }
+
+        @Override
+        public SourceType getSourceType() {
+            return SourceType.DISK;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.fuzz.datacontroller.test;
+
+import com.fuzz.datacontroller.DataControllerResponse;
+import com.fuzz.datacontroller.codec.BinaryCodecs;
+import com.fuzz.datacontroller.source.DataSource;
+import com.fuzz.datacontroller.source.DataSource.SourceParams;
+import com.fuzz.datacontroller.source.DataSource.SourceType;
+import com.fuzz.datacontroller.source.KeyedMemoryDataSource;
+import com.fuzz.datacontroller.source.MappedLogDataSource;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Description: Validates persistence, recovery and compaction of the {@link MappedLogDataSource}.
+ */
+public class MappedLogDataSourceTest {
+
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void test_storesAndReopens() throws IOException {
+        File directory = folder.newFolder();
+        MappedLogDataSource<Integer, String> dataSource = open(directory, 4096);
+        assertFalse(dataSource.hasStoredData());
+        dataSource.store(response("one", 1));
+        dataSource.store(response("two", 2));
+        dataSource.store(response("uno", 1));
+        dataSource.clearStoredData(params(2));
+        dataSource.store(response("three", 3));
+        assertEquals("uno", dataSource.getStoredData(params(1)));
+        assertNull(dataSource.getStoredData(params(2)));
+        dataSource.close();
+
+        MappedLogDataSource<Integer, String> reopened = open(directory, 4096);
+        assertEquals(SourceType.DISK, reopened.getSourceType());
+        assertEquals(2, reopened.size());
+        assertEquals("uno", reopened.getStoredData(params(1)));
+        assertNull(reopened.getStoredData(params(2)));
+        assertEquals("three", reopened.getStoredData(params(3)));
+        reopened.close();
+    }
+
+    @Test
+    public void test_recoversFromTornRecord() throws IOException {
+        File directory = folder.newFolder();
+        MappedLogDataSource<Integer, String> dataSource = open(directory, 4096);
+        dataSource.store(response("one", 1));
+        dataSource.store(response("two", 2));
+        dataSource.close();
+
+        // corrupt the last byte of the second record's value.
+        int recordSize = 12 + 1 + 1 + 3;
+        RandomAccessFile file = new RandomAccessFile(new File(directory, "segment-00000000.log"), "rw");
+        file.seek(2 * recordSize - 1);
+        file.write('x');
+        file.close();
+
+        MappedLogDataSource<Integer, String> reopened = open(directory, 4096);
+        assertEquals("one", reopened.getStoredData(params(1)));
+        assertNull(reopened.getStoredData(params(2)));
+        reopened.store(response("dos", 2));
+        reopened.close();
+
+        reopened = open(directory, 4096);
+        assertEquals("one", reopened.getStoredData(params(1)));
+        assertEquals("dos", reopened.getStoredData(params(2)));
+        reopened.close();
+    }
+
+    @Test
+    public void test_compactsOverwrittenSegments() throws IOException {
+        File directory = folder.newFolder();
+        // each record takes 17 bytes, so a 64 byte segment holds three.
+        MappedLogDataSource<Integer, String> dataSource = open(directory, 64);
+        for (int i = 0; i < 10; i++) {
+            dataSource.store(response("v" + (i % 10) + "x", i % 2));
+        }
+        assertTrue(dataSource.getCompactionCount() > 0);
+        assertTrue(dataSource.getSegmentCount() <= 3);
+        assertEquals("v8x", dataSource.getStoredData(params(0)));
+        assertEquals("v9x", dataSource.getStoredData(params(1)));
+        dataSource.close();
+
+        MappedLogDataSource<Integer, String> reopened = open(directory, 64);
+        assertEquals(2, reopened.size());
+        assertEquals("v8x", reopened.getStoredData(params(0)));
+        assertEquals("v9x", reopened.getStoredData(params(1)));
+        reopened.close();
+    }
+
+    @Test
+    public void test_tombstonesOfOlderKeysAreNotRecompacted() throws IOException {
+        File directory = folder.newFolder();
+        MappedLogDataSource<Integer, String> dataSource = open(directory, 64);
+        // each segment fills up with a 47 byte record that stays and a 17 byte one that is cleared.
+        String large = "large value that stays stored xyz";
+        for (int i = 1; i <= 4; i++) {
+            dataSource.store(response(large, 10 + i));
+            dataSource.store(response("v" + i + "x", i));
+        }
+        // the tombstones are needed while the older segments stay, so they count as live.
+        for (int i = 1; i <= 4; i++) {
+            dataSource.clearStoredData(params(i));
+        }
+        for (int i = 5; i <= 8; i++) {
+            dataSource.store(response("v" + i + "x", i));
+        }
+        assertEquals(0, dataSource.getCompactionCount());
+        dataSource.close();
+
+        MappedLogDataSource<Integer, String> reopened = open(directory, 64);
+        assertEquals(8, reopened.size());
+        for (int i = 1; i <= 4; i++) {
+            assertNull(reopened.getStoredData(params(i)));
+            assertEquals(large, reopened.getStoredData(params(10 + i)));
+            assertEquals("v" + (i + 4) + "x", reopened.getStoredData(params(i + 4)));
+        }
+        reopened.close();
+    }
+
+    @Test
+    public void test_dropsTombstonesNoOlderSegmentNeeds() throws IOException {
+        File directory = folder.newFolder();
+        MappedLogDataSource<Integer, String> dataSource = open(directory, 64);
+        dataSource.store(response("v1x", 1));
+        dataSource.store(response("v2x", 2));
+        dataSource.store(response("v3x", 3));
+        // the oldest segment is compacted away, the tombstones shadow nothing anymore.
+        dataSource.clearStoredData(params(1));
+        dataSource.clearStoredData(params(2));
+        dataSource.clearStoredData(params(3));
+        int segmentCount = dataSource.getSegmentCount();
+        for (int i = 4; i < 20; i++) {
+            dataSource.store(response("v" + (i % 10) + "x", 4));
+        }
+        assertTrue(dataSource.getSegmentCount() <= segmentCount + 1);
+        dataSource.close();
+
+        MappedLogDataSource<Integer, String> reopened = open(directory, 64);
+        assertEquals(1, reopened.size());
+        assertNull(reopened.getStoredData(params(1)));
+        assertEquals("v9x", reopened.getStoredData(params(4)));
+        reopened.close();
+    }
+
+    @Test
+    public void test_rejectsRecordsLargerThanSegment() throws IOException {
+        MappedLogDataSource<Integer, String> dataSource = open(folder.newFolder(), 64);
+        dataSource.store(response("small", 1));
+        dataSource.store(response("this response is far too long to fit in a single 64 byte segment", 1));
+
+        assertEquals(1, dataSource.getRejectedCount());
+        assertNull(dataSource.getStoredData(params(1)));
+        dataSource.close();
+    }
+
+    private static MappedLogDataSource<Integer, String> open(File directory, int segmentSize) throws IOException {
+        return new MappedLogDataSource<>(new DataSource.RefreshStrategy<String>() {
+            @Override
+            public boolean shouldRefresh(DataSource<String> dataSource) {
+                return true;
+            }
+        }, directory, KeyedMemoryDataSource.indexKeyExtractor(), BinaryCodecs.intCodec(), BinaryCodecs.stringCodec(), segmentSize, 0.5f, DIRECT);
+    }
+
+    private static DataControllerResponse<String> response(String value, int index) {
+        return new DataControllerResponse<>(value, SourceType.NETWORK, null, params(index));
+    }
+
+    private static SourceParams params(int index) {
+        SourceParams sourceParams = new SourceParams();
+        sourceParams.index = index;
+        return sourceParams;
+    }
+}
@@ -0,0 +1,209 @@
+package com.fuzz.datacontroller.test;
+
+import com.fuzz.datacontroller.DataController;
+import com.fuzz.datacontroller.DataControllerRequest;
+import com.fuzz.datacontroller.DataControllerResponse;
+import com.fuzz.datacontroller.DataResponseError;
+import com.fuzz.datacontroller.source.DataSource;
+import com.fuzz.datacontroller.source.MappingDataSource;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Description: Validates eager and lazy, memoized mapping on the {@link MappingDataSource}.
+ */
+public class MappingDataSourceTest {
+
+    private int mapFromCount;
+    private int mapToCount;
+
+    private final MappingDataSource.Mapper<StringBuilder, String> mapper
+            = new MappingDataSource.Mapper<StringBuilder, String>() {
+        @Override
+        public String mapFrom(StringBuilder fromResponse) {
+            mapFromCount++;
+            return fromResponse.toString();
+        }
+
+        @Override
+        public StringBuilder mapTo(String response) {
+            mapToCount++;
+            return new StringBuilder(response);
+        }
+    };
+
+    @Test
+    public void test_eagerMapsEveryGet() {
+        FixedDataSource fromDataSource = new FixedDataSource(new StringBuilder("value"));
+        MappingDataSource<StringBuilder, String> dataSource = new MappingDataSource<>(fromDataSource, mapper);
+
+        get(dataSource);
+        get(dataSource);
+        assertEquals(2, mapFromCount);
+    }
+
+    @Test
+    public void test_staleIsKept() {
+        FixedDataSource fromDataSource = new FixedDataSource(new StringBuilder("value"));
+        fromDataSource.isStale = true;
+
+        DataControllerResponse<String> eager = get(new MappingDataSource<>(fromDataSource, mapper));
+        assertTrue(eager.isStale());
+        assertEquals("value", eager.getResponse());
+        assertTrue(get(new MappingDataSource<>(fromDataSource, mapper, 8)).isStale());
+
+        fromDataSource.isStale = false;
+        assertFalse(get(new MappingDataSource<>(fromDataSource, mapper)).isStale());
+    }
+
+    @Test
+    public void test_lazyMapsOnFirstRead() {
+        FixedDataSource fromDataSource = new FixedDataSource(new StringBuilder("value"));
+        MappingDataSource<StringBuilder, String> dataSource = new MappingDataSource<>(fromDataSource, mapper, 8);
+
+        DataControllerResponse<String> response = get(dataSource);
+        assertEquals(0, mapFromCount);
+
+        assertEquals("value", response.getResponse());
+        assertEquals("value", response.getResponse());
+        assertEquals(1, mapFromCount);
+    }
+
+    @Test
+    public void test_lazyMemoizesSameSourceObject() {
+        FixedDataSource fromDataSource = new FixedDataSource(new StringBuilder("value"));
+        MappingDataSource<StringBuilder, String> dataSource = new MappingDataSource<>(fromDataSource, mapper, 8);
+
+        String first = get(dataSource).getResponse();
+        String second = get(dataSource).getResponse();
+        assertSame(first, second);
+        assertEquals(1, mapFromCount);
+
+        // an equal but different object is mapped again.
+        fromDataSource.response = new StringBuilder("value");
+        get(dataSource).getResponse();
+        assertEquals(2, mapFromCount);
+    }
+
+    @Test
+    public void test_storeMapsBack() {
+        FixedDataSource fromDataSource = new FixedDataSource(new StringBuilder("value"));
+        MappingDataSource<StringBuilder, String> dataSource = new MappingDataSource<>(fromDataSource, mapper, 8);
+
+        String mapped = get(dataSource).getResponse();
+        dataSource.store(new DataControllerResponse<>(mapped, DataSource.SourceType.NETWORK));
+        assertEquals(1, mapToCount);
+        assertEquals("value", fromDataSource.stored.get(0).toString());
+    }
+
+    @Test
+    public void test_storeKeepsChangesToMappedValue() {
+        FixedDataSource fromDataSource = new FixedDataSource(new StringBuilder("value"));
+        MappingDataSource<StringBuilder, List<String>> dataSource = new MappingDataSource<>(fromDataSource,
+                new MappingDataSource.Mapper<StringBuilder, List<String>>() {
+                    @Override
+                    public List<String> mapFrom(StringBuilder fromResponse) {
+                        return new ArrayList<>(Collections.singletonList(fromResponse.toString()));
+                    }
+
+                    @Override
+                    public StringBuilder mapTo(List<String> response) {
+                        return new StringBuilder(response.get(0));
+                    }
+                }, 8);
+
+        List<String> mapped = get(dataSource).getResponse();
+        mapped.set(0, "changed");
+        dataSource.store(new DataControllerResponse<>(mapped, DataSource.SourceType.NETWORK));
+        assertEquals("changed", fromDataSource.stored.get(0).toString());
+    }
+
+    @Test
+    public void test_requestDoesNotForceMapping() throws Exception {
+        FixedDataSource fromDataSource = new FixedDataSource(new StringBuilder("value"));
+        DataController<String> dataController = new DataController<>();
+        dataController.registerDataSource(new MappingDataSource<>(fromDataSource, mapper, 8));
+
+        // with no other source to store into, completing the request does not read the value.
+        DataControllerRequest<String> request = dataController.requestData();
+        assertTrue(request.isDone());
+        assertTrue(request.get().hasResponse());
+        assertEquals(0, mapFromCount);
+
+        assertEquals("value", request.get().getResponse());
+        assertEquals(1, mapFromCount);
+    }
+
+    @Test
+    public void test_lazyCacheIsBounded() {
+        FixedDataSource fromDataSource = new FixedDataSource(new StringBuilder("first"));
+        MappingDataSource<StringBuilder, String> dataSource = new MappingDataSource<>(fromDataSource, mapper, 1);
+        StringBuilder first = fromDataSource.response;
+
+        get(dataSource).getResponse();
+        fromDataSource.response = new StringBuilder("second");
+        get(dataSource).getResponse();
+        fromDataSource.response = first;
+        get(dataSource).getResponse();
+        assertEquals(3, mapFromCount);
+    }
+
+    private static <T> DataControllerResponse<T> get(DataSource<T> dataSource) {
+        final List<DataControllerResponse<T>> responses = new ArrayList<>();
+        dataSource.get(new DataSource.SourceParams(), new DataController.Success<T>() {
+            @Override
+            public void onSuccess(DataControllerResponse<T> response) {
+                responses.add(response);
+            }
+        }, new DataController.Error() {
+            @Override
+            public void onFailure(DataResponseError dataResponseError) {
+            }
+        });
+        assertEquals(1, responses.size());
+        return responses.get(0);
+    }
+
+    /**
+     * Description: Returns the same object on every get and records stores.
+     */
+    private static class FixedDataSource extends DataSource<StringBuilder> {
+
+        private StringBuilder response;
+        private boolean isStale;
+        private final List<StringBuilder> stored = new ArrayList<>();
+
+        FixedDataSource(StringBuilder response) {
+            this.response = response;
+        }
+
+        @Override
+        protected void doGet(SourceParams sourceParams, DataController.Success<StringBuilder> success,
+                             DataController.Error error) {
+            success.onSuccess(new DataControllerResponse<>(response, getSourceType(), null, sourceParams, isStale));
+        }
+
+        @Override
+        protected void doStore(DataControllerResponse<StringBuilder> dataControllerResponse) {
+            stored.add(dataControllerResponse.getResponse());
+        }
+
+        @Override
+        public void cancel() {
+        }
+
+        @Override
+        public SourceType getSourceType() {
+            return SourceType.DISK;
+        }
+    }
+}
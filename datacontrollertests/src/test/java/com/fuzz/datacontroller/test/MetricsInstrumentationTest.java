@@ -0,0 +1,81 @@
+package com.fuzz.datacontroller.test;
+
+import com.fuzz.datacontroller.DataController;
+import com.fuzz.datacontroller.DataControllerResponse;
+import com.fuzz.datacontroller.DataResponseError;
+import com.fuzz.datacontroller.metrics.LatencyHistogram;
+import com.fuzz.datacontroller.metrics.MetricsInstrumentation;
+import com.fuzz.datacontroller.source.DataSource.SourceType;
+import com.fuzz.datacontroller.source.MemoryDataSource;
+import com.fuzz.datacontroller.strategy.OneShotRefreshStrategy;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Description: Validates that a {@link DataController} reports to its instrumentation.
+ */
+public class MetricsInstrumentationTest {
+
+    @Test
+    public void test_reportsControllerMetrics() {
+        DataController<String> dataController = new DataController<>();
+        MetricsInstrumentation instrumentation = new MetricsInstrumentation();
+        dataController.setInstrumentation(instrumentation);
+        dataController.registerDataSource(new MemoryDataSource<String>());
+        dataController.registerDataSource(new MockDataSource<String>(new OneShotRefreshStrategy<String>()) {
+            @Override
+            protected void doGet(SourceParams sourceParams, DataController.Success<String> success,
+                                 DataController.Error error) {
+                success.onSuccess(new DataControllerResponse<>("network", getSourceType()));
+            }
+
+            @Override
+            public SourceType getSourceType() {
+                return SourceType.NETWORK;
+            }
+        });
+        dataController.registerForCallbacks(new DataController.DataControllerCallback<String>() {
+            @Override
+            public void onFailure(DataResponseError dataResponseError) {
+            }
+
+            @Override
+            public void onSuccess(DataControllerResponse<String> response) {
+            }
+        });
+
+        dataController.requestData();
+        dataController.requestData();
+
+        MetricsInstrumentation.SourceMetrics networkMetrics = instrumentation.getSourceMetrics(SourceType.NETWORK);
+        assertEquals(1, networkMetrics.getGetCount());
+        assertEquals(1, networkMetrics.getRefreshDeclinedCount());
+
+        MetricsInstrumentation.SourceMetrics memoryMetrics = instrumentation.getSourceMetrics(SourceType.MEMORY);
+        assertEquals(2, memoryMetrics.getGetCount());
+        assertEquals(1, memoryMetrics.getHitCount());
+        assertEquals(1, memoryMetrics.getMissCount());
+        assertEquals(1, memoryMetrics.getStoreLatency().getCount());
+
+        assertEquals(2, instrumentation.getRequestLatency().getCount());
+        assertEquals(3, instrumentation.getCallbackCount());
+    }
+
+    @Test
+    public void test_latencyHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1000000L, histogram.getMax());
+        long p50 = histogram.getValueAtPercentile(50);
+        assertTrue(Math.abs(p50 - 500000L) < 500000L * 0.04);
+        long p99 = histogram.getValueAtPercentile(99);
+        assertTrue(Math.abs(p99 - 990000L) < 990000L * 0.04);
+        assertEquals(1000000L, histogram.getValueAtPercentile(100));
+    }
+}
@@ -14,6 +14,13 @@ public abstract class MockDataSource<TResponse> extends DataSource<TResponse> {
     private boolean isStoreCalled;
     private boolean isGetStoredCalled;
 
+    public MockDataSource(RefreshStrategy<TResponse> refreshStrategy) {
+        super(refreshStrategy);
+    }
+
+    public MockDataSource() {
+    }
+
     @Override
     protected void doGet(SourceParams sourceParams, DataController.Success<TResponse> success, DataController.Error error) {
         isGetCalled = true;
@@ -0,0 +1,197 @@
+package com.fuzz.datacontroller.test;
+
+import com.fuzz.datacontroller.DataControllerResponse;
+import com.fuzz.datacontroller.codec.BinaryCodecs;
+import com.fuzz.datacontroller.codec.Codec;
+import com.fuzz.datacontroller.source.DataSource;
+import com.fuzz.datacontroller.source.DataSource.SourceParams;
+import com.fuzz.datacontroller.source.DataSource.SourceType;
+import com.fuzz.datacontroller.source.KeyedMemoryDataSource;
+import com.fuzz.datacontroller.source.OffHeapMemoryDataSource;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Description: Validates storage, budget and eviction of the {@link OffHeapMemoryDataSource}.
+ */
+public class OffHeapMemoryDataSourceTest {
+
+    private static final DataSource.RefreshStrategy<String> ALWAYS = new DataSource.RefreshStrategy<String>() {
+        @Override
+        public boolean shouldRefresh(DataSource<String> dataSource) {
+            return true;
+        }
+    };
+
+    @Test
+    public void test_storesAndDecodesPerKey() {
+        OffHeapMemoryDataSource<Integer, String> dataSource = new OffHeapMemoryDataSource<>(
+                KeyedMemoryDataSource.indexKeyExtractor(), BinaryCodecs.stringCodec(), 1 << 20);
+        dataSource.store(response("one", 1));
+        dataSource.store(response("two", 2));
+        dataSource.store(response("uno", 1));
+
+        assertEquals("uno", dataSource.getStoredData(params(1)));
+        assertEquals("two", dataSource.getStoredData(params(2)));
+        assertNull(dataSource.getStoredData(params(3)));
+        assertEquals(2, dataSource.size());
+        assertEquals(8, dataSource.getUsedBytes());
+        assertEquals(1 << 20, dataSource.getAllocatedBytes());
+
+        dataSource.clearStoredData(params(1));
+        assertNull(dataSource.getStoredData(params(1)));
+        assertEquals(4, dataSource.getUsedBytes());
+    }
+
+    @Test
+    public void test_evictsWithinBudget() {
+        // one slab of 256 bytes carves four 64 byte chunks.
+        OffHeapMemoryDataSource<Integer, String> dataSource = new OffHeapMemoryDataSource<>(ALWAYS,
+                KeyedMemoryDataSource.indexKeyExtractor(), BinaryCodecs.stringCodec(), 256, 256);
+        for (int i = 0; i < 4; i++) {
+            dataSource.store(response("value" + i, i));
+        }
+        dataSource.getStoredData(params(0));
+        dataSource.store(response("value4", 4));
+
+        assertEquals(4, dataSource.size());
+        assertEquals(1, dataSource.getEvictionCount());
+        assertEquals("value0", dataSource.getStoredData(params(0)));
+        assertNull(dataSource.getStoredData(params(1)));
+        assertEquals("value4", dataSource.getStoredData(params(4)));
+        assertEquals(256, dataSource.getAllocatedBytes());
+    }
+
+    @Test
+    public void test_rejectsOversizedResponses() {
+        OffHeapMemoryDataSource<Integer, String> dataSource = new OffHeapMemoryDataSource<>(ALWAYS,
+                KeyedMemoryDataSource.indexKeyExtractor(), BinaryCodecs.stringCodec(), 256, 128);
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            builder.append('a');
+        }
+        dataSource.store(response(builder.toString(), 1));
+
+        assertNull(dataSource.getStoredData(params(1)));
+        assertEquals(1, dataSource.getRejectedCount());
+        assertEquals(0, dataSource.getAllocatedBytes());
+    }
+
+    @Test
+    public void test_emptySlabIsCarvedForAnotherSize() {
+        // the only slab is first carved into 64 byte chunks.
+        OffHeapMemoryDataSource<Integer, String> dataSource = new OffHeapMemoryDataSource<>(ALWAYS,
+                KeyedMemoryDataSource.indexKeyExtractor(), BinaryCodecs.stringCodec(), 256, 256);
+        dataSource.store(response("small", 1));
+        dataSource.store(response(repeat('a', 100), 2));
+
+        assertNull(dataSource.getStoredData(params(1)));
+        assertEquals(repeat('a', 100), dataSource.getStoredData(params(2)));
+        assertEquals(1, dataSource.getEvictionCount());
+        assertEquals(0, dataSource.getRejectedCount());
+
+        dataSource.clearStoredData(params(2));
+        dataSource.store(response(repeat('b', 200), 3));
+        assertEquals(repeat('b', 200), dataSource.getStoredData(params(3)));
+        assertEquals(256, dataSource.getAllocatedBytes());
+    }
+
+    @Test
+    public void test_failedEncodeReleasesChunk() {
+        final boolean[] failing = {true};
+        Codec<String> codec = new Codec<String>() {
+            @Override
+            public int sizeOf(String response) {
+                return BinaryCodecs.stringCodec().sizeOf(response);
+            }
+
+            @Override
+            public void encode(String response, ByteBuffer buffer) {
+                if (failing[0]) {
+                    throw new IllegalStateException("encode failed");
+                }
+                BinaryCodecs.stringCodec().encode(response, buffer);
+            }
+
+            @Override
+            public String decode(ByteBuffer buffer) {
+                return BinaryCodecs.stringCodec().decode(buffer);
+            }
+        };
+        // a single 64 byte chunk, leaking it would reject every later store.
+        OffHeapMemoryDataSource<Integer, String> dataSource = new OffHeapMemoryDataSource<>(ALWAYS,
+                KeyedMemoryDataSource.indexKeyExtractor(), codec, 64, 64);
+        try {
+            dataSource.store(response("one", 1));
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+        assertEquals(0, dataSource.size());
+
+        failing[0] = false;
+        dataSource.store(response("two", 2));
+        assertEquals("two", dataSource.getStoredData(params(2)));
+        assertEquals(0, dataSource.getRejectedCount());
+    }
+
+    @Test
+    public void test_failedEncodeKeepsPreviousValue() {
+        final AtomicBoolean failing = new AtomicBoolean();
+        Codec<String> codec = new Codec<String>() {
+            @Override
+            public int sizeOf(String response) {
+                return BinaryCodecs.stringCodec().sizeOf(response);
+            }
+
+            @Override
+            public void encode(String response, ByteBuffer buffer) {
+                if (failing.get()) {
+                    throw new IllegalStateException("encode failed");
+                }
+                BinaryCodecs.stringCodec().encode(response, buffer);
+            }
+
+            @Override
+            public String decode(ByteBuffer buffer) {
+                return BinaryCodecs.stringCodec().decode(buffer);
+            }
+        };
+        OffHeapMemoryDataSource<Integer, String> dataSource = new OffHeapMemoryDataSource<>(ALWAYS,
+                KeyedMemoryDataSource.indexKeyExtractor(), codec, 64, 64);
+        dataSource.store(response("one", 1));
+
+        failing.set(true);
+        try {
+            dataSource.store(response("replaced", 1));
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+        assertEquals("one", dataSource.getStoredData(params(1)));
+        assertEquals(1, dataSource.size());
+    }
+
+    private static String repeat(char c, int count) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+
+    private static DataControllerResponse<String> response(String value, int index) {
+        return new DataControllerResponse<>(value, SourceType.NETWORK, null, params(index));
+    }
+
+    private static SourceParams params(int index) {
+        SourceParams sourceParams = new SourceParams();
+        sourceParams.index = index;
+        return sourceParams;
+    }
+}
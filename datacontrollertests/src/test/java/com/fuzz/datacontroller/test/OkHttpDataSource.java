@@ -7,17 +7,21 @@ import com.fuzz.datacontroller.source.DataSource;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import okhttp3.Call;
 import okhttp3.Callback;
 import okhttp3.Response;
 
 /**
- * Description: Defines a datafetcher for OkHttp.
+ * Description: Defines a datafetcher for OkHttp. Every request gets its own {@link Call}, so requests can be
+ * cancelled one by one.
  */
 public abstract class OkHttpDataSource<TResponse> extends DataSource<TResponse> {
 
-    private Call call;
+    // the calls in flight and the params they were made with.
+    private final Map<Call, SourceParams> calls = new ConcurrentHashMap<>();
 
     private final Type responseClass;
 
@@ -39,17 +43,18 @@ public abstract class OkHttpDataSource<TResponse> extends DataSource<TResponse>
     @Override
     protected void doGet(SourceParams sourceParams, final DataController.Success<TResponse> success,
                          final DataController.Error error) {
-        if (call == null) {
-            call = createCall();
-        }
+        Call call = createCall(sourceParams);
+        calls.put(call, sourceParams != null ? sourceParams : new SourceParams());
         call.enqueue(new Callback() {
             @Override
             public void onFailure(Call call, IOException e) {
+                calls.remove(call);
                 error.onFailure(new DataResponseError(e));
             }
 
             @Override
             public void onResponse(Call call, Response response) throws IOException {
+                calls.remove(call);
                 if (response.isSuccessful()) {
                     try {
                         TResponse tResponse = NetworkApiManager.get().getGson().fromJson(response.body().charStream(), responseClass);
@@ -70,9 +75,21 @@ public abstract class OkHttpDataSource<TResponse> extends DataSource<TResponse>
 
     @Override
     public void cancel() {
-        if (call != null && !call.isCanceled()) {
+        for (Call call : calls.keySet()) {
             call.cancel();
         }
+        calls.clear();
+    }
+
+    @Override
+    public void cancel(SourceParams sourceParams) {
+        SourceParams params = sourceParams != null ? sourceParams : new SourceParams();
+        for (Map.Entry<Call, SourceParams> entry : calls.entrySet()) {
+            if (entry.getValue().equals(params)) {
+                entry.getKey().cancel();
+                calls.remove(entry.getKey());
+            }
+        }
     }
 
     protected void callSuccess(TResponse response, String originalUrl, DataController.Success<TResponse> success) {
@@ -88,4 +105,11 @@ public abstract class OkHttpDataSource<TResponse> extends DataSource<TResponse>
     }
 
     protected abstract Call createCall();
+
+    /**
+     * Creates a new call for a single request. Override to build the request from the params.
+     */
+    protected Call createCall(SourceParams sourceParams) {
+        return createCall();
+    }
 }
@@ -0,0 +1,221 @@
+package com.fuzz.datacontroller.test;
+
+import com.fuzz.datacontroller.DataController;
+import com.fuzz.datacontroller.DataControllerRequest;
+import com.fuzz.datacontroller.DataControllerResponse;
+import com.fuzz.datacontroller.DataSourceChainer;
+import com.fuzz.datacontroller.paging.PageParams;
+import com.fuzz.datacontroller.paging.Pager;
+import com.fuzz.datacontroller.source.DataSource;
+import com.fuzz.datacontroller.source.DataSource.SourceParams;
+import com.fuzz.datacontroller.source.KeyedMemoryDataSource;
+import com.fuzz.datacontroller.source.SnapshotSingleTypeDataSourceContainer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Description: Validates prefetch, cursors and eviction of the {@link Pager}.
+ */
+public class PagerTest {
+
+    private static final int PAGE_COUNT = 10;
+
+    private final List<PageParams> networkRequests = new ArrayList<>();
+    private final AtomicReference<DataController.Success<String>> pendingSuccess = new AtomicReference<>();
+    private int pendingPage = -1;
+    private DataController<String> dataController;
+    private KeyedMemoryDataSource<Integer, String> memoryDataSource;
+    private KeyedMemoryDataSource<Integer, String> diskDataSource;
+    private Pager<String> pager;
+
+    @Before
+    public void before_test_Init() {
+        dataController = new DataController<>(new SnapshotSingleTypeDataSourceContainer<String>(),
+                new DataSourceChainer<String>() {
+                    @Override
+                    public boolean shouldQueryNext(DataSource<String> lastSource, DataSource<String> sourceToChain) {
+                        return true;
+                    }
+                }, new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        });
+        memoryDataSource = new KeyedMemoryDataSource<>(KeyedMemoryDataSource.indexKeyExtractor(), 100);
+        dataController.registerDataSource(memoryDataSource);
+        diskDataSource = new KeyedMemoryDataSource<Integer, String>(KeyedMemoryDataSource.indexKeyExtractor(), 100) {
+            @Override
+            public SourceType getSourceType() {
+                return SourceType.DISK;
+            }
+        };
+        dataController.registerDataSource(diskDataSource);
+        dataController.registerDataSource(new MockDataSource<String>() {
+            @Override
+            protected void doGet(SourceParams sourceParams, DataController.Success<String> success,
+                                 DataController.Error error) {
+                PageParams pageParams = (PageParams) sourceParams;
+                networkRequests.add(pageParams);
+                // cursor of page n is "c" + n.
+                assertEquals(pageParams.getPage() == 0 ? null : "c" + pageParams.getPage(), pageParams.cursor);
+                if (pageParams.getPage() == pendingPage) {
+                    pendingSuccess.set(success);
+                    return;
+                }
+                success.onSuccess(new DataControllerResponse<>("page" + pageParams.getPage(), getSourceType()));
+            }
+
+            @Override
+            public SourceType getSourceType() {
+                return SourceType.NETWORK;
+            }
+        });
+        pager = new Pager<>(dataController, 20, 2, 3, new Pager.CursorExtractor<String>() {
+            @Override
+            public String getNextCursor(PageParams pageParams, String page) {
+                int next = pageParams.getPage() + 1;
+                return next < PAGE_COUNT ? "c" + next : null;
+            }
+        });
+    }
+
+    @Test
+    public void test_prefetchesAhead() throws Exception {
+        DataControllerResponse<String> response = pager.getPage(0).get(5, TimeUnit.SECONDS);
+        assertEquals("page0", response.getResponse());
+        assertEquals(new HashSet<>(Arrays.asList(0, 1, 2)), pager.getRetainedPages());
+        assertEquals(3, networkRequests.size());
+        assertEquals("page2", memoryDataSource.getStoredData(params(2)));
+
+        // consuming a prefetched page does not refetch it, only the one past the window.
+        assertEquals("page1", pager.getPage(1).get(5, TimeUnit.SECONDS).getResponse());
+        assertEquals(4, networkRequests.size());
+        assertEquals(20, networkRequests.get(3).pageSize);
+    }
+
+    @Test
+    public void test_evictsFarPages() throws Exception {
+        for (int page = 0; page <= 6; page++) {
+            pager.getPage(page).get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(new HashSet<>(Arrays.asList(3, 4, 5, 6, 7, 8)), pager.getRetainedPages());
+        assertNull(memoryDataSource.getStoredData(params(2)));
+        assertNotNull(memoryDataSource.getStoredData(params(3)));
+        // only the memory tier follows the window.
+        assertEquals("page2", diskDataSource.getStoredData(params(2)));
+
+        // going back reloads the evicted page with its remembered cursor.
+        assertEquals("page1", pager.getPage(1).get(5, TimeUnit.SECONDS).getResponse());
+        assertFalse(pager.getRetainedPages().contains(6));
+    }
+
+    @Test
+    public void test_cancelsPagesEvictedWhileLoading() throws Exception {
+        pendingPage = 5;
+        for (int page = 0; page <= 3; page++) {
+            pager.getPage(page).get(5, TimeUnit.SECONDS);
+        }
+        assertTrue(pager.getRetainedPages().contains(5));
+        // another request waits on the same call, so it keeps running past the eviction.
+        DataControllerRequest<String> otherRequest = dataController.requestDataAsync(new PageParams(5, 20, "c5"));
+
+        pager.getPage(0);
+        assertFalse(pager.getRetainedPages().contains(5));
+        pendingSuccess.get().onSuccess(new DataControllerResponse<>("page5", DataSource.SourceType.NETWORK));
+
+        assertEquals("page5", otherRequest.get(5, TimeUnit.SECONDS).getResponse());
+        assertNull(memoryDataSource.getStoredData(params(5)));
+        assertEquals("page5", diskDataSource.getStoredData(params(5)));
+    }
+
+    @Test
+    public void test_cancelledPageIsNotStored() throws Exception {
+        pendingPage = 5;
+        for (int page = 0; page <= 3; page++) {
+            pager.getPage(page).get(5, TimeUnit.SECONDS);
+        }
+        pager.getPage(0);
+        pendingSuccess.get().onSuccess(new DataControllerResponse<>("page5", DataSource.SourceType.NETWORK));
+
+        assertNull(memoryDataSource.getStoredData(params(5)));
+        assertNull(diskDataSource.getStoredData(params(5)));
+    }
+
+    @Test
+    public void test_stopsAtLastPage() throws Exception {
+        for (int page = 0; page < PAGE_COUNT; page++) {
+            pager.getPage(page).get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(PAGE_COUNT - 1, pager.getLastPage());
+        assertEquals(PAGE_COUNT, networkRequests.size());
+        try {
+            pager.getPage(PAGE_COUNT);
+            throw new AssertionError("Expected out of range.");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("out of range"));
+        }
+    }
+
+    @Test
+    public void test_declinedPageCompletesAndCanBeRetried() throws Exception {
+        DataController<String> dataController = new DataController<>(new SnapshotSingleTypeDataSourceContainer<String>(),
+                new DataSourceChainer<String>() {
+                    @Override
+                    public boolean shouldQueryNext(DataSource<String> lastSource, DataSource<String> sourceToChain) {
+                        return true;
+                    }
+                }, new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        });
+        dataController.registerDataSource(new KeyedMemoryDataSource<>(new DataSource.RefreshStrategy<String>() {
+            @Override
+            public boolean shouldRefresh(DataSource<String> dataSource) {
+                return false;
+            }
+        }, KeyedMemoryDataSource.indexKeyExtractor(), 100, new KeyedMemoryDataSource.Weigher<String>() {
+            @Override
+            public int weigh(String response) {
+                return 1;
+            }
+        }, 1));
+        Pager<String> pager = new Pager<>(dataController, 20, 2, 3, new Pager.CursorExtractor<String>() {
+            @Override
+            public String getNextCursor(PageParams pageParams, String page) {
+                return null;
+            }
+        });
+
+        assertNull(pager.getPage(0).get(5, TimeUnit.SECONDS));
+        assertTrue(pager.getRetainedPages().isEmpty());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void test_requiresCursor() {
+        pager.getPage(5);
+    }
+
+    private static SourceParams params(int index) {
+        SourceParams sourceParams = new SourceParams();
+        sourceParams.index = index;
+        return sourceParams;
+    }
+}
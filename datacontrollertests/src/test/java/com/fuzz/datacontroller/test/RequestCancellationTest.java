@@ -0,0 +1,207 @@
+package com.fuzz.datacontroller.test;
+
+import com.fuzz.datacontroller.DataController;
+import com.fuzz.datacontroller.DataControllerRequest;
+import com.fuzz.datacontroller.DataControllerResponse;
+import com.fuzz.datacontroller.DataResponseError;
+import com.fuzz.datacontroller.source.DataSource;
+import com.fuzz.datacontroller.source.DataSourceStorage;
+import com.fuzz.datacontroller.source.MemoryDataSource;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Description: Ensures cancelling a {@link DataControllerRequest} stops only that request, and that requests
+ * complete when the controller is cancelled or their sources decline.
+ */
+public class RequestCancellationTest {
+
+    private final Map<Integer, DataController.Success<String>> pendingSuccess = new HashMap<>();
+    private final List<Integer> cancelledIndexes = new ArrayList<>();
+    private int cancelAllCount;
+    private int successCount;
+
+    private DataController<String> dataController;
+
+    @Before
+    public void before_test_Init() {
+        dataController = new DataController<>();
+        dataController.registerDataSource(pendingDataSource);
+        dataController.registerForCallbacks(dataControllerCallback);
+    }
+
+    @Test
+    public void test_cancelStopsOnlyThatRequest() {
+        DataControllerRequest<String> first = dataController.requestData(params(1));
+        DataControllerRequest<String> second = dataController.requestData(params(2));
+
+        assertTrue(first.cancel());
+        assertTrue(first.isCancelled());
+        assertEquals(1, cancelledIndexes.size());
+        assertEquals(1, (int) cancelledIndexes.get(0));
+        assertEquals(0, cancelAllCount);
+
+        // a late result of the cancelled call is dropped.
+        pendingSuccess.get(1).onSuccess(new DataControllerResponse<>("first", DataSource.SourceType.NETWORK));
+        assertEquals(0, successCount);
+
+        pendingSuccess.get(2).onSuccess(new DataControllerResponse<>("second", DataSource.SourceType.NETWORK));
+        assertEquals(1, successCount);
+        assertTrue(second.isDone());
+        assertFalse(second.isCancelled());
+        assertEquals(1, dataController.getRequestCoalescer().getCancelledCount());
+    }
+
+    @Test
+    public void test_joinedCallSurvivesUntilLastRequestCancels() throws Exception {
+        DataControllerRequest<String> first = dataController.requestData(params(1));
+        DataControllerRequest<String> second = dataController.requestData(params(1));
+        assertEquals(1, dataController.getRequestCoalescer().getCoalescedCount());
+
+        first.cancel();
+        assertTrue(cancelledIndexes.isEmpty());
+        assertEquals(1, dataController.getRequestCoalescer().getInFlightCount());
+
+        pendingSuccess.get(1).onSuccess(new DataControllerResponse<>("shared", DataSource.SourceType.NETWORK));
+        assertEquals("shared", second.get().getResponse());
+        assertEquals(1, successCount);
+    }
+
+    @Test
+    public void test_cancellingAllJoinedRequestsCancelsCall() {
+        DataControllerRequest<String> first = dataController.requestData(params(1));
+        DataControllerRequest<String> second = dataController.requestData(params(1));
+
+        first.cancel();
+        second.cancel();
+        assertEquals(1, cancelledIndexes.size());
+        assertEquals(0, dataController.getRequestCoalescer().getInFlightCount());
+
+        // the next equal request starts a fresh call.
+        dataController.requestData(params(1));
+        assertEquals(1, dataController.getRequestCoalescer().getInFlightCount());
+    }
+
+    @Test
+    public void test_cancelSpecificRequest() {
+        DataControllerRequest<String> request = dataController.requestSpecific(
+                DataSourceStorage.DataSourceParams.networkParams(), params(3));
+        assertTrue(request.cancel());
+        assertEquals(1, cancelledIndexes.size());
+        assertEquals(3, (int) cancelledIndexes.get(0));
+    }
+
+    @Test
+    public void test_completedRequestCannotBeCancelled() {
+        DataControllerRequest<String> request = dataController.requestData(params(1));
+        pendingSuccess.get(1).onSuccess(new DataControllerResponse<>("done", DataSource.SourceType.NETWORK));
+
+        assertFalse(request.cancel());
+        assertTrue(cancelledIndexes.isEmpty());
+    }
+
+    @Test
+    public void test_controllerCancelFailsPendingRequests() throws Exception {
+        DataControllerRequest<String> first = dataController.requestData(params(1));
+        DataControllerRequest<String> second = dataController.requestData(params(1));
+
+        dataController.cancel();
+        assertEquals(1, cancelAllCount);
+        assertEquals(0, dataController.getRequestCoalescer().getInFlightCount());
+        assertCancelled(first);
+        assertCancelled(second);
+
+        // a late result of the cancelled source is dropped.
+        pendingSuccess.get(1).onSuccess(new DataControllerResponse<>("late", DataSource.SourceType.NETWORK));
+        assertEquals(0, successCount);
+    }
+
+    @Test
+    public void test_declinedRequestsComplete() throws Exception {
+        DataController<String> dataController = new DataController<>();
+        dataController.registerDataSource(new MemoryDataSource<>(new DataSource.RefreshStrategy<String>() {
+            @Override
+            public boolean shouldRefresh(DataSource<String> dataSource) {
+                return false;
+            }
+        }));
+
+        DataControllerRequest<String> request = dataController.requestData(params(1));
+        assertTrue(request.isDone());
+        assertNull(request.get());
+
+        request = dataController.requestSpecific(DataSourceStorage.DataSourceParams.memoryParams(), params(1));
+        assertTrue(request.isDone());
+        assertNull(request.get());
+    }
+
+    private static void assertCancelled(DataControllerRequest<String> request) throws InterruptedException {
+        assertTrue(request.isDone());
+        assertTrue(request.getError().getThrowable() instanceof CancellationException);
+        try {
+            request.get();
+            fail("Expected the request to fail.");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof CancellationException);
+        }
+    }
+
+    private static DataSource.SourceParams params(int index) {
+        DataSource.SourceParams sourceParams = new DataSource.SourceParams();
+        sourceParams.index = index;
+        return sourceParams;
+    }
+
+    private final DataSource<String> pendingDataSource = new DataSource<String>() {
+        @Override
+        public void cancel() {
+            cancelAllCount++;
+        }
+
+        @Override
+        public void cancel(SourceParams sourceParams) {
+            cancelledIndexes.add(sourceParams.index);
+        }
+
+        @Override
+        protected void doGet(SourceParams sourceParams, DataController.Success<String> success,
+                             DataController.Error error) {
+            pendingSuccess.put(sourceParams.index, success);
+        }
+
+        @Override
+        protected void doStore(DataControllerResponse<String> dataControllerResponse) {
+        }
+
+        @Override
+        public SourceType getSourceType() {
+            return SourceType.NETWORK;
+        }
+    };
+
+    private final DataController.DataControllerCallback<String> dataControllerCallback
+            = new DataController.DataControllerCallback<String>() {
+        @Override
+        public void onFailure(DataResponseError dataResponseError) {
+        }
+
+        @Override
+        public void onSuccess(DataControllerResponse<String> response) {
+            successCount++;
+        }
+    };
+}
@@ -0,0 +1,132 @@
+package com.fuzz.datacontroller.test;
+
+import com.fuzz.datacontroller.DataController;
+import com.fuzz.datacontroller.DataControllerRequest;
+import com.fuzz.datacontroller.DataControllerResponse;
+import com.fuzz.datacontroller.DataResponseError;
+import com.fuzz.datacontroller.RequestCoalescer;
+import com.fuzz.datacontroller.source.DataSource;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Description: Ensures concurrent equal requests are merged into one call.
+ */
+public class RequestCoalescerTest {
+
+    private int getCount;
+    private int successCount;
+    private DataController.Success<String> pendingSuccess;
+
+    @Test
+    public void test_coalescesEqualRequests() {
+        DataController<String> dataController = new DataController<>();
+        dataController.registerDataSource(pendingDataSource);
+        dataController.registerForCallbacks(dataControllerCallback);
+
+        dataController.requestData(params(1));
+        dataController.requestData(params(1));
+        dataController.requestData(params(2));
+        assertEquals(2, getCount);
+
+        RequestCoalescer<String> coalescer = dataController.getRequestCoalescer();
+        assertEquals(3, coalescer.getRequestCount());
+        assertEquals(1, coalescer.getCoalescedCount());
+        assertEquals(2, coalescer.getInFlightCount());
+
+        pendingSuccess.onSuccess(new DataControllerResponse<>("", DataSource.SourceType.NETWORK));
+        assertEquals(1, successCount);
+        assertEquals(1, coalescer.getInFlightCount());
+    }
+
+    @Test
+    public void test_laterResultsOfACallAreDelivered() throws Exception {
+        DataController<String> dataController = new DataController<>();
+        dataController.registerDataSource(pendingDataSource);
+        dataController.registerForCallbacks(dataControllerCallback);
+
+        DataControllerRequest<String> request = dataController.requestData(params(1));
+        pendingSuccess.onSuccess(new DataControllerResponse<>("stored", DataSource.SourceType.NETWORK));
+        // i.e. a refresh following the stored value.
+        pendingSuccess.onSuccess(new DataControllerResponse<>("refreshed", DataSource.SourceType.NETWORK));
+
+        assertEquals("stored", request.get().getResponse());
+        assertEquals(2, successCount);
+        assertEquals(0, dataController.getRequestCoalescer().getInFlightCount());
+    }
+
+    @Test
+    public void test_resultsOfCancelledCallsAreDropped() {
+        DataController<String> dataController = new DataController<>();
+        dataController.registerDataSource(pendingDataSource);
+        dataController.registerForCallbacks(dataControllerCallback);
+
+        dataController.requestData(params(1)).cancel();
+        pendingSuccess.onSuccess(new DataControllerResponse<>("stored", DataSource.SourceType.NETWORK));
+        pendingSuccess.onSuccess(new DataControllerResponse<>("refreshed", DataSource.SourceType.NETWORK));
+        assertEquals(0, successCount);
+    }
+
+    @Test
+    public void test_completedRequestsAreNotCoalesced() {
+        DataController<String> dataController = new DataController<>();
+        MockDataSource<String> mockDataSource = new MockDataSource<String>() {
+            @Override
+            public SourceType getSourceType() {
+                return SourceType.NETWORK;
+            }
+        };
+        dataController.registerDataSource(mockDataSource);
+
+        dataController.requestData(params(1));
+        dataController.requestData(params(1));
+
+        RequestCoalescer<String> coalescer = dataController.getRequestCoalescer();
+        assertEquals(0, coalescer.getCoalescedCount());
+        assertEquals(0, coalescer.getInFlightCount());
+    }
+
+    private static DataSource.SourceParams params(int index) {
+        DataSource.SourceParams sourceParams = new DataSource.SourceParams();
+        sourceParams.index = index;
+        return sourceParams;
+    }
+
+    private final DataSource<String> pendingDataSource = new DataSource<String>() {
+        @Override
+        public void cancel() {
+        }
+
+        @Override
+        protected void doGet(SourceParams sourceParams, DataController.Success<String> success,
+                             DataController.Error error) {
+            getCount++;
+            if (sourceParams.index == 1) {
+                pendingSuccess = success;
+            }
+        }
+
+        @Override
+        protected void doStore(DataControllerResponse<String> dataControllerResponse) {
+        }
+
+        @Override
+        public SourceType getSourceType() {
+            return SourceType.NETWORK;
+        }
+    };
+
+    private final DataController.DataControllerCallback<String> dataControllerCallback
+            = new DataController.DataControllerCallback<String>() {
+        @Override
+        public void onFailure(DataResponseError dataResponseError) {
+        }
+
+        @Override
+        public void onSuccess(DataControllerResponse<String> response) {
+            successCount++;
+        }
+    };
+}
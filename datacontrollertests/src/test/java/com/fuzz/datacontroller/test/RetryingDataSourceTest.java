@@ -0,0 +1,152 @@
+package com.fuzz.datacontroller.test;
+
+import com.fuzz.datacontroller.DataController;
+import com.fuzz.datacontroller.DataControllerResponse;
+import com.fuzz.datacontroller.DataResponseError;
+import com.fuzz.datacontroller.source.DataSource.SourceParams;
+import com.fuzz.datacontroller.source.ErrorClassifier;
+import com.fuzz.datacontroller.source.RetryBudget;
+import com.fuzz.datacontroller.source.RetryingDataSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Description: Validates retries, their classification and their budget on the {@link RetryingDataSource}.
+ */
+public class RetryingDataSourceTest {
+
+    private ScheduledExecutorService scheduler;
+
+    @Before
+    public void before_test_Init() {
+        scheduler = Executors.newScheduledThreadPool(2);
+    }
+
+    @After
+    public void after_test_Shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void test_retriesTransientFailures() throws Exception {
+        LatencyInjectingDataSource source = new LatencyInjectingDataSource("network", 1, scheduler)
+                .enqueueDelays(-1, -1);
+        RetryingDataSource<String> dataSource = new RetryingDataSource<>(source, scheduler,
+                ErrorClassifier.DEFAULT, new RetryBudget(), 3, 1, 10);
+
+        assertEquals("network", await(dataSource));
+        assertEquals(3, source.getCallCount());
+        assertEquals(2, dataSource.getRetryBudget().getRetryCount());
+    }
+
+    @Test
+    public void test_stopsAfterMaxAttempts() throws Exception {
+        LatencyInjectingDataSource source = new LatencyInjectingDataSource("network", -1, scheduler);
+        RetryingDataSource<String> dataSource = new RetryingDataSource<>(source, scheduler,
+                ErrorClassifier.DEFAULT, new RetryBudget(), 3, 1, 10);
+
+        assertEquals("error: injected failure", await(dataSource));
+        assertEquals(3, source.getCallCount());
+    }
+
+    @Test
+    public void test_doesNotRetryPermanentFailures() throws Exception {
+        LatencyInjectingDataSource source = new LatencyInjectingDataSource("network", -1, scheduler);
+        RetryingDataSource<String> dataSource = new RetryingDataSource<>(source, scheduler,
+                new ErrorClassifier() {
+                    @Override
+                    public boolean isTransient(DataResponseError dataResponseError) {
+                        return false;
+                    }
+                }, new RetryBudget(), 3, 1, 10);
+
+        assertEquals("error: injected failure", await(dataSource));
+        assertEquals(1, source.getCallCount());
+    }
+
+    @Test
+    public void test_budgetCapsRetries() throws Exception {
+        LatencyInjectingDataSource source = new LatencyInjectingDataSource("network", -1, scheduler);
+        RetryBudget retryBudget = new RetryBudget(0.1f, 2);
+        RetryingDataSource<String> dataSource = new RetryingDataSource<>(source, scheduler,
+                ErrorClassifier.DEFAULT, retryBudget, 5, 0, 0);
+
+        for (int i = 0; i < 10; i++) {
+            await(dataSource);
+        }
+        // the reserve of 2 plus a tenth of a retry per request.
+        assertEquals(12, source.getCallCount());
+        assertEquals(2, retryBudget.getRetryCount());
+        assertTrue(retryBudget.getExhaustedCount() > 0);
+    }
+
+    @Test
+    public void test_budgetRefillsWithTraffic() {
+        RetryBudget retryBudget = new RetryBudget(0.5f, 1);
+        assertTrue(retryBudget.tryRetry());
+        assertFalse(retryBudget.tryRetry());
+
+        retryBudget.onRequest();
+        assertFalse(retryBudget.tryRetry());
+        retryBudget.onRequest();
+        assertTrue(retryBudget.tryRetry());
+
+        for (int i = 0; i < 10; i++) {
+            retryBudget.onRequest();
+        }
+        assertEquals(1, retryBudget.getAvailableRetries());
+    }
+
+    @Test
+    public void test_cancelStopsPendingRetries() throws Exception {
+        LatencyInjectingDataSource source = new LatencyInjectingDataSource("network", -1, scheduler);
+        RetryingDataSource<String> dataSource = new RetryingDataSource<>(source, scheduler,
+                ErrorClassifier.DEFAULT, new RetryBudget(), 3, 10000, 10000);
+
+        dataSource.get(new SourceParams(), new DataController.Success<String>() {
+            @Override
+            public void onSuccess(DataControllerResponse<String> response) {
+            }
+        }, new DataController.Error() {
+            @Override
+            public void onFailure(DataResponseError dataResponseError) {
+            }
+        });
+        Thread.sleep(100);
+        dataSource.cancel();
+        Thread.sleep(100);
+        assertEquals(1, source.getCallCount());
+    }
+
+    private static String await(RetryingDataSource<String> dataSource) throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<String> result = new AtomicReference<>();
+        dataSource.get(new SourceParams(), new DataController.Success<String>() {
+            @Override
+            public void onSuccess(DataControllerResponse<String> response) {
+                result.set(response.getResponse());
+                latch.countDown();
+            }
+        }, new DataController.Error() {
+            @Override
+            public void onFailure(DataResponseError dataResponseError) {
+                result.set("error: " + dataResponseError.getMessage());
+                latch.countDown();
+            }
+        });
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        return result.get();
+    }
+}
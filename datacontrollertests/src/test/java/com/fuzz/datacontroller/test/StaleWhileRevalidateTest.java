@@ -0,0 +1,155 @@
+package com.fuzz.datacontroller.test;
+
+import com.fuzz.datacontroller.DataController;
+import com.fuzz.datacontroller.DataControllerResponse;
+import com.fuzz.datacontroller.DataResponseError;
+import com.fuzz.datacontroller.StaleWhileRevalidateDataSourceChainer;
+import com.fuzz.datacontroller.source.DataSource;
+import com.fuzz.datacontroller.source.KeyedMemoryDataSource;
+import com.fuzz.datacontroller.source.MemoryDataSource;
+import com.fuzz.datacontroller.source.StaleWhileRevalidateDataSource;
+import com.fuzz.datacontroller.source.StoredDataMetadata;
+import com.fuzz.datacontroller.source.TreeMapSingleTypeDataSourceContainer;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Description: Validates stale data is served at once and revalidated by the next source.
+ */
+public class StaleWhileRevalidateTest {
+
+    private final List<DataControllerResponse<String>> responses = new ArrayList<>();
+    private int networkCount;
+
+    @Test
+    public void test_freshDataStopsChain() {
+        DataController<String> dataController = createController(60000L);
+
+        dataController.requestData();
+        assertEquals(1, networkCount);
+
+        dataController.requestData();
+        assertEquals(1, networkCount);
+        DataControllerResponse<String> response = responses.get(responses.size() - 1);
+        assertEquals("network", response.getResponse());
+        assertFalse(response.isStale());
+    }
+
+    @Test
+    public void test_staleDataServedAndRevalidated() {
+        DataController<String> dataController = createController(0L);
+
+        dataController.requestData();
+        assertEquals(1, networkCount);
+        responses.clear();
+
+        dataController.requestData();
+        assertEquals(2, networkCount);
+        assertEquals(2, responses.size());
+        assertTrue(responses.get(0).isStale());
+        assertEquals("network", responses.get(0).getResponse());
+        assertFalse(responses.get(1).isStale());
+    }
+
+    @Test
+    public void test_freshnessIsPerKey() {
+        KeyedMemoryDataSource<Integer, String> keyed = new KeyedMemoryDataSource<Integer, String>(
+                KeyedMemoryDataSource.indexKeyExtractor(), 8) {
+            @Override
+            public StoredDataMetadata getStoredDataMetadata(SourceParams sourceParams) {
+                if (sourceParams.index == 2) {
+                    // stored well past the max age.
+                    return new StoredDataMetadata(true, 1, System.currentTimeMillis() - 120000L, 1);
+                }
+                return super.getStoredDataMetadata(sourceParams);
+            }
+        };
+        StaleWhileRevalidateDataSource<String> dataSource = new StaleWhileRevalidateDataSource<>(keyed, 60000L);
+
+        dataSource.store(new DataControllerResponse<>("one", DataSource.SourceType.NETWORK, null, params(1)));
+        assertTrue(dataSource.hasFreshData(params(1)));
+        assertFalse(dataSource.hasFreshData(params(2)));
+        assertFalse(dataSource.hasFreshData(params(3)));
+    }
+
+    @Test
+    public void test_chainerUsesRequestParams() {
+        KeyedMemoryDataSource<Integer, String> keyed = new KeyedMemoryDataSource<Integer, String>(
+                KeyedMemoryDataSource.indexKeyExtractor(), 8) {
+            @Override
+            public StoredDataMetadata getStoredDataMetadata(SourceParams sourceParams) {
+                if (sourceParams.index == 2) {
+                    // stored well past the max age.
+                    return new StoredDataMetadata(true, 1, System.currentTimeMillis() - 120000L, 1);
+                }
+                return super.getStoredDataMetadata(sourceParams);
+            }
+        };
+        DataController<String> dataController = createController(
+                new StaleWhileRevalidateDataSource<>(keyed, 60000L));
+        keyed.store(new DataControllerResponse<>("one", DataSource.SourceType.NETWORK, null, params(1)));
+        keyed.store(new DataControllerResponse<>("two", DataSource.SourceType.NETWORK, null, params(2)));
+
+        dataController.requestData(params(1));
+        assertEquals(0, networkCount);
+        assertEquals(1, responses.size());
+        assertFalse(responses.get(0).isStale());
+
+        responses.clear();
+        dataController.requestData(params(2));
+        assertEquals(1, networkCount);
+        assertEquals(2, responses.size());
+        assertEquals("two", responses.get(0).getResponse());
+        assertTrue(responses.get(0).isStale());
+        assertEquals("network", responses.get(1).getResponse());
+    }
+
+    private static DataSource.SourceParams params(int index) {
+        DataSource.SourceParams sourceParams = new DataSource.SourceParams();
+        sourceParams.index = index;
+        return sourceParams;
+    }
+
+    private DataController<String> createController(long maxAge) {
+        return createController(new StaleWhileRevalidateDataSource<>(new MemoryDataSource<String>(), maxAge));
+    }
+
+    private DataController<String> createController(StaleWhileRevalidateDataSource<String> storage) {
+        DataController<String> dataController = new DataController<>(new TreeMapSingleTypeDataSourceContainer<String>(),
+                new StaleWhileRevalidateDataSourceChainer<String>());
+        dataController.registerDataSource(storage);
+        dataController.registerDataSource(new MockDataSource<String>() {
+            @Override
+            protected void doGet(SourceParams sourceParams, DataController.Success<String> success,
+                                 DataController.Error error) {
+                networkCount++;
+                success.onSuccess(new DataControllerResponse<>("network", getSourceType()));
+            }
+
+            @Override
+            public SourceType getSourceType() {
+                return SourceType.NETWORK;
+            }
+        });
+        dataController.registerForCallbacks(new DataController.DataControllerCallback<String>() {
+            @Override
+            public void onFailure(DataResponseError dataResponseError) {
+            }
+
+            @Override
+            public void onSuccess(DataControllerResponse<String> response) {
+                if (response.getResponse() != null) {
+                    responses.add(response);
+                }
+            }
+        });
+        return dataController;
+    }
+}
@@ -0,0 +1,96 @@
+package com.fuzz.datacontroller.test;
+
+import com.fuzz.datacontroller.DataControllerResponse;
+import com.fuzz.datacontroller.FirstStorageDataSourceChainer;
+import com.fuzz.datacontroller.source.DataSource;
+import com.fuzz.datacontroller.source.KeyedMemoryDataSource;
+import com.fuzz.datacontroller.source.MemoryDataSource;
+import com.fuzz.datacontroller.source.StaleWhileRevalidateDataSource;
+import com.fuzz.datacontroller.source.StoredDataMetadata;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Description: Validates stored data metadata is kept up to date without loading the data.
+ */
+public class StoredDataMetadataTest {
+
+    @Test
+    public void test_memoryMetadataFollowsStoreAndClear() {
+        MemoryDataSource<List<String>> dataSource = new MemoryDataSource<>();
+        DataSource.SourceParams sourceParams = new DataSource.SourceParams();
+        assertSame(StoredDataMetadata.NONE, dataSource.getStoredDataMetadata(sourceParams));
+
+        dataSource.store(new DataControllerResponse<>(Arrays.asList("a", "b"), DataSource.SourceType.NETWORK));
+        StoredDataMetadata first = dataSource.getStoredDataMetadata(sourceParams);
+        assertTrue(first.exists());
+        assertEquals(2, first.getSize());
+        assertTrue(first.getLastStoredTime() > 0);
+
+        dataSource.store(new DataControllerResponse<>(Arrays.asList("c"), DataSource.SourceType.NETWORK));
+        StoredDataMetadata second = dataSource.getStoredDataMetadata(sourceParams);
+        assertEquals(1, second.getSize());
+        assertTrue(second.getVersion() > first.getVersion());
+
+        dataSource.clearStoredData(sourceParams);
+        assertFalse(dataSource.hasStoredData());
+    }
+
+    @Test
+    public void test_keyedChainingDoesNotLoadData() {
+        KeyedMemoryDataSource<Integer, String> dataSource
+                = new KeyedMemoryDataSource<>(KeyedMemoryDataSource.indexKeyExtractor(), 8);
+        FirstStorageDataSourceChainer<String> chainer = new FirstStorageDataSourceChainer<>();
+        assertTrue(chainer.shouldQueryNext(dataSource, null));
+
+        dataSource.store(new DataControllerResponse<>("value", DataSource.SourceType.NETWORK, null,
+                new DataSource.SourceParams()));
+        assertFalse(chainer.shouldQueryNext(dataSource, null));
+        assertEquals(0, dataSource.getHitCount());
+        assertEquals(0, dataSource.getMissCount());
+    }
+
+    @Test
+    public void test_defaultFallsBackToStoredData() {
+        DataSource<String> dataSource = new MockDataSource<String>() {
+            @Override
+            public String getStoredData(SourceParams sourceParams) {
+                return "value";
+            }
+
+            @Override
+            public SourceType getSourceType() {
+                return SourceType.DISK;
+            }
+        };
+        StoredDataMetadata metadata = dataSource.getStoredDataMetadata(new DataSource.SourceParams());
+        assertTrue(metadata.exists());
+        assertEquals(1, metadata.getSize());
+        assertEquals(0, metadata.getLastStoredTime());
+    }
+
+    @Test
+    public void test_staleWhileRevalidateUsesPerKeyStoreTime() {
+        KeyedMemoryDataSource<Integer, String> keyed
+                = new KeyedMemoryDataSource<>(KeyedMemoryDataSource.indexKeyExtractor(), 8);
+        StaleWhileRevalidateDataSource<String> dataSource = new StaleWhileRevalidateDataSource<>(keyed, 60000L);
+        DataSource.SourceParams stored = new DataSource.SourceParams();
+        stored.index = 1;
+        DataSource.SourceParams missing = new DataSource.SourceParams();
+        missing.index = 2;
+
+        // stored around the wrapper, so only the per key time knows about it.
+        keyed.store(new DataControllerResponse<>("value", DataSource.SourceType.NETWORK, null, stored));
+        assertTrue(dataSource.isStale());
+        assertFalse(dataSource.isStale(stored));
+        assertTrue(dataSource.isStale(missing));
+    }
+}
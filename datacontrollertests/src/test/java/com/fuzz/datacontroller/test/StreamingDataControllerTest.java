@@ -0,0 +1,388 @@
+package com.fuzz.datacontroller.test;
+
+import com.fuzz.datacontroller.DataController;
+import com.fuzz.datacontroller.DataControllerRequest;
+import com.fuzz.datacontroller.DataControllerResponse;
+import com.fuzz.datacontroller.DataResponseError;
+import com.fuzz.datacontroller.DataSourceChainer;
+import com.fuzz.datacontroller.StoragePolicy;
+import com.fuzz.datacontroller.StreamingDataController;
+import com.fuzz.datacontroller.source.ChunkListener;
+import com.fuzz.datacontroller.source.ChunkedStore;
+import com.fuzz.datacontroller.source.DataSource;
+import com.fuzz.datacontroller.source.DataSource.SourceParams;
+import com.fuzz.datacontroller.source.DataSource.SourceType;
+import com.fuzz.datacontroller.source.MappingDataSource;
+import com.fuzz.datacontroller.source.MemoryDataSource;
+import com.fuzz.datacontroller.source.SnapshotSingleTypeDataSourceContainer;
+import com.fuzz.datacontroller.source.StreamingDataSource;
+import com.fuzz.datacontroller.source.StreamingMappingDataSource;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Description: Validates chunked delivery and storage of the {@link StreamingDataController}.
+ */
+public class StreamingDataControllerTest {
+
+    /**
+     * Streams 0 until count in chunks of the chunk size, failing after the first chunk if asked to.
+     */
+    private static class CountingDataSource extends StreamingDataSource<Integer> {
+
+        private final int count;
+        private final int chunkSize;
+        boolean shouldFail;
+        int streamCount;
+
+        CountingDataSource(int count, int chunkSize) {
+            this.count = count;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void doStream(SourceParams sourceParams, ChunkListener<Integer> chunkListener) {
+            streamCount++;
+            chunkListener.onBegin(getSourceType(), sourceParams);
+            List<Integer> chunk = new ArrayList<>(chunkSize);
+            for (int i = 0; i < count; i++) {
+                chunk.add(i);
+                if (chunk.size() == chunkSize || i == count - 1) {
+                    chunkListener.onChunk(chunk);
+                    chunk.clear();
+                    if (shouldFail) {
+                        chunkListener.onFailure(new DataResponseError("broke off"));
+                        return;
+                    }
+                }
+            }
+            chunkListener.onEnd();
+        }
+
+        @Override
+        protected void doStore(DataControllerResponse<List<Integer>> dataControllerResponse) {
+        }
+
+        @Override
+        public SourceType getSourceType() {
+            return SourceType.NETWORK;
+        }
+
+        @Override
+        public void cancel() {
+        }
+    }
+
+    /**
+     * Records the chunk sizes it receives, committing them on end.
+     */
+    private static class RecordingDataSource extends MockDataSource<List<Integer>> implements ChunkedStore<Integer> {
+
+        final List<Integer> pendingChunkSizes = new ArrayList<>();
+        final List<Integer> storedChunkSizes = new ArrayList<>();
+
+        @Override
+        public ChunkListener<Integer> beginStore(SourceParams sourceParams) {
+            return new RecordingChunkListener() {
+                @Override
+                public void onChunk(List<Integer> chunk) {
+                    pendingChunkSizes.add(chunk.size());
+                }
+
+                @Override
+                public void onEnd() {
+                    storedChunkSizes.addAll(pendingChunkSizes);
+                    pendingChunkSizes.clear();
+                }
+
+                @Override
+                public void onFailure(DataResponseError dataResponseError) {
+                    pendingChunkSizes.clear();
+                }
+            };
+        }
+
+        @Override
+        public SourceType getSourceType() {
+            return SourceType.DISK;
+        }
+    }
+
+    private static class RecordingChunkListener implements ChunkListener<Integer> {
+
+        final List<Integer> items = new ArrayList<>();
+        SourceType sourceType;
+        int chunkCount;
+        boolean isEnded;
+        DataResponseError error;
+
+        @Override
+        public void onBegin(SourceType sourceType, SourceParams sourceParams) {
+            this.sourceType = sourceType;
+        }
+
+        @Override
+        public void onChunk(List<Integer> chunk) {
+            items.addAll(chunk);
+            chunkCount++;
+        }
+
+        @Override
+        public void onEnd() {
+            isEnded = true;
+        }
+
+        @Override
+        public void onFailure(DataResponseError dataResponseError) {
+            error = dataResponseError;
+        }
+    }
+
+    @Test
+    public void test_streamsAndStoresChunks() throws Exception {
+        final MemoryDataSource<List<Integer>> memoryDataSource = new MemoryDataSource<>();
+        // stops at memory once it holds the list.
+        StreamingDataController<Integer> dataController = new StreamingDataController<>(
+                new SnapshotSingleTypeDataSourceContainer<List<Integer>>(), new DataSourceChainer<List<Integer>>() {
+            @Override
+            public boolean shouldQueryNext(DataSource<List<Integer>> lastSource,
+                                           DataSource<List<Integer>> sourceToChain) {
+                return !memoryDataSource.hasStoredData();
+            }
+        });
+        RecordingDataSource diskDataSource = new RecordingDataSource();
+        CountingDataSource networkDataSource = new CountingDataSource(10, 4);
+        dataController.registerDataSource(memoryDataSource);
+        dataController.registerDataSource(diskDataSource);
+        dataController.registerDataSource(networkDataSource);
+
+        RecordingChunkListener listener = new RecordingChunkListener();
+        DataControllerRequest<List<Integer>> request = dataController.requestStream(new SourceParams(), listener);
+
+        assertEquals(10, request.get().getResponse().size());
+        assertEquals(SourceType.NETWORK, listener.sourceType);
+        assertEquals(3, listener.chunkCount);
+        assertEquals(10, listener.items.size());
+        assertTrue(listener.isEnded);
+        assertEquals(Arrays.asList(4, 4, 2), diskDataSource.storedChunkSizes);
+        assertEquals(10, memoryDataSource.getStoredData().size());
+
+        // memory now serves it in one chunk.
+        RecordingChunkListener memoryListener = new RecordingChunkListener();
+        dataController.requestStream(new SourceParams(), memoryListener);
+        assertEquals(SourceType.MEMORY, memoryListener.sourceType);
+        assertEquals(1, memoryListener.chunkCount);
+        assertTrue(memoryListener.isEnded);
+        assertEquals(1, networkDataSource.streamCount);
+    }
+
+    @Test
+    public void test_streamReachesCallbacksAndStoragePolicy() throws Exception {
+        StreamingDataController<Integer> dataController = new StreamingDataController<>();
+        MemoryDataSource<List<Integer>> memoryDataSource = new MemoryDataSource<>();
+        RecordingDataSource diskDataSource = new RecordingDataSource();
+        CountingDataSource networkDataSource = new CountingDataSource(10, 4);
+        dataController.registerDataSource(memoryDataSource);
+        dataController.registerDataSource(diskDataSource);
+        dataController.registerDataSource(networkDataSource);
+        dataController.setStoragePolicy(new StoragePolicy<List<Integer>>() {
+            @Override
+            public void onResponse(DataControllerResponse<List<Integer>> response) {
+            }
+
+            @Override
+            public boolean shouldStore(DataControllerResponse<List<Integer>> response,
+                                       DataSource<List<Integer>> dataSource) {
+                return dataSource.getSourceType() == SourceType.DISK;
+            }
+        });
+        final List<DataControllerResponse<List<Integer>>> responses = new ArrayList<>();
+        dataController.registerForCallbacks(new DataController.DataControllerCallback<List<Integer>>() {
+            @Override
+            public void onFailure(DataResponseError dataResponseError) {
+            }
+
+            @Override
+            public void onSuccess(DataControllerResponse<List<Integer>> response) {
+                if (response.hasResponse()) {
+                    responses.add(response);
+                }
+            }
+        });
+
+        RecordingChunkListener listener = new RecordingChunkListener();
+        dataController.requestStream(new SourceParams(), listener);
+
+        assertEquals(3, listener.chunkCount);
+        assertEquals(1, responses.size());
+        assertEquals(10, responses.get(0).getResponse().size());
+        // the policy decides on the whole list, so nothing is stored chunk by chunk.
+        assertNull(memoryDataSource.getStoredData());
+        assertTrue(diskDataSource.isStoreCalled());
+        assertTrue(diskDataSource.storedChunkSizes.isEmpty());
+    }
+
+    @Test
+    public void test_joinedStreamReceivesSingleChunk() {
+        final List<ChunkListener<Integer>> pending = new ArrayList<>();
+        StreamingDataController<Integer> dataController = new StreamingDataController<>();
+        dataController.registerDataSource(new StreamingDataSource<Integer>() {
+            @Override
+            protected void doStream(SourceParams sourceParams, ChunkListener<Integer> chunkListener) {
+                pending.add(chunkListener);
+            }
+
+            @Override
+            protected void doStore(DataControllerResponse<List<Integer>> dataControllerResponse) {
+            }
+
+            @Override
+            public SourceType getSourceType() {
+                return SourceType.NETWORK;
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+
+        RecordingChunkListener first = new RecordingChunkListener();
+        RecordingChunkListener second = new RecordingChunkListener();
+        dataController.requestStream(new SourceParams(), first);
+        dataController.requestStream(new SourceParams(), second);
+        assertEquals(1, pending.size());
+        assertEquals(1, dataController.getRequestCoalescer().getCoalescedCount());
+
+        ChunkListener<Integer> stream = pending.get(0);
+        stream.onBegin(SourceType.NETWORK, new SourceParams());
+        stream.onChunk(Arrays.asList(1, 2));
+        stream.onChunk(Arrays.asList(3));
+        stream.onEnd();
+        assertEquals(2, first.chunkCount);
+        assertEquals(1, second.chunkCount);
+        assertEquals(Arrays.asList(1, 2, 3), second.items);
+        assertTrue(second.isEnded);
+    }
+
+    @Test
+    public void test_cancelledStreamStopsDelivery() {
+        final List<ChunkListener<Integer>> pending = new ArrayList<>();
+        StreamingDataController<Integer> dataController = new StreamingDataController<>();
+        dataController.registerDataSource(new StreamingDataSource<Integer>() {
+            @Override
+            protected void doStream(SourceParams sourceParams, ChunkListener<Integer> chunkListener) {
+                pending.add(chunkListener);
+            }
+
+            @Override
+            protected void doStore(DataControllerResponse<List<Integer>> dataControllerResponse) {
+            }
+
+            @Override
+            public SourceType getSourceType() {
+                return SourceType.NETWORK;
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+
+        RecordingChunkListener listener = new RecordingChunkListener();
+        DataControllerRequest<List<Integer>> request = dataController.requestStream(new SourceParams(), listener);
+        ChunkListener<Integer> stream = pending.get(0);
+        stream.onBegin(SourceType.NETWORK, new SourceParams());
+        stream.onChunk(Arrays.asList(1, 2));
+        request.cancel();
+        stream.onChunk(Arrays.asList(3));
+        stream.onEnd();
+        assertEquals(1, listener.chunkCount);
+        assertFalse(listener.isEnded);
+    }
+
+    @Test
+    public void test_discardsChunksOnFailure() {
+        StreamingDataController<Integer> dataController = new StreamingDataController<>();
+        MemoryDataSource<List<Integer>> memoryDataSource = new MemoryDataSource<>();
+        RecordingDataSource diskDataSource = new RecordingDataSource();
+        CountingDataSource networkDataSource = new CountingDataSource(10, 4);
+        networkDataSource.shouldFail = true;
+        dataController.registerDataSource(memoryDataSource);
+        dataController.registerDataSource(diskDataSource);
+        dataController.registerDataSource(networkDataSource);
+
+        RecordingChunkListener listener = new RecordingChunkListener();
+        dataController.requestStream(new SourceParams(), listener);
+
+        assertEquals(4, listener.items.size());
+        assertFalse(listener.isEnded);
+        assertEquals("broke off", listener.error.getMessage());
+        assertTrue(diskDataSource.storedChunkSizes.isEmpty());
+        assertTrue(diskDataSource.pendingChunkSizes.isEmpty());
+        assertNull(memoryDataSource.getStoredData());
+    }
+
+    @Test
+    public void test_getCollectsChunks() {
+        CountingDataSource dataSource = new CountingDataSource(5, 2);
+        final List<List<Integer>> responses = new ArrayList<>();
+        dataSource.get(new SourceParams(), new DataController.Success<List<Integer>>() {
+            @Override
+            public void onSuccess(DataControllerResponse<List<Integer>> response) {
+                responses.add(response.getResponse());
+            }
+        }, null);
+
+        assertEquals(1, responses.size());
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4), responses.get(0));
+    }
+
+    @Test
+    public void test_mapsChunks() {
+        StreamingMappingDataSource<Integer, String> dataSource = new StreamingMappingDataSource<>(
+                new CountingDataSource(5, 2), new MappingDataSource.Mapper<Integer, String>() {
+            @Override
+            public String mapFrom(Integer fromResponse) {
+                return "item" + fromResponse;
+            }
+
+            @Override
+            public Integer mapTo(String response) {
+                return Integer.valueOf(response.substring(4));
+            }
+        });
+        final List<Integer> chunkSizes = new ArrayList<>();
+        final List<String> items = new ArrayList<>();
+        dataSource.stream(new SourceParams(), new ChunkListener<String>() {
+            @Override
+            public void onBegin(SourceType sourceType, SourceParams sourceParams) {
+            }
+
+            @Override
+            public void onChunk(List<String> chunk) {
+                chunkSizes.add(chunk.size());
+                items.addAll(chunk);
+            }
+
+            @Override
+            public void onEnd() {
+            }
+
+            @Override
+            public void onFailure(DataResponseError dataResponseError) {
+            }
+        });
+
+        assertEquals(Arrays.asList(2, 2, 1), chunkSizes);
+        assertEquals("item4", items.get(4));
+    }
+}
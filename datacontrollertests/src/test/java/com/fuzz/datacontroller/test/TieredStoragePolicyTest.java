@@ -0,0 +1,148 @@
+package com.fuzz.datacontroller.test;
+
+import com.fuzz.datacontroller.DataController;
+import com.fuzz.datacontroller.DataControllerResponse;
+import com.fuzz.datacontroller.FirstStorageDataSourceChainer;
+import com.fuzz.datacontroller.TieredStoragePolicy;
+import com.fuzz.datacontroller.source.DataSource;
+import com.fuzz.datacontroller.source.KeyedMemoryDataSource;
+import com.fuzz.datacontroller.source.TreeMapSingleTypeDataSourceContainer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Description: Validates promotion, demotion and admission between tiers with the {@link TieredStoragePolicy}.
+ */
+public class TieredStoragePolicyTest {
+
+    private KeyedMemoryDataSource<Integer, String> memory;
+    private KeyedMemoryDataSource<Integer, String> disk;
+    private TieredStoragePolicy<String> policy;
+    private int networkCount;
+
+    @Before
+    public void before_test_Init() {
+        memory = new KeyedMemoryDataSource<>(KeyedMemoryDataSource.indexKeyExtractor(), 1);
+        disk = new KeyedMemoryDataSource<Integer, String>(KeyedMemoryDataSource.indexKeyExtractor(), 8) {
+            @Override
+            public SourceType getSourceType() {
+                return SourceType.DISK;
+            }
+        };
+        policy = new TieredStoragePolicy<>(KeyedMemoryDataSource.indexKeyExtractor());
+        networkCount = 0;
+    }
+
+    @Test
+    public void test_promotesToMemoryOnRepeatedAccess() {
+        DataController<String> dataController = createController();
+
+        dataController.requestData();
+        assertEquals(1, networkCount);
+        assertTrue(disk.hasStoredData());
+        assertFalse(memory.hasStoredData());
+
+        // served from disk, and now hot enough for memory.
+        dataController.requestData();
+        assertEquals(1, networkCount);
+        assertTrue(memory.hasStoredData());
+
+        dataController.requestData();
+        assertEquals(1, networkCount);
+        assertEquals(3, policy.getFrequency(new DataSource.SourceParams()));
+    }
+
+    @Test
+    public void test_memoryHitIsNotWrittenBack() {
+        memory.store(response("memory", DataSource.SourceType.NETWORK, 5));
+        DataControllerResponse<String> hit = response("memory", DataSource.SourceType.MEMORY, 5);
+
+        policy.onResponse(hit);
+        assertFalse(policy.shouldStore(hit, disk));
+    }
+
+    @Test
+    public void test_existingCopyIsAlwaysRefreshed() {
+        memory.store(response("old", DataSource.SourceType.NETWORK, 5));
+        DataControllerResponse<String> fresh = response("new", DataSource.SourceType.NETWORK, 5);
+
+        policy.onResponse(fresh);
+        assertEquals(1, policy.getFrequency(fresh.getSourceParams()));
+        assertTrue(policy.shouldStore(fresh, memory));
+    }
+
+    @Test
+    public void test_evictedEntriesAreDemoted() {
+        memory.setEvictionListener(policy.demoteTo(disk));
+
+        memory.store(response("first", DataSource.SourceType.NETWORK, 1));
+        memory.store(response("second", DataSource.SourceType.NETWORK, 2));
+        assertEquals(1, policy.getDemotionCount());
+        assertEquals("first", disk.getStoredData(params(1)));
+        assertNull(disk.getStoredData(params(2)));
+    }
+
+    @Test
+    public void test_demotionRespectsAdmission() {
+        policy.setAdmission(DataSource.SourceType.DISK, TieredStoragePolicy.<String>admitFrequency(1));
+        memory.setEvictionListener(policy.demoteTo(disk));
+
+        memory.store(response("first", DataSource.SourceType.NETWORK, 1));
+        memory.store(response("second", DataSource.SourceType.NETWORK, 2));
+        assertEquals(0, policy.getDemotionCount());
+        assertFalse(disk.getStoredDataMetadata(params(1)).exists());
+    }
+
+    @Test
+    public void test_frequenciesAge() {
+        TieredStoragePolicy<String> policy = new TieredStoragePolicy<>(KeyedMemoryDataSource.indexKeyExtractor(),
+                2, 2);
+        for (int i = 0; i < 3; i++) {
+            policy.onResponse(response("a", DataSource.SourceType.NETWORK, 1));
+        }
+        policy.onResponse(response("b", DataSource.SourceType.NETWORK, 2));
+        policy.onResponse(response("c", DataSource.SourceType.NETWORK, 3));
+
+        assertEquals(1, policy.getFrequency(params(1)));
+        assertEquals(0, policy.getFrequency(params(2)));
+    }
+
+    private DataController<String> createController() {
+        DataController<String> dataController = new DataController<>(
+                new TreeMapSingleTypeDataSourceContainer<String>(), new FirstStorageDataSourceChainer<String>());
+        dataController.registerDataSource(memory);
+        dataController.registerDataSource(disk);
+        dataController.registerDataSource(new MockDataSource<String>() {
+            @Override
+            protected void doGet(SourceParams sourceParams, DataController.Success<String> success,
+                                 DataController.Error error) {
+                networkCount++;
+                success.onSuccess(new DataControllerResponse<>("network", getSourceType()));
+            }
+
+            @Override
+            public SourceType getSourceType() {
+                return SourceType.NETWORK;
+            }
+        });
+        dataController.setStoragePolicy(policy);
+        return dataController;
+    }
+
+    private static DataSource.SourceParams params(int index) {
+        DataSource.SourceParams sourceParams = new DataSource.SourceParams();
+        sourceParams.index = index;
+        return sourceParams;
+    }
+
+    private static DataControllerResponse<String> response(String value, DataSource.SourceType sourceType,
+                                                           int index) {
+        return new DataControllerResponse<>(value, sourceType, null, params(index));
+    }
+}
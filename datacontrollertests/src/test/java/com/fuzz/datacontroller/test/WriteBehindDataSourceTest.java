@@ -0,0 +1,209 @@
+package com.fuzz.datacontroller.test;
+
+import com.fuzz.datacontroller.DataControllerResponse;
+import com.fuzz.datacontroller.source.DataSource.SourceParams;
+import com.fuzz.datacontroller.source.DataSource.SourceType;
+import com.fuzz.datacontroller.source.KeyedMemoryDataSource;
+import com.fuzz.datacontroller.source.WriteBehindDataSource;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Description: Validates stores are queued, coalesced and flushed.
+ */
+public class WriteBehindDataSourceTest {
+
+    @Test
+    public void test_queuesAndCoalesces() throws InterruptedException {
+        KeyedMemoryDataSource<Integer, String> memoryDataSource
+                = new KeyedMemoryDataSource<>(KeyedMemoryDataSource.indexKeyExtractor(), 10);
+        WriteBehindDataSource<Integer, String> writeBehindDataSource = new WriteBehindDataSource<>(
+                new KeyedMemoryDataSourceAsDisk(memoryDataSource), KeyedMemoryDataSource.indexKeyExtractor(),
+                100, 60000L);
+
+        writeBehindDataSource.store(response("first", 1));
+        writeBehindDataSource.store(response("second", 1));
+        writeBehindDataSource.store(response("other", 2));
+
+        assertEquals(2, writeBehindDataSource.getPendingCount());
+        assertEquals(1, writeBehindDataSource.getCoalescedCount());
+        assertNull(memoryDataSource.getStoredData(params(1)));
+        assertEquals("second", writeBehindDataSource.getStoredData(params(1)));
+
+        writeBehindDataSource.shutdown(5, TimeUnit.SECONDS);
+        assertEquals(0, writeBehindDataSource.getPendingCount());
+        assertEquals(2, writeBehindDataSource.getStoredCount());
+        assertEquals("second", memoryDataSource.getStoredData(params(1)));
+        assertEquals("other", memoryDataSource.getStoredData(params(2)));
+    }
+
+    @Test
+    public void test_flushesOnBatchSize() throws InterruptedException {
+        KeyedMemoryDataSource<Integer, String> memoryDataSource
+                = new KeyedMemoryDataSource<>(KeyedMemoryDataSource.indexKeyExtractor(), 10);
+        WriteBehindDataSource<Integer, String> writeBehindDataSource = new WriteBehindDataSource<>(
+                new KeyedMemoryDataSourceAsDisk(memoryDataSource), KeyedMemoryDataSource.indexKeyExtractor(),
+                2, 60000L);
+
+        writeBehindDataSource.store(response("first", 1));
+        writeBehindDataSource.store(response("second", 2));
+
+        long deadline = System.currentTimeMillis() + 5000L;
+        while (writeBehindDataSource.getStoredCount() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10L);
+        }
+        assertEquals(2, writeBehindDataSource.getStoredCount());
+        writeBehindDataSource.shutdown(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void test_staysReadableUntilWritten() throws InterruptedException {
+        KeyedMemoryDataSource<Integer, String> memoryDataSource
+                = new KeyedMemoryDataSource<>(KeyedMemoryDataSource.indexKeyExtractor(), 10);
+        final String[] readDuringWrite = new String[1];
+        final AtomicReference<WriteBehindDataSource<Integer, String>> holder = new AtomicReference<>();
+        holder.set(new WriteBehindDataSource<>(new KeyedMemoryDataSourceAsDisk(memoryDataSource) {
+            @Override
+            protected void doStore(DataControllerResponse<String> dataControllerResponse) {
+                readDuringWrite[0] = holder.get().getStoredData(params(1));
+                super.doStore(dataControllerResponse);
+            }
+        }, KeyedMemoryDataSource.indexKeyExtractor(), 100, 60000L));
+        WriteBehindDataSource<Integer, String> writeBehindDataSource = holder.get();
+
+        writeBehindDataSource.store(response("first", 1));
+        writeBehindDataSource.flush();
+        assertEquals("first", readDuringWrite[0]);
+        assertEquals(0, writeBehindDataSource.getPendingCount());
+        writeBehindDataSource.shutdown(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void test_reportsWriteFailures() throws InterruptedException {
+        WriteBehindDataSource<Integer, String> writeBehindDataSource = new WriteBehindDataSource<>(
+                new MockDataSource<String>() {
+                    @Override
+                    protected void doStore(DataControllerResponse<String> dataControllerResponse) {
+                        throw new IllegalStateException("disk full");
+                    }
+
+                    @Override
+                    public SourceType getSourceType() {
+                        return SourceType.DISK;
+                    }
+                }, KeyedMemoryDataSource.indexKeyExtractor(), 100, 60000L);
+        final List<String> failed = new ArrayList<>();
+        writeBehindDataSource.setWriteFailureListener(new WriteBehindDataSource.WriteFailureListener<String>() {
+            @Override
+            public void onWriteFailed(DataControllerResponse<String> response, RuntimeException error) {
+                failed.add(response.getResponse() + ": " + error.getMessage());
+            }
+        });
+
+        writeBehindDataSource.store(response("first", 1));
+        writeBehindDataSource.shutdown(5, TimeUnit.SECONDS);
+        assertEquals(1, writeBehindDataSource.getFailedCount());
+        assertEquals(Collections.singletonList("first: disk full"), failed);
+        assertEquals(0, writeBehindDataSource.getPendingCount());
+    }
+
+    /**
+     * Stores in memory while posing as disk, so network responses are written.
+     */
+    private static class KeyedMemoryDataSourceAsDisk extends MockDataSource<String> {
+
+        private final KeyedMemoryDataSource<Integer, String> memoryDataSource;
+
+        KeyedMemoryDataSourceAsDisk(KeyedMemoryDataSource<Integer, String> memoryDataSource) {
+            this.memoryDataSource = memoryDataSource;
+        }
+
+        @Override
+        protected void doStore(DataControllerResponse<String> dataControllerResponse) {
+            memoryDataSource.store(dataControllerResponse);
+        }
+
+        @Override
+        public String getStoredData(SourceParams sourceParams) {
+            return memoryDataSource.getStoredData(sourceParams);
+        }
+
+        @Override
+        public SourceType getSourceType() {
+            return SourceType.DISK;
+        }
+    }
+
+    @Test
+    public void test_listenerErrorsDoNotStopFlush() throws InterruptedException {
+        WriteBehindDataSource<Integer, String> writeBehindDataSource = new WriteBehindDataSource<>(
+                new MockDataSource<String>() {
+                    @Override
+                    protected void doStore(DataControllerResponse<String> dataControllerResponse) {
+                        throw new IllegalStateException("disk full");
+                    }
+
+                    @Override
+                    public SourceType getSourceType() {
+                        return SourceType.DISK;
+                    }
+                }, KeyedMemoryDataSource.indexKeyExtractor(), 100, 60000L);
+        writeBehindDataSource.setWriteFailureListener(new WriteBehindDataSource.WriteFailureListener<String>() {
+            @Override
+            public void onWriteFailed(DataControllerResponse<String> response, RuntimeException error) {
+                throw error;
+            }
+        });
+
+        writeBehindDataSource.store(response("first", 1));
+        writeBehindDataSource.store(response("second", 2));
+        writeBehindDataSource.flush();
+        assertEquals(2, writeBehindDataSource.getFailedCount());
+        assertEquals(0, writeBehindDataSource.getPendingCount());
+        writeBehindDataSource.shutdown(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void test_flushWritesOnlyWhatWasQueued() throws InterruptedException {
+        final AtomicReference<WriteBehindDataSource<Integer, String>> holder = new AtomicReference<>();
+        final KeyedMemoryDataSource<Integer, String> memoryDataSource
+                = new KeyedMemoryDataSource<Integer, String>(KeyedMemoryDataSource.indexKeyExtractor(), 10) {
+            @Override
+            protected void doStore(DataControllerResponse<String> dataControllerResponse) {
+                super.doStore(dataControllerResponse);
+                // every write queues another, i.e. a steady stream of stores.
+                int index = dataControllerResponse.getSourceParams().index;
+                holder.get().store(response("next", index + 1));
+            }
+        };
+        WriteBehindDataSource<Integer, String> writeBehindDataSource = new WriteBehindDataSource<>(
+                memoryDataSource, KeyedMemoryDataSource.indexKeyExtractor(), 100, 60000L);
+        holder.set(writeBehindDataSource);
+
+        writeBehindDataSource.store(response("first", 1));
+        writeBehindDataSource.flush();
+        assertEquals(1, writeBehindDataSource.getStoredCount());
+        assertEquals(1, writeBehindDataSource.getPendingCount());
+        assertEquals("next", writeBehindDataSource.getStoredData(params(2)));
+        writeBehindDataSource.shutdown(5, TimeUnit.SECONDS);
+    }
+
+    private static DataControllerResponse<String> response(String value, int index) {
+        return new DataControllerResponse<>(value, SourceType.NETWORK, null, params(index));
+    }
+
+    private static SourceParams params(int index) {
+        SourceParams sourceParams = new SourceParams();
+        sourceParams.index = index;
+        return sourceParams;
+    }
+}